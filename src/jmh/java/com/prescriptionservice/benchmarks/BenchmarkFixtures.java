@@ -0,0 +1,143 @@
+package com.prescriptionservice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.repositories.CatalogStore;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.ConsultationRepository;
+import com.prescriptionservice.repositories.ConsultationRepositoryImpl;
+import com.prescriptionservice.repositories.PatientRepository;
+import com.prescriptionservice.repositories.PatientRepositoryImpl;
+import com.prescriptionservice.repositories.ProductRepositoryImpl;
+import com.prescriptionservice.repositories.QuestionRepositoryImpl;
+import com.prescriptionservice.repositories.log.LogConsultationRepository;
+import com.prescriptionservice.repositories.reactive.ReactiveConsultationRepository;
+import com.prescriptionservice.repositories.reactive.ReactivePatientRepository;
+import com.prescriptionservice.repositories.reactive.ReactiveProductRepositoryAdapter;
+import com.prescriptionservice.repositories.reactive.ReactiveQuestionRepositoryAdapter;
+import com.prescriptionservice.services.AsyncAssessmentExecutor;
+import com.prescriptionservice.services.ConsultationMetrics;
+import com.prescriptionservice.services.ConsultationService;
+import com.prescriptionservice.services.ConsultationTokenService;
+import com.prescriptionservice.services.CurrentPatient;
+import com.prescriptionservice.services.QuestionCatalogCache;
+import com.prescriptionservice.services.ReactiveConsultationService;
+import com.prescriptionservice.services.eligibility.EligibilityRuleEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Wires the consultation services the way the application context does, without starting Spring.
+ */
+final class BenchmarkFixtures {
+
+    static final String PRODUCT_ID = "pear-allergy";
+
+    private BenchmarkFixtures() {
+    }
+
+    static ConsultationRepository inMemoryConsultationRepository() {
+        return new ConsultationRepositoryImpl(new SimpleMeterRegistry(), Duration.ofMinutes(30), Duration.ofHours(24), Integer.MAX_VALUE,
+                ConsultationRepositoryImpl.CapacityPolicy.REJECT_NEW, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Opens a log-structured repository in the given directory, syncing on the default 50ms interval.
+     * The caller closes it.
+     */
+    static LogConsultationRepository logConsultationRepository(Path directory) {
+        LogConsultationRepository repository = new LogConsultationRepository(new SimpleMeterRegistry(), directory,
+                DataSize.ofMegabytes(64), LogConsultationRepository.FsyncPolicy.INTERVAL, Duration.ofMillis(50),
+                Duration.ofMinutes(5), Duration.ofMinutes(1), 0.5);
+        repository.open();
+        return repository;
+    }
+
+    static Catalog catalog() {
+        CatalogVersion catalogVersion = new CatalogVersion();
+        CatalogStore catalogStore = new CatalogStore(catalogVersion, "");
+        try {
+            catalogStore.initializeCatalog();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ProductRepositoryImpl productRepository = new ProductRepositoryImpl(catalogStore);
+        QuestionRepositoryImpl questionRepository = new QuestionRepositoryImpl(catalogStore);
+        return new Catalog(catalogVersion, productRepository, questionRepository,
+                new QuestionCatalogCache(productRepository, questionRepository, catalogVersion, new ObjectMapper()));
+    }
+
+    static ConsultationService consultationService(ConsultationRepository consultationRepository) {
+        return consultationService(consultationRepository, new SimpleMeterRegistry());
+    }
+
+    static ConsultationService consultationService(ConsultationRepository consultationRepository, MeterRegistry meterRegistry) {
+        return consultationService(consultationRepository, patientRepository(), meterRegistry);
+    }
+
+    static ConsultationService consultationService(ConsultationRepository consultationRepository, PatientRepository patientRepository,
+                                                   MeterRegistry meterRegistry) {
+        return new ConsultationService(
+                catalog().questionCatalogCache(),
+                patientRepository,
+                consultationRepository,
+                new EligibilityRuleEngine(new SimpleMeterRegistry()),
+                new ConsultationTokenService(false, "", Duration.ofHours(24)),
+                new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[0], 1, 0, Duration.ofSeconds(1)),
+                new ConsultationMetrics(meterRegistry, new Duration[]{Duration.ofMillis(10), Duration.ofMillis(50)}),
+                new CurrentPatient(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                1000);
+    }
+
+    /**
+     * Wires the reactive service over the given consultation and patient repositories and the bundled catalog.
+     */
+    static ReactiveConsultationService reactiveConsultationService(ReactiveConsultationRepository consultationRepository,
+                                                                   ReactivePatientRepository patientRepository) {
+        Catalog catalog = catalog();
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        return new ReactiveConsultationService(
+                catalog.questionCatalogCache(),
+                catalog.catalogVersion(),
+                new ReactiveProductRepositoryAdapter(catalog.productRepository()),
+                new ReactiveQuestionRepositoryAdapter(catalog.questionRepository()),
+                patientRepository,
+                consultationRepository,
+                consultationService(inMemoryConsultationRepository(), meterRegistry),
+                new ConsultationTokenService(false, "", Duration.ofHours(24)),
+                new ConsultationMetrics(meterRegistry, new Duration[]{Duration.ofMillis(10), Duration.ofMillis(50)}),
+                new CurrentPatient());
+    }
+
+    static PatientRepositoryImpl patientRepository() {
+        PatientRepositoryImpl patientRepository = new PatientRepositoryImpl();
+        patientRepository.initializePatients();
+        return patientRepository;
+    }
+
+    static ConsultationRequest request(String q1, String q2, String q3, String q4, String q5) {
+        return new ConsultationRequest("John Doe", "1990-01-01", "123 Main Street, Test City, TC 12345", List.of(
+                new AnswerDto("Q1", q1),
+                new AnswerDto("Q2", q2),
+                new AnswerDto("Q3", q3),
+                new AnswerDto("Q4", q4),
+                new AnswerDto("Q5", q5)));
+    }
+
+    /**
+     * The product and question repositories over the bundled catalog with the cache built on top of them.
+     */
+    record Catalog(CatalogVersion catalogVersion, ProductRepositoryImpl productRepository, QuestionRepositoryImpl questionRepository,
+                   QuestionCatalogCache questionCatalogCache) {
+    }
+}
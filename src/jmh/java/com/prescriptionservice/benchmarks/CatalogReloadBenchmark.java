@@ -0,0 +1,117 @@
+package com.prescriptionservice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.models.entity.EligibilityRules;
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.Question;
+import com.prescriptionservice.repositories.CatalogLoader;
+import com.prescriptionservice.repositories.CatalogSnapshot;
+import com.prescriptionservice.repositories.CatalogStore;
+import com.prescriptionservice.repositories.CatalogVersion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures loading a large catalog directory into a snapshot, and a full reload that also publishes it.
+ * The catalog holds {@code products} products spread over {@code files} files, each product asking
+ * {@value #QUESTIONS_PER_PRODUCT} of {@value #QUESTIONS} shared questions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogReloadBenchmark {
+
+    private static final int QUESTIONS = 500;
+    private static final int QUESTIONS_PER_PRODUCT = 8;
+
+    @Param({"10000", "50000"})
+    public int products;
+
+    @Param({"1", "8"})
+    public int files;
+
+    private Path directory;
+    private CatalogLoader loader;
+    private CatalogStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("catalog-benchmark");
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        List<Question> questions = new ArrayList<>(QUESTIONS);
+        for (int i = 0; i < QUESTIONS; i++) {
+            questions.add(new Question("Q" + i, "Question " + i + "?", Question.QuestionType.YES_NO, i % 4 != 0));
+        }
+        objectMapper.writeValue(directory.resolve("questions.json").toFile(), Map.of("questions", questions));
+
+        int productsPerFile = (products + files - 1) / files;
+        for (int file = 0; file < files; file++) {
+            List<Product> batch = new ArrayList<>(productsPerFile);
+            for (int i = file * productsPerFile; i < Math.min(products, (file + 1) * productsPerFile); i++) {
+                batch.add(product(i));
+            }
+            objectMapper.writeValue(directory.resolve("products-" + file + ".json").toFile(), Map.of("products", batch));
+        }
+
+        loader = new CatalogLoader();
+        store = new CatalogStore(new CatalogVersion(), directory.toString());
+        store.initializeCatalog();
+    }
+
+    private static Product product(int index) {
+        List<String> questionIds = new ArrayList<>(QUESTIONS_PER_PRODUCT);
+        for (int i = 0; i < QUESTIONS_PER_PRODUCT; i++) {
+            questionIds.add("Q" + (index + i) % QUESTIONS);
+        }
+        EligibilityRules.Outcome notEligible = new EligibilityRules.Outcome(false, "Not eligible",
+                Consultation.EligibilityStatus.NOT_ELIGIBLE);
+        EligibilityRules rules = new EligibilityRules(questionIds.subList(0, 1), notEligible, questionIds.subList(1, 4),
+                List.of(new EligibilityRules.SymptomThreshold(2, new EligibilityRules.Outcome(true, "Eligible",
+                        Consultation.EligibilityStatus.ELIGIBLE))),
+                notEligible);
+        return new Product("product-" + index, "Product " + index, "Treatment " + index, questionIds, rules);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> entries = Files.walk(directory)) {
+            entries.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public CatalogSnapshot load() throws IOException {
+        return loader.load(directory);
+    }
+
+    @Benchmark
+    public CatalogSnapshot reload() throws IOException {
+        return store.reload();
+    }
+}
@@ -0,0 +1,58 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.models.entity.RandomUuidGenerator;
+import com.prescriptionservice.models.entity.UlidGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Clock;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating a consultation, which is dominated by generating its ID, and the per-ID cost of each
+ * generator: the default ULIDs, the striped random UUIDs, and {@link UUID#randomUUID()}, whose single shared
+ * SecureRandom serializes concurrent callers.
+ * Run with {@code -t} to compare under contention, e.g. {@code -Pbenchmarks="ConsultationCreationBenchmark -t 8"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultationCreationBenchmark {
+
+    private final UlidGenerator ulidGenerator = new UlidGenerator(Clock.systemUTC());
+    private final RandomUuidGenerator randomUuidGenerator = new RandomUuidGenerator();
+
+    @Benchmark
+    public Consultation newConsultation() {
+        return new Consultation("patient-123", BenchmarkFixtures.PRODUCT_ID);
+    }
+
+    @Benchmark
+    public String ulid() {
+        return ulidGenerator.next();
+    }
+
+    @Benchmark
+    public String stripedRandomUuid() {
+        return randomUuidGenerator.next();
+    }
+
+    @Benchmark
+    public String randomUuidBaseline() {
+        return UUID.randomUUID().toString();
+    }
+}
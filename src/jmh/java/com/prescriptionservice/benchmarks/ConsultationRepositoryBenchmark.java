@@ -0,0 +1,93 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.ConsultationRepository;
+import com.prescriptionservice.repositories.log.LogConsultationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the consultation store under a read-mostly mix of concurrent saves and lookups, for both the
+ * in-memory store and the log-structured store. Saves update already stored consultations so the store size
+ * stays at {@code consultations} for the whole run.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConsultationRepositoryBenchmark {
+
+    @Param({"memory", "log"})
+    public String store;
+
+    @Param({"10000"})
+    public int consultations;
+
+    private ConsultationRepository repository;
+    private Path directory;
+    private Consultation[] stored;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("log".equals(store)) {
+            directory = Files.createTempDirectory("consultation-log-benchmark");
+            repository = BenchmarkFixtures.logConsultationRepository(directory);
+        } else {
+            repository = BenchmarkFixtures.inMemoryConsultationRepository();
+        }
+        stored = new Consultation[consultations];
+        for (int i = 0; i < consultations; i++) {
+            stored[i] = repository.save(new Consultation("patient-123", BenchmarkFixtures.PRODUCT_ID));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (repository instanceof LogConsultationRepository logRepository) {
+            logRepository.close();
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(2)
+    public Consultation save() {
+        Consultation consultation = stored[ThreadLocalRandom.current().nextInt(stored.length)];
+        consultation.setEligibilityStatus(Consultation.EligibilityStatus.REQUIRES_REVIEW);
+        return repository.save(consultation);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(6)
+    public Optional<Consultation> findById() {
+        return repository.findById(stored[ThreadLocalRandom.current().nextInt(stored.length)].getId());
+    }
+}
@@ -0,0 +1,138 @@
+package com.prescriptionservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.prescriptionservice.controllers.AnswerDtoDeserializer;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.models.dto.QuestionsResponse;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.services.AnswerParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the encodings the API negotiates (JSON, CBOR and Smile) on the three payloads mobile clients exchange:
+ * the questions response, the answer submission and the eligibility response.
+ * Submissions are read with the application's answer deserializer, as the message converters read them.
+ * The encoded size of each payload is written once per trial to {@code payload-sizes/<format>.json} in the
+ * directory of the JMH results file, which the jmh task passes as the {@value #REPORTS_DIR_PROPERTY} property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContentEncodingBenchmark {
+
+    static final String REPORTS_DIR_PROPERTY = "benchmarks.reports-dir";
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectWriter questionsWriter;
+    private ObjectReader questionsReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader requestReader;
+    private ObjectWriter eligibilityWriter;
+    private ObjectReader eligibilityReader;
+    private QuestionsResponse questions;
+    private ConsultationRequest request;
+    private EligibilityResponse eligibility;
+    private byte[] encodedQuestions;
+    private byte[] encodedRequest;
+    private byte[] encodedEligibility;
+
+    @Setup
+    public void setUp() throws IOException {
+        JsonFactory factory = switch (format) {
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> new JsonFactory();
+        };
+        AnswerParser answerParser = new AnswerParser(BenchmarkFixtures.catalog().questionRepository(), new CatalogVersion());
+        ObjectMapper objectMapper = new ObjectMapper(factory)
+                .registerModule(new SimpleModule().addDeserializer(AnswerDto.class, new AnswerDtoDeserializer(answerParser)));
+        questionsWriter = objectMapper.writerFor(QuestionsResponse.class);
+        questionsReader = objectMapper.readerFor(QuestionsResponse.class);
+        requestWriter = objectMapper.writerFor(ConsultationRequest.class);
+        requestReader = objectMapper.readerFor(ConsultationRequest.class);
+        eligibilityWriter = objectMapper.writerFor(EligibilityResponse.class);
+        eligibilityReader = objectMapper.readerFor(EligibilityResponse.class);
+
+        questions = new QuestionsResponse(
+                BenchmarkFixtures.catalog().questionCatalogCache().getProductQuestions(BenchmarkFixtures.PRODUCT_ID).questionDtos(),
+                "01HZX3K6Q9V4T8M2N7P5R1S0WB");
+        request = BenchmarkFixtures.request("yes", "yes", "no", "no", "no");
+        eligibility = new EligibilityResponse("01HZX3K6Q9V4T8M2N7P5R1S0WB", true,
+                "You appear to be a good candidate for our pear allergy treatment.", "ELIGIBLE");
+        encodedQuestions = questionsWriter.writeValueAsBytes(questions);
+        encodedRequest = requestWriter.writeValueAsBytes(request);
+        encodedEligibility = eligibilityWriter.writeValueAsBytes(eligibility);
+        writePayloadSizes(new PayloadSizes(format, encodedQuestions.length, encodedRequest.length, encodedEligibility.length));
+    }
+
+    private static void writePayloadSizes(PayloadSizes sizes) throws IOException {
+        Path file = Path.of(System.getProperty(REPORTS_DIR_PROPERTY, "build/reports/jmh"), "payload-sizes",
+                sizes.format() + ".json");
+        Files.createDirectories(file.getParent());
+        new ObjectMapper().writeValue(file.toFile(), sizes);
+    }
+
+    @Benchmark
+    public byte[] encodeQuestionsResponse() throws IOException {
+        return questionsWriter.writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public QuestionsResponse decodeQuestionsResponse() throws IOException {
+        return questionsReader.readValue(encodedQuestions);
+    }
+
+    @Benchmark
+    public byte[] encodeConsultationRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public ConsultationRequest decodeConsultationRequest() throws IOException {
+        return requestReader.readValue(encodedRequest);
+    }
+
+    @Benchmark
+    public byte[] encodeEligibilityResponse() throws IOException {
+        return eligibilityWriter.writeValueAsBytes(eligibility);
+    }
+
+    @Benchmark
+    public EligibilityResponse decodeEligibilityResponse() throws IOException {
+        return eligibilityReader.readValue(encodedEligibility);
+    }
+
+    /**
+     * Encoded sizes in bytes of the payloads in one format.
+     */
+    record PayloadSizes(String format, int questions, int answers, int eligibility) {
+    }
+}
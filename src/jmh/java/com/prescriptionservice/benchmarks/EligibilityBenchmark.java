@@ -0,0 +1,87 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.models.entity.Answer;
+import com.prescriptionservice.models.entity.CompactAnswers;
+import com.prescriptionservice.services.ConsultationService;
+import com.prescriptionservice.services.QuestionCatalogCache;
+import com.prescriptionservice.services.eligibility.EligibilityAssessment;
+import com.prescriptionservice.services.eligibility.EligibilityRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures eligibility assessment for each outcome of the pear allergy rules.
+ * {@code compactAnswers} is the path taken on submission (answers folded into a yes-mask, then evaluated),
+ * {@code answerList} evaluates stored answers, and {@code processConsultation} adds the lookups and the save.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EligibilityBenchmark {
+
+    @Param({"eligible", "review", "ineligible", "no-symptoms"})
+    public String answers;
+
+    private EligibilityRuleEngine eligibilityRuleEngine;
+    private QuestionCatalogCache.ProductQuestions productQuestions;
+    private ConsultationService consultationService;
+    private ConsultationRequest request;
+    private List<Answer> answerList;
+    private String consultationId;
+
+    @Setup
+    public void setUp() {
+        eligibilityRuleEngine = new EligibilityRuleEngine(new SimpleMeterRegistry());
+        productQuestions = BenchmarkFixtures.catalog().questionCatalogCache().getProductQuestions(BenchmarkFixtures.PRODUCT_ID);
+        consultationService = BenchmarkFixtures.consultationService(BenchmarkFixtures.inMemoryConsultationRepository());
+        consultationId = consultationService.getConsultationQuestions(BenchmarkFixtures.PRODUCT_ID).getConsultationId();
+        request = switch (answers) {
+            case "eligible" -> BenchmarkFixtures.request("yes", "yes", "yes", "no", "no");
+            case "review" -> BenchmarkFixtures.request("yes", "no", "no", "no", "no");
+            case "ineligible" -> BenchmarkFixtures.request("yes", "yes", "yes", "yes", "yes");
+            case "no-symptoms" -> BenchmarkFixtures.request("no", "no", "no", "no", "no");
+            default -> throw new IllegalArgumentException("Unknown answer mix: " + answers);
+        };
+        answerList = request.getAnswers().stream()
+                .map(answer -> new Answer(answer.getQuestionId(), answer.getValue()))
+                .toList();
+    }
+
+    @Benchmark
+    public EligibilityAssessment compactAnswers() {
+        CompactAnswers.Builder builder = CompactAnswers.builder(productQuestions.questionIndex());
+        for (AnswerDto answer : request.getAnswers()) {
+            builder.add(answer.getQuestionId(), answer.getValue());
+        }
+        return eligibilityRuleEngine.assess(productQuestions.product(), productQuestions.questions(), builder.build().yesMask());
+    }
+
+    @Benchmark
+    public EligibilityAssessment answerList() {
+        return eligibilityRuleEngine.assess(productQuestions.product(), productQuestions.questions(), answerList);
+    }
+
+    @Benchmark
+    public EligibilityResponse processConsultation() {
+        return consultationService.processConsultation(consultationId, request);
+    }
+}
@@ -0,0 +1,76 @@
+package com.prescriptionservice.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prescriptionservice.controllers.GlobalExceptionHandler;
+import com.prescriptionservice.exceptions.ConsultationNotFoundException;
+import com.prescriptionservice.exceptions.DomainExceptions;
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.ConsultationRepository;
+import com.prescriptionservice.services.ConsultationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a consultation status request that fails with 404 to one that succeeds: the service lookup, the
+ * exception handler and the serialized body. With stack traces off (the default), a flood of unknown IDs should cost
+ * about as much as successful lookups; {@code stackTraces=true} shows what the debug switch costs. The stack here is
+ * only a few frames deep, so in the servlet stack, where it is far deeper, capturing traces costs more still.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorPathBenchmark {
+
+    @Param({"false", "true"})
+    public boolean stackTraces;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+    private ConsultationService consultationService;
+    private String consultationId;
+
+    @Setup
+    public void setUp() {
+        DomainExceptions.setStackTracesEnabled(stackTraces);
+        ConsultationRepository consultationRepository = BenchmarkFixtures.inMemoryConsultationRepository();
+        Consultation consultation = new Consultation("patient-123", BenchmarkFixtures.PRODUCT_ID);
+        consultationRepository.save(consultation);
+        consultationService = BenchmarkFixtures.consultationService(consultationRepository);
+        consultationId = consultation.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        DomainExceptions.setStackTracesEnabled(false);
+    }
+
+    @Benchmark
+    public byte[] statusFound() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(consultationService.getConsultationStatus(consultationId));
+    }
+
+    @Benchmark
+    public byte[] statusNotFound() throws JsonProcessingException {
+        try {
+            return objectMapper.writeValueAsBytes(consultationService.getConsultationStatus("unknown-consultation"));
+        } catch (ConsultationNotFoundException e) {
+            return objectMapper.writeValueAsBytes(exceptionHandler.handleConsultationNotFoundException(e).getBody());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.prescriptionservice.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.prescriptionservice.controllers.AnswerDtoDeserializer;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.QuestionsResponse;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.services.AnswerParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson (de)serialization of the answer submission body and the questions response,
+ * with readers and writers bound up front as Spring's message converters do.
+ * The submission body is read both with plain data binding and with the application's answer deserializer,
+ * which also parses every answer against its question's type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    private ObjectReader requestReader;
+    private ObjectReader typedRequestReader;
+    private ObjectWriter requestWriter;
+    private ObjectReader questionsReader;
+    private ObjectWriter questionsWriter;
+    private ConsultationRequest request;
+    private QuestionsResponse questions;
+    private byte[] requestJson;
+    private byte[] questionsJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        requestReader = objectMapper.readerFor(ConsultationRequest.class);
+        requestWriter = objectMapper.writerFor(ConsultationRequest.class);
+        AnswerParser answerParser = new AnswerParser(BenchmarkFixtures.catalog().questionRepository(), new CatalogVersion());
+        typedRequestReader = new ObjectMapper()
+                .registerModule(new SimpleModule().addDeserializer(AnswerDto.class, new AnswerDtoDeserializer(answerParser)))
+                .readerFor(ConsultationRequest.class);
+        questionsReader = objectMapper.readerFor(QuestionsResponse.class);
+        questionsWriter = objectMapper.writerFor(QuestionsResponse.class);
+
+        request = BenchmarkFixtures.request("yes", "yes", "no", "no", "no");
+        questions = new QuestionsResponse(
+                BenchmarkFixtures.catalog().questionCatalogCache().getProductQuestions(BenchmarkFixtures.PRODUCT_ID).questionDtos(),
+                "c0a80101-7b1e-4c62-9f1a-5d2e3b4a6c7d");
+        requestJson = requestWriter.writeValueAsBytes(request);
+        questionsJson = questionsWriter.writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public byte[] serializeConsultationRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public ConsultationRequest deserializeConsultationRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public ConsultationRequest deserializeConsultationRequestWithTypedAnswers() throws IOException {
+        return typedRequestReader.readValue(requestJson);
+    }
+
+    @Benchmark
+    public byte[] serializeQuestionsResponse() throws IOException {
+        return questionsWriter.writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public QuestionsResponse deserializeQuestionsResponse() throws IOException {
+        return questionsReader.readValue(questionsJson);
+    }
+}
@@ -0,0 +1,64 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.models.dto.QuestionsResponse;
+import com.prescriptionservice.services.ConsultationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of the consultation request metrics. With {@code registry=noop} every meter is a no-op
+ * (an empty composite registry), which leaves the timestamps as the only remaining cost; {@code simple} records
+ * into the in-memory registry the application uses when no monitoring system is configured.
+ * The difference between the two is the instrumentation overhead per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"noop", "simple"})
+    public String registry;
+
+    private ConsultationService consultationService;
+    private ConsultationRequest request;
+    private String consultationId;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = "simple".equals(registry) ? new SimpleMeterRegistry() : new CompositeMeterRegistry();
+        consultationService = BenchmarkFixtures.consultationService(BenchmarkFixtures.inMemoryConsultationRepository(), meterRegistry);
+        consultationId = consultationService.getConsultationQuestions(BenchmarkFixtures.PRODUCT_ID).getConsultationId();
+        request = BenchmarkFixtures.request("yes", "yes", "no", "no", "no");
+    }
+
+    @Benchmark
+    public EligibilityResponse processConsultation() {
+        return consultationService.processConsultation(consultationId, request);
+    }
+
+    @Benchmark
+    public QuestionsResponse getConsultationQuestions() {
+        return consultationService.getConsultationQuestions(BenchmarkFixtures.PRODUCT_ID);
+    }
+}
@@ -0,0 +1,73 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.dto.QuestionDto;
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
+import com.prescriptionservice.models.entity.Question;
+import com.prescriptionservice.repositories.QuestionRepositoryImpl;
+import com.prescriptionservice.services.QuestionCatalogCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures resolving a product's questions: the repository lookup by ID, the question index the catalog
+ * resolves when it is loaded, the entity to DTO mapping, and the cached snapshot the GET-questions endpoint
+ * actually serves from.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuestionCatalogBenchmark {
+
+    private QuestionRepositoryImpl questionRepository;
+    private QuestionCatalogCache questionCatalogCache;
+    private Product product;
+    private List<String> questionIds;
+    private List<Question> questions;
+
+    @Setup
+    public void setUp() {
+        BenchmarkFixtures.Catalog catalog = BenchmarkFixtures.catalog();
+        questionRepository = catalog.questionRepository();
+        questionCatalogCache = catalog.questionCatalogCache();
+        product = catalog.productRepository().findById(BenchmarkFixtures.PRODUCT_ID).orElseThrow();
+        questionIds = product.getQuestionIds();
+        questions = questionRepository.findByIds(questionIds);
+    }
+
+    @Benchmark
+    public List<Question> findByIds() {
+        return questionRepository.findByIds(questionIds);
+    }
+
+    @Benchmark
+    public ProductQuestionIndex findQuestionIndex() {
+        return questionRepository.findQuestionIndex(product);
+    }
+
+    @Benchmark
+    public List<QuestionDto> mapToDtos() {
+        return questions.stream()
+                .map(QuestionDto::fromEntity)
+                .toList();
+    }
+
+    @Benchmark
+    public QuestionCatalogCache.ProductQuestions cachedProductQuestions() {
+        return questionCatalogCache.getProductQuestions(BenchmarkFixtures.PRODUCT_ID);
+    }
+}
@@ -0,0 +1,184 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.models.entity.Patient;
+import com.prescriptionservice.repositories.PatientRepository;
+import com.prescriptionservice.repositories.reactive.ReactiveConsultationRepository;
+import com.prescriptionservice.repositories.reactive.ReactiveConsultationRepositoryAdapter;
+import com.prescriptionservice.repositories.reactive.ReactivePatientRepository;
+import com.prescriptionservice.repositories.reactive.ReactivePatientRepositoryAdapter;
+import com.prescriptionservice.services.ConsultationService;
+import com.prescriptionservice.services.ReactiveConsultationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the servlet stack's blocking request path with the reactive stack's when the consultation and patient
+ * repositories take {@code repositoryLatencyMillis} per call, e.g. for a database round trip.
+ * Each benchmark thread plays one concurrent client running the GET-questions then POST-answers flow. On the
+ * {@code mvc} stack the flow runs on a pool sized like Tomcat's default of 200 threads, each thread sleeping through
+ * the latency; on the {@code webflux} stack the latency is a timer, so no thread waits for it and the consultation
+ * and patient lookups of a submission overlap.
+ * Throughput mode gives the completed flows per second, sample mode the latency percentiles (p99).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1000)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ReactiveStackBenchmark {
+
+    @Param({"mvc", "webflux"})
+    public String stack;
+
+    @Param({"200"})
+    public int servletPoolSize;
+
+    @Param({"5"})
+    public long repositoryLatencyMillis;
+
+    private ExecutorService executor;
+    private ConsultationService consultationService;
+    private ReactiveConsultationService reactiveConsultationService;
+    private ConsultationRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        request = BenchmarkFixtures.request("yes", "yes", "no", "no", "no");
+        if ("mvc".equals(stack)) {
+            executor = Executors.newFixedThreadPool(servletPoolSize);
+            consultationService = BenchmarkFixtures.consultationService(
+                    new VirtualThreadBenchmark.SlowConsultationRepository(BenchmarkFixtures.inMemoryConsultationRepository(),
+                            repositoryLatencyMillis),
+                    new SlowPatientRepository(BenchmarkFixtures.patientRepository(), repositoryLatencyMillis),
+                    new SimpleMeterRegistry());
+        } else {
+            Duration latency = Duration.ofMillis(repositoryLatencyMillis);
+            reactiveConsultationService = BenchmarkFixtures.reactiveConsultationService(
+                    new DelayedConsultationRepository(new ReactiveConsultationRepositoryAdapter(
+                            BenchmarkFixtures.inMemoryConsultationRepository(), Schedulers.immediate()), latency),
+                    new DelayedPatientRepository(new ReactivePatientRepositoryAdapter(BenchmarkFixtures.patientRepository()),
+                            latency));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Benchmark
+    public EligibilityResponse questionsThenAnswers() throws Exception {
+        if (reactiveConsultationService != null) {
+            // Blocking here stands in for the client waiting on its response, not for a server thread
+            return reactiveConsultationService.getSerializedConsultationQuestions(BenchmarkFixtures.PRODUCT_ID)
+                    .flatMap(questions -> reactiveConsultationService.processConsultation(questions.getConsultationId(), request))
+                    .block();
+        }
+        return executor.submit(() -> {
+            String consultationId = consultationService.getSerializedConsultationQuestions(BenchmarkFixtures.PRODUCT_ID)
+                    .getConsultationId();
+            return consultationService.processConsultation(consultationId, request);
+        }).get();
+    }
+
+    /**
+     * Patient repository that blocks for a fixed time on every call, standing in for blocking I/O.
+     */
+    static final class SlowPatientRepository implements PatientRepository {
+
+        private final PatientRepository delegate;
+        private final long latencyMillis;
+
+        SlowPatientRepository(PatientRepository delegate, long latencyMillis) {
+            this.delegate = delegate;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Optional<Patient> findById(String id) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return delegate.findById(id);
+        }
+
+        @Override
+        public Patient save(Patient patient) {
+            return delegate.save(patient);
+        }
+    }
+
+    /**
+     * Reactive consultation repository that completes each call after a fixed delay, standing in for non-blocking I/O.
+     */
+    static final class DelayedConsultationRepository implements ReactiveConsultationRepository {
+
+        private final ReactiveConsultationRepository delegate;
+        private final Duration latency;
+
+        DelayedConsultationRepository(ReactiveConsultationRepository delegate, Duration latency) {
+            this.delegate = delegate;
+            this.latency = latency;
+        }
+
+        @Override
+        public Mono<Consultation> save(Consultation consultation) {
+            return Mono.delay(latency).then(delegate.save(consultation));
+        }
+
+        @Override
+        public Mono<Consultation> findById(String id) {
+            return Mono.delay(latency).then(delegate.findById(id));
+        }
+    }
+
+    /**
+     * Reactive patient repository that completes each call after a fixed delay, standing in for non-blocking I/O.
+     */
+    static final class DelayedPatientRepository implements ReactivePatientRepository {
+
+        private final ReactivePatientRepository delegate;
+        private final Duration latency;
+
+        DelayedPatientRepository(ReactivePatientRepository delegate, Duration latency) {
+            this.delegate = delegate;
+            this.latency = latency;
+        }
+
+        @Override
+        public Mono<Patient> findById(String id) {
+            return Mono.delay(latency).then(delegate.findById(id));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.prescriptionservice.benchmarks;
+
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.ConsultationRepository;
+import com.prescriptionservice.repositories.HistoryPosition;
+import com.prescriptionservice.services.ConsultationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the request path on a platform-thread pool against virtual threads when the consultation
+ * repository blocks, e.g. on a database round trip.
+ * Each benchmark thread plays one concurrent client running the GET-questions then POST-answers flow on the
+ * executor under test, so with 1000 clients the platform pool (sized like Tomcat's default of 200 threads)
+ * queues requests while virtual threads run them all concurrently.
+ * Throughput mode gives the completed flows per second, sample mode the latency percentiles (p99).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(1000)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"200"})
+    public int platformPoolSize;
+
+    @Param({"5"})
+    public long repositoryLatencyMillis;
+
+    private ExecutorService executor;
+    private ConsultationService consultationService;
+    private ConsultationRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformPoolSize);
+        consultationService = BenchmarkFixtures.consultationService(
+                new SlowConsultationRepository(BenchmarkFixtures.inMemoryConsultationRepository(), repositoryLatencyMillis));
+        request = BenchmarkFixtures.request("yes", "yes", "no", "no", "no");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public EligibilityResponse questionsThenAnswers() throws Exception {
+        return executor.submit(() -> {
+            String consultationId = consultationService.getConsultationQuestions(BenchmarkFixtures.PRODUCT_ID).getConsultationId();
+            return consultationService.processConsultation(consultationId, request);
+        }).get();
+    }
+
+    /**
+     * Consultation repository that blocks for a fixed time on every call, standing in for blocking I/O.
+     */
+    static final class SlowConsultationRepository implements ConsultationRepository {
+
+        private final ConsultationRepository delegate;
+        private final long latencyMillis;
+
+        SlowConsultationRepository(ConsultationRepository delegate, long latencyMillis) {
+            this.delegate = delegate;
+            this.latencyMillis = latencyMillis;
+        }
+
+        @Override
+        public Consultation save(Consultation consultation) {
+            block();
+            return delegate.save(consultation);
+        }
+
+        @Override
+        public Optional<Consultation> findById(String id) {
+            block();
+            return delegate.findById(id);
+        }
+
+        @Override
+        public List<Consultation> findByPatientId(String patientId, HistoryPosition after, int limit) {
+            block();
+            return delegate.findByPatientId(patientId, after, limit);
+        }
+
+        private void block() {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.prescriptionservice.loadtest;
+
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Draws answer sets for the pear allergy questions.
+ * Symptoms are correlated, so patients are first drawn as symptomatic or not and each question is then answered
+ * "yes" with that group's probability. A few patients answer in mixed case, as typed input would be.
+ * This yields roughly 20% eligible, 50% requiring review and 30% not eligible consultations, 6% of all
+ * patients reporting a previous adverse reaction (Q5).
+ */
+final class AnswerDistribution {
+
+    private static final String[] QUESTION_IDS = {"Q1", "Q2", "Q3", "Q4", "Q5"};
+    private static final double SYMPTOMATIC_SHARE = 0.6;
+    private static final double[] SYMPTOMATIC_YES = {0.8, 0.6, 0.7, 0.4, 0.06};
+    private static final double[] ASYMPTOMATIC_YES = {0.15, 0.1, 0.1, 0.2, 0.06};
+    private static final double MIXED_CASE_SHARE = 0.05;
+
+    ConsultationRequest next() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double[] yesProbabilities = random.nextDouble() < SYMPTOMATIC_SHARE ? SYMPTOMATIC_YES : ASYMPTOMATIC_YES;
+        boolean mixedCase = random.nextDouble() < MIXED_CASE_SHARE;
+
+        List<AnswerDto> answers = new ArrayList<>(QUESTION_IDS.length);
+        for (int i = 0; i < QUESTION_IDS.length; i++) {
+            boolean yes = random.nextDouble() < yesProbabilities[i];
+            String value = mixedCase ? (yes ? "Yes" : "No") : (yes ? "yes" : "no");
+            answers.add(new AnswerDto(QUESTION_IDS[i], value));
+        }
+        return new ConsultationRequest("John Doe", "1990-01-01", "123 Main Street, Test City, TC 12345", answers);
+    }
+}
@@ -0,0 +1,221 @@
+package com.prescriptionservice.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives the GET-questions then POST-answers flow at an open-model arrival rate.
+ * Flows start on a schedule that does not wait for earlier flows to complete, and every latency is measured from
+ * the time the request was due to be sent rather than the time it was sent. When the service (or this generator)
+ * falls behind, the queueing delay is therefore part of the recorded latency instead of being omitted.
+ * The POST is due as soon as its GET completes, so the flow latency is the sum of both.
+ */
+final class ConsultationFlowDriver {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final AnswerDistribution answerDistribution;
+    private final URI questionsUri;
+    private final URI consultationsUri;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final Histogram questionsLatency = newHistogram();
+    private final Histogram answersLatency = newHistogram();
+    private final Histogram flowLatency = newHistogram();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder totalCompleted = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    ConsultationFlowDriver(HttpClient httpClient, ObjectMapper objectMapper, AnswerDistribution answerDistribution,
+                           URI baseUri, String productId, int maxInFlight) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.answerDistribution = answerDistribution;
+        this.questionsUri = baseUri.resolve("/api/consultations/" + productId + "/questions");
+        this.consultationsUri = baseUri.resolve("/api/consultations/");
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Starts flows at the target rate for the warmup and measurement periods, then waits for them to complete.
+     * Only flows due after the warmup are recorded.
+     *
+     * @param rate Flows started per second
+     * @param poissonArrivals Whether arrivals are a Poisson process rather than evenly spaced
+     * @param warmup Time spent starting flows before recording
+     * @param duration Time spent starting recorded flows
+     * @return The results of the recorded flows
+     */
+    LoadTestResult run(double rate, boolean poissonArrivals, Duration warmup, Duration duration) throws InterruptedException {
+        long meanIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measurementStart = start + warmup.toNanos();
+        long end = measurementStart + duration.toNanos();
+
+        long due = start;
+        while (due < end) {
+            long now;
+            while ((now = System.nanoTime()) < due) {
+                LockSupport.parkNanos(due - now);
+            }
+            startFlow(due, due >= measurementStart);
+            due += poissonArrivals
+                    ? (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos)
+                    : meanIntervalNanos;
+        }
+        long scheduleEnd = System.nanoTime();
+
+        long drainDeadline = scheduleEnd + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+
+        return new LoadTestResult(rate, Duration.ofNanos(end - measurementStart), completed.sum(), failed.sum(),
+                dropped.sum(), inFlight.get(), totalCompleted.sum(), questionsLatency, answersLatency, flowLatency,
+                snapshot(outcomes), snapshot(errors));
+    }
+
+    private void startFlow(long due, boolean recorded) {
+        if (inFlight.incrementAndGet() > maxInFlight) {
+            inFlight.decrementAndGet();
+            if (recorded) {
+                dropped.increment();
+            }
+            return;
+        }
+
+        HttpRequest questionsRequest = HttpRequest.newBuilder(questionsUri)
+                .timeout(REQUEST_TIMEOUT)
+                .GET()
+                .build();
+        httpClient.sendAsync(questionsRequest, HttpResponse.BodyHandlers.ofByteArray())
+                .thenCompose(questions -> {
+                    long answersDue = System.nanoTime();
+                    expectSuccess("questions", questions);
+                    if (recorded) {
+                        record(questionsLatency, answersDue - due);
+                    }
+                    return submitAnswers(consultationId(questions.body()))
+                            .thenApply(answers -> {
+                                long now = System.nanoTime();
+                                expectSuccess("answers", answers);
+                                if (recorded) {
+                                    record(answersLatency, now - answersDue);
+                                    record(flowLatency, now - due);
+                                }
+                                return eligibilityStatus(answers.body());
+                            });
+                })
+                .whenComplete((eligibilityStatus, error) -> {
+                    inFlight.decrementAndGet();
+                    if (error == null) {
+                        totalCompleted.increment();
+                    }
+                    if (!recorded) {
+                        return;
+                    }
+                    if (error == null) {
+                        completed.increment();
+                        count(outcomes, eligibilityStatus);
+                    } else {
+                        failed.increment();
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        count(errors, cause instanceof UnexpectedStatusException unexpected
+                                ? unexpected.getMessage()
+                                : cause.getClass().getSimpleName());
+                    }
+                });
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> submitAnswers(String consultationId) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(answerDistribution.next());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        HttpRequest answersRequest = HttpRequest.newBuilder(consultationsUri.resolve(consultationId + "/answers"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        return httpClient.sendAsync(answersRequest, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private String consultationId(byte[] questionsBody) {
+        return readTree(questionsBody).path("consultationId").asText();
+    }
+
+    private String eligibilityStatus(byte[] answersBody) {
+        return readTree(answersBody).path("status").asText("UNKNOWN");
+    }
+
+    private JsonNode readTree(byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void expectSuccess(String endpoint, HttpResponse<?> response) {
+        if (response.statusCode() / 100 != 2) {
+            throw new UnexpectedStatusException(endpoint + " " + response.statusCode());
+        }
+    }
+
+    private static void record(Histogram histogram, long nanos) {
+        histogram.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), HIGHEST_TRACKABLE_MICROS));
+    }
+
+    private static void count(Map<String, LongAdder> counters, String key) {
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((key, count) -> snapshot.put(key, count.sum()));
+        return snapshot;
+    }
+
+    private static Histogram newHistogram() {
+        return new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    }
+
+    /**
+     * Thrown when an endpoint answers with a non-2xx status; the message names the endpoint and status.
+     */
+    private static final class UnexpectedStatusException extends RuntimeException {
+
+        private UnexpectedStatusException(String message) {
+            super(message, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.prescriptionservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prescriptionservice.PrescriptionServiceApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * End-to-end load test of the GET-questions then POST-answers consultation flow.
+ * Starts the application on a random port in this JVM, unless {@code base-url} points at a running instance,
+ * drives the flow at an open-model arrival rate and writes a report. Run it with {@code ./gradlew loadTest},
+ * passing options as {@code -Pload="rate=500 duration=2m"}; see {@link LoadTestOptions} for all options.
+ */
+public final class ConsultationLoadTest {
+
+    private ConsultationLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        ConfigurableApplicationContext application = null;
+        URI baseUri = options.baseUri();
+        if (baseUri == null) {
+            application = SpringApplication.run(PrescriptionServiceApplication.class, applicationArgs(options));
+            baseUri = URI.create("http://localhost:" + application.getEnvironment().getProperty("local.server.port") + "/");
+        }
+
+        try (HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()) {
+            ConsultationFlowDriver driver = new ConsultationFlowDriver(httpClient, new ObjectMapper(),
+                    new AnswerDistribution(), baseUri, options.productId(), options.maxInFlight());
+
+            long heapBefore = application != null ? liveHeapBytes() : 0;
+            LoadTestResult result = driver.run(options.rate(), options.poissonArrivals(), options.warmup(), options.duration());
+            OptionalLong heapGrowth = application != null
+                    ? OptionalLong.of(liveHeapBytes() - heapBefore)
+                    : OptionalLong.empty();
+
+            new LoadTestReport(options, result, heapGrowth).write(System.out);
+        } finally {
+            if (application != null) {
+                application.close();
+            }
+        }
+    }
+
+    private static String[] applicationArgs(LoadTestOptions options) {
+        List<String> args = new ArrayList<>(options.applicationArgs());
+        if (args.stream().noneMatch(arg -> arg.startsWith("--server.port="))) {
+            args.add("--server.port=0");
+        }
+        return args.toArray(String[]::new);
+    }
+
+    /**
+     * Heap in use after full collections, i.e. approximately the live heap.
+     */
+    private static long liveHeapBytes() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            memory.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,71 @@
+package com.prescriptionservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Options of a load test run, parsed from {@code key=value} arguments.
+ * Arguments starting with {@code --} are passed on to the application, e.g. {@code --consultations.store.type=log}.
+ *
+ * @param rate Target consultation flows started per second
+ * @param warmup Time spent at the target rate before anything is recorded
+ * @param duration Time spent at the target rate while recording
+ * @param poissonArrivals Whether flows arrive as a Poisson process rather than at a constant interval
+ * @param maxInFlight Flows allowed in flight before new arrivals are dropped and counted as errors
+ * @param baseUri The service to drive, or null to start the application in this JVM
+ * @param productId The product whose consultation flow is driven
+ * @param reportDirectory Where the report and histogram files are written
+ * @param applicationArgs Arguments for the application started in this JVM
+ */
+record LoadTestOptions(double rate, Duration warmup, Duration duration, boolean poissonArrivals, int maxInFlight,
+                       URI baseUri, String productId, Path reportDirectory, List<String> applicationArgs) {
+
+    static LoadTestOptions parse(String[] args) {
+        double rate = 200;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        boolean poissonArrivals = true;
+        int maxInFlight = 10_000;
+        URI baseUri = null;
+        String productId = "pear-allergy";
+        Path reportDirectory = Path.of("build", "reports", "load-test");
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.startsWith("--")) {
+                applicationArgs.add(arg);
+                continue;
+            }
+            int equals = arg.indexOf('=');
+            if (equals <= 0) {
+                throw new IllegalArgumentException("Expected key=value but got: " + arg);
+            }
+            String value = arg.substring(equals + 1);
+            switch (arg.substring(0, equals)) {
+                case "rate" -> rate = Double.parseDouble(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "arrivals" -> poissonArrivals = switch (value) {
+                    case "poisson" -> true;
+                    case "constant" -> false;
+                    default -> throw new IllegalArgumentException("arrivals must be poisson or constant: " + value);
+                };
+                case "max-in-flight" -> maxInFlight = Integer.parseInt(value);
+                case "base-url" -> baseUri = URI.create(value);
+                case "product" -> productId = value;
+                case "report-dir" -> reportDirectory = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (rate <= 0 || duration.isZero() || duration.isNegative()) {
+            throw new IllegalArgumentException("rate and duration must be positive");
+        }
+        return new LoadTestOptions(rate, warmup, duration, poissonArrivals, maxInFlight, baseUri, productId,
+                reportDirectory, List.copyOf(applicationArgs));
+    }
+}
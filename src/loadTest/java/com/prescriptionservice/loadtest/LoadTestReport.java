@@ -0,0 +1,106 @@
+package com.prescriptionservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the load test report: throughput, error rate, latency percentiles per endpoint and heap growth per
+ * thousand consultations. The report goes to the console and {@code report.txt}; the full latency distribution of
+ * each endpoint is written as an HdrHistogram percentile file ({@code .hgrm}, in milliseconds) for plotting.
+ */
+final class LoadTestReport {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadTestOptions options;
+    private final LoadTestResult result;
+    private final OptionalLong heapGrowthBytes;
+
+    /**
+     * @param options The options the test ran with
+     * @param result The recorded results
+     * @param heapGrowthBytes Live heap growth over the whole run, empty when the service ran in another JVM
+     */
+    LoadTestReport(LoadTestOptions options, LoadTestResult result, OptionalLong heapGrowthBytes) {
+        this.options = options;
+        this.result = result;
+        this.heapGrowthBytes = heapGrowthBytes;
+    }
+
+    void write(PrintStream console) throws IOException {
+        Path directory = options.reportDirectory();
+        Files.createDirectories(directory);
+
+        String summary = summary();
+        console.print(summary);
+        Files.writeString(directory.resolve("report.txt"), summary);
+        writeDistribution(directory.resolve("get-questions.hgrm"), result.questionsLatency());
+        writeDistribution(directory.resolve("post-answers.hgrm"), result.answersLatency());
+        writeDistribution(directory.resolve("flow.hgrm"), result.flowLatency());
+        console.println("Report written to " + directory.toAbsolutePath());
+    }
+
+    private String summary() {
+        StringBuilder report = new StringBuilder();
+        report.append("Consultation flow load test\n");
+        line(report, "Target rate", "%.1f flows/s (%s arrivals), %ds recorded after %ds warmup", result.targetRate(),
+                options.poissonArrivals() ? "poisson" : "constant", options.duration().toSeconds(), options.warmup().toSeconds());
+        line(report, "Throughput", "%.1f flows/s", result.throughput());
+        line(report, "Flows", "%d completed, %d failed, %d dropped, %d unfinished",
+                result.completed(), result.failed(), result.dropped(), result.unfinished());
+        line(report, "Error rate", "%.3f%%", result.errorRate() * 100);
+        if (!result.errors().isEmpty()) {
+            line(report, "Errors", "%s", format(result.errors()));
+        }
+        line(report, "Outcomes", "%s", format(result.outcomes()));
+        if (heapGrowthBytes.isPresent() && result.totalCompleted() > 0) {
+            long growth = heapGrowthBytes.getAsLong();
+            line(report, "Heap growth", "%.1f KiB per 1000 consultations (%+.1f MiB live heap over %d consultations)",
+                    growth / 1024.0 / (result.totalCompleted() / 1000.0), growth / 1024.0 / 1024.0, result.totalCompleted());
+        } else {
+            line(report, "Heap growth", "n/a (service not running in this JVM)");
+        }
+
+        report.append(String.format(Locale.ROOT, "%n  %-16s %10s %10s %10s %10s %10s%n",
+                "Latency (ms)", "p50", "p99", "p99.9", "max", "count"));
+        percentiles(report, "GET questions", result.questionsLatency());
+        percentiles(report, "POST answers", result.answersLatency());
+        percentiles(report, "Flow", result.flowLatency());
+        return report.toString();
+    }
+
+    private static void line(StringBuilder report, String label, String format, Object... args) {
+        report.append(String.format(Locale.ROOT, "  %-14s", label + ":"))
+                .append(String.format(Locale.ROOT, format, args))
+                .append('\n');
+    }
+
+    private static void percentiles(StringBuilder report, String label, Histogram histogram) {
+        report.append(String.format(Locale.ROOT, "  %-16s %10.2f %10.2f %10.2f %10.2f %10d%n", label,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI,
+                histogram.getTotalCount()));
+    }
+
+    private static String format(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void writeDistribution(Path file, Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+}
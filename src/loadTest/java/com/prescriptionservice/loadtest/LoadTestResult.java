@@ -0,0 +1,39 @@
+package com.prescriptionservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Outcome of the recorded part of a load test run. Latencies are in microseconds.
+ *
+ * @param targetRate Flows started per second
+ * @param measured Length of the recorded period
+ * @param completed Recorded flows that completed successfully
+ * @param failed Recorded flows that failed, with a non-2xx status, a timeout or a connection error
+ * @param dropped Recorded flows not started because too many flows were in flight
+ * @param unfinished Flows still in flight when the run gave up waiting for them
+ * @param totalCompleted Flows that completed successfully including the warmup, i.e. consultations created
+ * @param questionsLatency GET questions latency
+ * @param answersLatency POST answers latency
+ * @param flowLatency Latency of the whole flow
+ * @param outcomes Completed flows by eligibility status
+ * @param errors Failed flows by cause
+ */
+record LoadTestResult(double targetRate, Duration measured, long completed, long failed, long dropped, int unfinished,
+                      long totalCompleted, Histogram questionsLatency, Histogram answersLatency, Histogram flowLatency,
+                      Map<String, Long> outcomes, Map<String, Long> errors) {
+
+    long attempted() {
+        return completed + failed + dropped;
+    }
+
+    double throughput() {
+        return completed / (measured.toNanos() / 1e9);
+    }
+
+    double errorRate() {
+        return attempted() == 0 ? 0 : (double) (failed + dropped) / attempted();
+    }
+}
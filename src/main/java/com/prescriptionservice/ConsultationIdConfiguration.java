@@ -0,0 +1,39 @@
+package com.prescriptionservice;
+
+import com.prescriptionservice.models.entity.ConsultationIdGenerator;
+import com.prescriptionservice.models.entity.ConsultationIds;
+import com.prescriptionservice.models.entity.RandomUuidGenerator;
+import com.prescriptionservice.models.entity.UlidGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+/**
+ * Selects the consultation ID generator with {@code consultations.ids.generator} and installs it for new
+ * consultations.
+ */
+@Configuration
+public class ConsultationIdConfiguration {
+
+    /**
+     * Supported consultation ID formats.
+     */
+    public enum IdFormat {
+        /** Time-ordered ULIDs with 64 secure random bits (default) */
+        ULID,
+        /** Random version 4 UUIDs, unordered and without a timestamp */
+        UUID
+    }
+
+    @Bean
+    public ConsultationIdGenerator consultationIdGenerator(@Value("${consultations.ids.generator:ULID}") IdFormat format) {
+        ConsultationIdGenerator generator = switch (format) {
+            case ULID -> new UlidGenerator(Clock.systemUTC());
+            case UUID -> new RandomUuidGenerator();
+        };
+        ConsultationIds.use(generator);
+        return generator;
+    }
+}
@@ -0,0 +1,17 @@
+package com.prescriptionservice;
+
+import com.prescriptionservice.exceptions.DomainExceptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Installs {@code consultations.errors.stack-traces}: whether not-found and access exceptions capture stack traces.
+ * They are off by default, as these exceptions report bad client input; turn them on to debug where one is thrown.
+ */
+@Configuration
+public class ErrorHandlingConfiguration {
+
+    public ErrorHandlingConfiguration(@Value("${consultations.errors.stack-traces:false}") boolean stackTraces) {
+        DomainExceptions.setStackTracesEnabled(stackTraces);
+    }
+}
@@ -0,0 +1,63 @@
+package com.prescriptionservice.controllers;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.services.AnswerParser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+/**
+ * Reads answers from request bodies and parses their values against the question's type as they are read,
+ * so each value is parsed exactly once. A value that does not fit its question does not fail the body; it is
+ * reported when its consultation is assessed, so in a batch it only fails its own item (see {@link AnswerParser}).
+ * Unknown fields are skipped; a value may be any JSON scalar, as with plain data binding.
+ */
+@JsonComponent
+public class AnswerDtoDeserializer extends JsonDeserializer<AnswerDto> {
+    
+    private final AnswerParser answerParser;
+    
+    @Autowired
+    public AnswerDtoDeserializer(AnswerParser answerParser) {
+        this.answerParser = answerParser;
+    }
+    
+    @Override
+    public AnswerDto deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            token = parser.nextToken();
+        }
+        String questionId = null;
+        String value = null;
+        for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "questionId" -> questionId = readText(parser, context);
+                case "value" -> value = readText(parser, context);
+                default -> parser.skipChildren();
+            }
+        }
+        if (token != JsonToken.END_OBJECT) {
+            return (AnswerDto) context.handleUnexpectedToken(AnswerDto.class, parser);
+        }
+        return answerParser.parse(questionId, value);
+    }
+    
+    private static String readText(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (token.isScalarValue()) {
+            return parser.getValueAsString();
+        }
+        return (String) context.handleUnexpectedToken(String.class, parser);
+    }
+}
@@ -1,59 +1,226 @@
 package com.prescriptionservice.controllers;
 
+import com.prescriptionservice.BinaryContentConfiguration;
+import com.prescriptionservice.models.dto.BatchConsultationRequest;
+import com.prescriptionservice.models.dto.BatchEligibilityResponse;
+import com.prescriptionservice.models.dto.ConsultationHistoryResponse;
 import com.prescriptionservice.models.dto.ConsultationRequest;
 import com.prescriptionservice.models.dto.EligibilityResponse;
-import com.prescriptionservice.models.dto.QuestionsResponse;
+import com.prescriptionservice.models.dto.SerializedQuestionsResponse;
 import com.prescriptionservice.services.ConsultationService;
+import com.prescriptionservice.services.IdempotencyCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import java.net.URI;
+import java.util.List;
 
 /**
  * REST controller handling consultation-related endpoints.
  * Provides APIs for retrieving questions and submitting consultation answers.
+ * Bodies are JSON by default; clients can ask for CBOR or Smile with Accept and send them with Content-Type
+ * (see {@link BinaryContentConfiguration}).
+ * Serves the servlet stack; {@link ReactiveConsultationController} serves the reactive one.
  */
 @RestController
 @RequestMapping("/api/consultations")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Validated
 public class ConsultationController {
     
+    /**
+     * Response header carrying the consultation ID when the question list is not modified and no body is sent.
+     */
+    public static final String CONSULTATION_ID_HEADER = "Consultation-Id";
+    
+    /**
+     * Request header identifying an answer submission, so that retries of it return the original result.
+     */
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    
+    private static final List<MediaType> QUESTIONS_MEDIA_TYPES = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_CBOR, BinaryContentConfiguration.APPLICATION_SMILE);
+    
     private final ConsultationService consultationService;
+    private final IdempotencyCache idempotencyCache;
     
     @Autowired
-    public ConsultationController(ConsultationService consultationService) {
+    public ConsultationController(ConsultationService consultationService, IdempotencyCache idempotencyCache) {
         this.consultationService = consultationService;
+        this.idempotencyCache = idempotencyCache;
     }
     
     /**
      * Retrieves all consultation questions for patient assessment for a specific product.
      * Creates a new consultation session and returns available questions.
+     * JSON questions are written from their pre-rendered JSON with a strong ETag covering the question list.
+     * CBOR and Smile responses carry the same tag as a weak ETag, since they are equivalent but not identical
+     * representations. When the client's If-None-Match matches, a 304 is returned without a body and the new
+     * consultation ID is sent in the {@value #CONSULTATION_ID_HEADER} header instead.
+     * Requests beyond the patient's rate limit are rejected with 429 first (see {@link RateLimitInterceptor}).
      * 
      * @param productId The product ID to retrieve questions for
+     * @param ifNoneMatch The optional If-None-Match header sent by the client
+     * @param accept The optional Accept header sent by the client
      * @return ResponseEntity containing product-specific questions and consultation ID
      */
-    @GetMapping("/{productId}/questions")
-    public ResponseEntity<QuestionsResponse> getQuestions(@PathVariable String productId) {
-        QuestionsResponse response = consultationService.getConsultationQuestions(productId);
-        return ResponseEntity.ok(response);
+    @GetMapping(value = "/{productId}/questions", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, BinaryContentConfiguration.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<Object> getQuestions(
+            @PathVariable String productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        
+        SerializedQuestionsResponse response = consultationService.getSerializedConsultationQuestions(productId);
+        MediaType contentType = questionsContentType(accept);
+        boolean json = MediaType.APPLICATION_JSON.equals(contentType);
+        String etag = json ? response.getEtag() : "W/" + response.getEtag();
+        if (etagMatches(ifNoneMatch, response.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .header(CONSULTATION_ID_HEADER, response.getConsultationId())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .contentType(contentType)
+                .body(json ? response.toByteArray() : response.toQuestionsResponse());
+    }
+    
+    /**
+     * Picks the encoding of a questions response: the supported type the Accept header rates highest, in the order
+     * JSON, CBOR, Smile among equally rated ones, so wildcards and a missing header get JSON.
+     */
+    static MediaType questionsContentType(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType selected = MediaType.APPLICATION_JSON;
+        double selectedQuality = 0;
+        for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+            double quality = accepted.getQualityValue();
+            if (quality <= selectedQuality) {
+                continue;
+            }
+            for (MediaType supported : QUESTIONS_MEDIA_TYPES) {
+                if (accepted.includes(supported)) {
+                    selected = supported;
+                    selectedQuality = quality;
+                    break;
+                }
+            }
+        }
+        return selected;
+    }
+    
+    /**
+     * Checks an If-None-Match header value against an ETag, using weak comparison as required for If-None-Match.
+     */
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if ("*".equals(trimmed) || etag.equals(trimmed)) {
+                return true;
+            }
+        }
+        return false;
     }
     
     /**
      * Processes consultation answers and determines patient eligibility.
      * Validates input data and returns eligibility assessment.
+     * For products assessed asynchronously, returns 202 Accepted with the ASSESSING status instead, and the
+     * Location header points at the status endpoint to poll for the outcome.
+     * A submission with an {@value #IDEMPOTENCY_KEY_HEADER} header is processed once per key and consultation:
+     * retries get the first result back, and retries arriving while it is processed wait for it. Reusing a key
+     * with a different request is rejected with 422.
+     * The request body may be JSON, CBOR or Smile, and the response is encoded as the Accept header asks.
+     * Requests beyond the patient's rate limit are rejected with 429 first (see {@link RateLimitInterceptor}).
      * 
      * @param consultationId The consultation session ID
+     * @param idempotencyKey The optional Idempotency-Key header sent by the client
      * @param request The consultation request containing patient info and answers
      * @return ResponseEntity containing eligibility determination
      */
     @PostMapping("/{consultationId}/answers")
     public ResponseEntity<EligibilityResponse> submitAnswers(
             @PathVariable String consultationId,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
             @Valid @RequestBody ConsultationRequest request) {
         
-        EligibilityResponse response = consultationService.processConsultation(consultationId, request);
+        ConsultationService.AnswerSubmission submission = idempotencyKey == null
+                ? consultationService.submitConsultation(consultationId, request)
+                : idempotencyCache.submit(consultationId, idempotencyKey, request,
+                        () -> consultationService.submitConsultation(consultationId, request));
+        if (submission.queued()) {
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/consultations/" + consultationId + "/status"))
+                    .body(submission.response());
+        }
+        return ResponseEntity.ok(submission.response());
+    }
+    
+    /**
+     * Retrieves the eligibility status of a consultation, e.g. to poll for the outcome of an asynchronous assessment.
+     * 
+     * @param consultationId The consultation session ID
+     * @return ResponseEntity containing the eligibility determination, or the PENDING / ASSESSING status
+     */
+    @GetMapping("/{consultationId}/status")
+    public ResponseEntity<EligibilityResponse> getStatus(@PathVariable String consultationId) {
+        EligibilityResponse response = consultationService.getConsultationStatus(consultationId);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Retrieves the authenticated patient's consultations, newest first, one page at a time.
+     * Pages are cursor-based: the response's nextCursor is passed back to get the following page, and is null
+     * on the last one. Consultations created while paging do not shift the pages still to come.
+     * Only consultations the store still holds are listed; the in-memory store expires PENDING ones after
+     * consultations.store.ttl, and completed ones after consultations.store.completed-ttl when it is set.
+     * 
+     * @param cursor The nextCursor of the previous page; omitted for the first page
+     * @param limit Maximum number of consultations per page, from 1 to {@value ConsultationService#MAX_HISTORY_PAGE_SIZE}
+     * @return ResponseEntity containing the page and the cursor of the next one
+     */
+    @GetMapping
+    public ResponseEntity<ConsultationHistoryResponse> getHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        
+        ConsultationHistoryResponse response = consultationService.getConsultationHistory(cursor, limit);
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Processes the answers of many consultations in one request, e.g. paper questionnaires submitted in bulk.
+     * Each item is validated and assessed independently; items that fail are reported with an error in their
+     * own result rather than failing the whole request.
+     * Requests beyond the patient's batch rate limit are rejected with 429 first (see {@link RateLimitInterceptor}).
+     * 
+     * @param request The consultation IDs and their answers
+     * @return ResponseEntity containing one result per item, in request order
+     */
+    @PostMapping("/answers/batch")
+    public ResponseEntity<BatchEligibilityResponse> submitAnswersBatch(
+            @Valid @RequestBody BatchConsultationRequest request) {
+        
+        BatchEligibilityResponse response = consultationService.processConsultations(request.getItems());
         return ResponseEntity.ok(response);
     }
 }
\ No newline at end of file
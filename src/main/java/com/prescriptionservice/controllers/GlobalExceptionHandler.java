@@ -1,26 +1,58 @@
 package com.prescriptionservice.controllers;
 
+import com.prescriptionservice.exceptions.AssessmentInProgressException;
+import com.prescriptionservice.exceptions.AssessmentQueueFullException;
+import com.prescriptionservice.exceptions.ConsultationCapacityExceededException;
 import com.prescriptionservice.exceptions.ConsultationNotFoundException;
 import com.prescriptionservice.exceptions.ConsultationAccessException;
+import com.prescriptionservice.exceptions.IdempotencyKeyReusedException;
+import com.prescriptionservice.exceptions.InvalidAnswerException;
+import com.prescriptionservice.exceptions.InvalidAnswerSetException;
 import com.prescriptionservice.exceptions.PatientNotFoundException;
 import com.prescriptionservice.exceptions.ProductNotFoundException;
+import com.prescriptionservice.exceptions.RateLimitExceededException;
+import com.prescriptionservice.models.dto.ConsultationErrorResponse;
+import com.prescriptionservice.models.dto.ErrorResponse;
+import com.prescriptionservice.models.dto.InvalidAnswerSetResponse;
+import com.prescriptionservice.models.dto.ValidationErrorResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Global exception handler for consistent error responses across the application.
  * Handles validation errors and other common exceptions.
+ * Serves both the servlet and the reactive stack, which report invalid and unreadable request bodies with
+ * different exceptions but get the same responses.
+ * Error bodies are small immutable response types; the ones that do not depend on the request are built once,
+ * so a flood of failing requests costs little more than the lookups that failed.
  */
 @RestControllerAdvice
 public class GlobalExceptionHandler {
     
+    private static final ErrorResponse CAPACITY_EXCEEDED = ErrorResponse.error(
+            "Too many open consultations. Please try again later.", "capacity_exceeded");
+    private static final ErrorResponse QUEUE_FULL = ErrorResponse.error(
+            "Too many assessments in progress. Please try again later.", "queue_full");
+    private static final ErrorResponse RATE_LIMITED = ErrorResponse.error(
+            "Too many requests. Please try again later.", "rate_limited");
+    private static final ErrorResponse MALFORMED_REQUEST = ErrorResponse.error("Malformed request body", "malformed_request");
+    private static final ErrorResponse UNEXPECTED_ERROR = new ErrorResponse(
+            "An unexpected error occurred. Please try again.", "error", null);
+    
     /**
      * Handles validation errors from request body validation.
      * 
@@ -28,20 +60,31 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with validation error details
      */
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        Map<String, Object> response = new HashMap<>();
+    public ResponseEntity<ValidationErrorResponse> handleValidationExceptions(MethodArgumentNotValidException ex) {
+        return validationErrors(ex.getBindingResult());
+    }
+    
+    /**
+     * Handles validation errors from request body validation on the reactive stack.
+     * 
+     * @param ex The validation exception
+     * @return ResponseEntity with validation error details
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ValidationErrorResponse> handleWebExchangeBindException(WebExchangeBindException ex) {
+        return validationErrors(ex.getBindingResult());
+    }
+    
+    private static ResponseEntity<ValidationErrorResponse> validationErrors(BindingResult bindingResult) {
         Map<String, String> errors = new HashMap<>();
         
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
+        bindingResult.getAllErrors().forEach((error) -> {
             String fieldName = ((FieldError) error).getField();
             String errorMessage = error.getDefaultMessage();
             errors.put(fieldName, errorMessage);
         });
         
-        response.put("message", "Validation failed");
-        response.put("errors", errors);
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ValidationErrorResponse(errors));
     }
     
     /**
@@ -52,15 +95,9 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with 404 Not Found status
      */
     @ExceptionHandler(ConsultationNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleConsultationNotFoundException(ConsultationNotFoundException ex) {
-        Map<String, Object> response = new HashMap<>();
-        
-        response.put("consultationId", ex.getConsultationId());
-        response.put("eligible", false);
-        response.put("status", "ERROR");
-        response.put("message", ex.getMessage());
-        
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    public ResponseEntity<ConsultationErrorResponse> handleConsultationNotFoundException(ConsultationNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ConsultationErrorResponse.notFound(ex.getConsultationId(), ex.getMessage()));
     }
     
     /**
@@ -70,13 +107,8 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with 404 Not Found status
      */
     @ExceptionHandler(ProductNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handleProductNotFoundException(ProductNotFoundException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", ex.getMessage());
-        response.put("status", "error");
-        response.put("error_type", "not_found");
-        
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    public ResponseEntity<ErrorResponse> handleProductNotFoundException(ProductNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorResponse.error(ex.getMessage(), "not_found"));
     }
     
     /**
@@ -86,13 +118,8 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with 404 Not Found status
      */
     @ExceptionHandler(PatientNotFoundException.class)
-    public ResponseEntity<Map<String, Object>> handlePatientNotFoundException(PatientNotFoundException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", ex.getMessage());
-        response.put("status", "error");
-        response.put("error_type", "not_found");
-        
-        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    public ResponseEntity<ErrorResponse> handlePatientNotFoundException(PatientNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ErrorResponse.error(ex.getMessage(), "not_found"));
     }
     
     /**
@@ -102,13 +129,125 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with 403 Forbidden status
      */
     @ExceptionHandler(ConsultationAccessException.class)
-    public ResponseEntity<Map<String, Object>> handleConsultationAccessException(ConsultationAccessException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", ex.getMessage());
-        response.put("status", "forbidden");
-        response.put("error_type", "access_denied");
+    public ResponseEntity<ErrorResponse> handleConsultationAccessException(ConsultationAccessException ex) {
+        return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ErrorResponse(ex.getMessage(), "forbidden", "access_denied"));
+    }
+    
+    /**
+     * Handles consultation capacity exceptions when the consultation store is full.
+     * 
+     * @param ex The consultation capacity exceeded exception
+     * @return ResponseEntity with 503 Service Unavailable status
+     */
+    @ExceptionHandler(ConsultationCapacityExceededException.class)
+    public ResponseEntity<ErrorResponse> handleConsultationCapacityExceededException(ConsultationCapacityExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(CAPACITY_EXCEEDED);
+    }
+    
+    /**
+     * Handles assessment queue exceptions when too many asynchronous assessments are outstanding.
+     * 
+     * @param ex The assessment queue full exception
+     * @return ResponseEntity with 503 Service Unavailable status and a Retry-After header
+     */
+    @ExceptionHandler(AssessmentQueueFullException.class)
+    public ResponseEntity<ErrorResponse> handleAssessmentQueueFullException(AssessmentQueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(QUEUE_FULL);
+    }
+    
+    /**
+     * Handles answers submitted while the consultation's previous answers are still being assessed.
+     * 
+     * @param ex The assessment in progress exception
+     * @return ResponseEntity with 409 Conflict status
+     */
+    @ExceptionHandler(AssessmentInProgressException.class)
+    public ResponseEntity<ErrorResponse> handleAssessmentInProgressException(AssessmentInProgressException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ErrorResponse.error(ex.getMessage(), "assessment_in_progress"));
+    }
+    
+    /**
+     * Handles requests rejected by the patient's rate limit.
+     * 
+     * @param ex The rate limit exceeded exception
+     * @return ResponseEntity with 429 Too Many Requests status and a Retry-After header
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(RATE_LIMITED);
+    }
+    
+    /**
+     * Handles an Idempotency-Key reused with a different request for the same consultation.
+     * 
+     * @param ex The idempotency key reused exception
+     * @return ResponseEntity with 422 Unprocessable Entity status
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ErrorResponse.error(ex.getMessage(), "idempotency_key_reused"));
+    }
+    
+    /**
+     * Handles answers that do not fit their question.
+     * 
+     * @param ex The invalid answer exception
+     * @return ResponseEntity with 400 Bad Request status, naming the question
+     */
+    @ExceptionHandler(InvalidAnswerException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidAnswerException(InvalidAnswerException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(ex.getMessage(), "error", "invalid_answer", ex.getQuestionId()));
+    }
+    
+    /**
+     * Handles answer sets that do not cover the product's questions, listing every violation.
+     * 
+     * @param ex The invalid answer set exception
+     * @return ResponseEntity with 400 Bad Request status and an error per question
+     */
+    @ExceptionHandler(InvalidAnswerSetException.class)
+    public ResponseEntity<InvalidAnswerSetResponse> handleInvalidAnswerSetException(InvalidAnswerSetException ex) {
+        List<InvalidAnswerSetResponse.AnswerError> errors = new ArrayList<>(ex.getViolations().size());
+        for (InvalidAnswerSetException.Violation violation : ex.getViolations()) {
+            errors.add(new InvalidAnswerSetResponse.AnswerError(violation.questionId(), violation.reason().code()));
+        }
         
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new InvalidAnswerSetResponse(ex.getMessage(), errors));
+    }
+    
+    /**
+     * Handles request bodies that cannot be read.
+     * 
+     * @param ex The unreadable message exception
+     * @return ResponseEntity with 400 Bad Request status
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(HttpMessageNotReadableException ex) {
+        return unreadableBody(ex);
+    }
+    
+    /**
+     * Handles request bodies that cannot be read on the reactive stack, where the decoding error is wrapped in
+     * a server web input exception instead.
+     * 
+     * @param ex The server web input exception
+     * @return ResponseEntity with 400 Bad Request status
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleServerWebInputException(ServerWebInputException ex) {
+        return unreadableBody(ex);
+    }
+    
+    private ResponseEntity<ErrorResponse> unreadableBody(Exception ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(MALFORMED_REQUEST);
     }
     
     /**
@@ -118,12 +257,8 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with error message
      */
     @ExceptionHandler(IllegalArgumentException.class)
-    public ResponseEntity<Map<String, Object>> handleIllegalArgumentException(IllegalArgumentException ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", ex.getMessage());
-        response.put("status", "error");
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+    public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorResponse(ex.getMessage(), "error", null));
     }
     
     /**
@@ -133,11 +268,7 @@ public class GlobalExceptionHandler {
      * @return ResponseEntity with generic error message
      */
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "An unexpected error occurred. Please try again.");
-        response.put("status", "error");
-        
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    public ResponseEntity<ErrorResponse> handleGenericException(Exception ex) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(UNEXPECTED_ERROR);
     }
-}
\ No newline at end of file
+}
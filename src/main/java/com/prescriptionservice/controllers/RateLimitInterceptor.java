@@ -0,0 +1,57 @@
+package com.prescriptionservice.controllers;
+
+import com.prescriptionservice.exceptions.RateLimitExceededException;
+import com.prescriptionservice.services.CurrentPatient;
+import com.prescriptionservice.services.PatientRateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Applies the patient's rate limit to the question, answer and batch endpoints of {@link ConsultationController}.
+ * The limit is checked before the handler's arguments are resolved, so a rejected submission is not even read:
+ * its answers are not parsed against the catalog and no repository is touched. Rejections surface as
+ * {@link RateLimitExceededException} and become 429 responses with a Retry-After header.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class RateLimitInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+    
+    private final PatientRateLimiter rateLimiter;
+    private final CurrentPatient currentPatient;
+    
+    @Autowired
+    public RateLimitInterceptor(PatientRateLimiter rateLimiter, CurrentPatient currentPatient) {
+        this.rateLimiter = rateLimiter;
+        this.currentPatient = currentPatient;
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this)
+                .addPathPatterns("/api/consultations/*/questions", "/api/consultations/*/answers",
+                        "/api/consultations/answers/batch");
+    }
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        PatientRateLimiter.Endpoint endpoint;
+        if (HttpMethod.GET.matches(request.getMethod()) && request.getRequestURI().endsWith("/questions")) {
+            endpoint = PatientRateLimiter.Endpoint.QUESTIONS;
+        } else if (HttpMethod.POST.matches(request.getMethod()) && request.getRequestURI().endsWith("/answers")) {
+            endpoint = PatientRateLimiter.Endpoint.ANSWERS;
+        } else if (HttpMethod.POST.matches(request.getMethod()) && request.getRequestURI().endsWith("/answers/batch")) {
+            endpoint = PatientRateLimiter.Endpoint.BATCH;
+        } else {
+            return true;
+        }
+        rateLimiter.acquire(endpoint, currentPatient.id());
+        return true;
+    }
+}
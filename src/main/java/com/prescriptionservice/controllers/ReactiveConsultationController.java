@@ -0,0 +1,100 @@
+package com.prescriptionservice.controllers;
+
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.services.AsyncAssessmentExecutor;
+import com.prescriptionservice.services.CurrentPatient;
+import com.prescriptionservice.services.PatientRateLimiter;
+import com.prescriptionservice.services.ReactiveConsultationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import jakarta.validation.Valid;
+
+/**
+ * WebFlux controller serving the question and answer endpoints of {@link ConsultationController} on the reactive
+ * stack, selected with the {@code reactive} profile.
+ * Responses, including rate limiting, are the same as on the servlet stack; the rate limit is checked when the
+ * handler runs, so a rejected submission has already been decoded. Answers to a consultation that is still ASSESSING
+ * are rejected with 409, as on the servlet stack.
+ * Answer submissions are always assessed synchronously, so the application fails to start if
+ * consultations.async.products is set. Idempotency-Key is not honoured; the status, history and batch endpoints
+ * are only served by the servlet stack.
+ */
+@RestController
+@RequestMapping("/api/consultations")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Validated
+public class ReactiveConsultationController {
+    
+    private final ReactiveConsultationService consultationService;
+    private final PatientRateLimiter rateLimiter;
+    private final CurrentPatient currentPatient;
+    
+    @Autowired
+    public ReactiveConsultationController(ReactiveConsultationService consultationService, PatientRateLimiter rateLimiter,
+                                          CurrentPatient currentPatient, AsyncAssessmentExecutor asyncAssessmentExecutor) {
+        if (asyncAssessmentExecutor.hasAsyncProducts()) {
+            throw new IllegalStateException("Asynchronous assessment is not supported on the reactive stack; "
+                    + "remove consultations.async.products or run without the reactive profile");
+        }
+        this.consultationService = consultationService;
+        this.rateLimiter = rateLimiter;
+        this.currentPatient = currentPatient;
+    }
+    
+    /**
+     * Retrieves all consultation questions for patient assessment for a specific product.
+     * Same contract as {@link ConsultationController#getQuestions(String, String)}, including the ETag and the
+     * {@value ConsultationController#CONSULTATION_ID_HEADER} header of 304 responses.
+     * 
+     * @param productId The product ID to retrieve questions for
+     * @param ifNoneMatch The optional If-None-Match header sent by the client
+     * @return ResponseEntity containing product-specific questions and consultation ID
+     */
+    @GetMapping(value = "/{productId}/questions", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getQuestions(
+            @PathVariable String productId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, currentPatient.id());
+        return consultationService.getSerializedConsultationQuestions(productId)
+                .map(response -> {
+                    if (ConsultationController.etagMatches(ifNoneMatch, response.getEtag())) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(response.getEtag())
+                                .header(ConsultationController.CONSULTATION_ID_HEADER, response.getConsultationId())
+                                .build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(response.getEtag())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(response.toByteArray());
+                });
+    }
+    
+    /**
+     * Processes consultation answers and determines patient eligibility.
+     * Validates input data and returns eligibility assessment.
+     * 
+     * @param consultationId The consultation session ID
+     * @param request The consultation request containing patient info and answers
+     * @return ResponseEntity containing eligibility determination
+     */
+    @PostMapping("/{consultationId}/answers")
+    public Mono<ResponseEntity<EligibilityResponse>> submitAnswers(
+            @PathVariable String consultationId,
+            @Valid @RequestBody ConsultationRequest request) {
+        
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, currentPatient.id());
+        return consultationService.processConsultation(consultationId, request)
+                .map(ResponseEntity::ok);
+    }
+}
@@ -0,0 +1,25 @@
+package com.prescriptionservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when answers are submitted for a consultation whose previous answers are still being assessed.
+ * Results in HTTP 409 Conflict response.
+ * Does not capture a stack trace unless enabled with {@link DomainExceptions#setStackTracesEnabled(boolean)}.
+ */
+@ResponseStatus(value = HttpStatus.CONFLICT)
+public class AssessmentInProgressException extends RuntimeException {
+    
+    private final String consultationId;
+    
+    public AssessmentInProgressException(String consultationId) {
+        super("Answers to consultation " + consultationId + " are still being assessed", null, true,
+                DomainExceptions.stackTracesEnabled());
+        this.consultationId = consultationId;
+    }
+    
+    public String getConsultationId() {
+        return consultationId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.prescriptionservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the asynchronous assessment queue is full and a submission cannot be accepted.
+ * Results in HTTP 503 Service Unavailable response.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class AssessmentQueueFullException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    public AssessmentQueueFullException(long retryAfterSeconds) {
+        super("Assessment queue is full");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
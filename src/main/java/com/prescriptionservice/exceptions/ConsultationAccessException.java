@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Exception thrown when a patient attempts to access a consultation they don't own.
  * Results in HTTP 403 Forbidden response.
+ * Does not capture a stack trace unless enabled with {@link DomainExceptions#setStackTracesEnabled(boolean)}.
  */
 @ResponseStatus(value = HttpStatus.FORBIDDEN)
 public class ConsultationAccessException extends RuntimeException {
@@ -14,13 +15,13 @@ public class ConsultationAccessException extends RuntimeException {
     private final String consultationId;
     
     public ConsultationAccessException(String patientId, String consultationId) {
-        super("Patient " + patientId + " is not authorized to access consultation " + consultationId);
+        super("Patient " + patientId + " is not authorized to access consultation " + consultationId, null, true, DomainExceptions.stackTracesEnabled());
         this.patientId = patientId;
         this.consultationId = consultationId;
     }
     
     public ConsultationAccessException(String patientId, String consultationId, Throwable cause) {
-        super("Patient " + patientId + " is not authorized to access consultation " + consultationId, cause);
+        super("Patient " + patientId + " is not authorized to access consultation " + consultationId, cause, true, DomainExceptions.stackTracesEnabled());
         this.patientId = patientId;
         this.consultationId = consultationId;
     }
@@ -0,0 +1,23 @@
+package com.prescriptionservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when the consultation store is full and no consultation can be evicted.
+ * Results in HTTP 503 Service Unavailable response.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class ConsultationCapacityExceededException extends RuntimeException {
+    
+    private final int capacity;
+    
+    public ConsultationCapacityExceededException(int capacity) {
+        super("Consultation capacity of " + capacity + " reached");
+        this.capacity = capacity;
+    }
+    
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Exception thrown when a consultation is not found by its ID.
  * Results in HTTP 404 Not Found response.
+ * Does not capture a stack trace unless enabled with {@link DomainExceptions#setStackTracesEnabled(boolean)}.
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ConsultationNotFoundException extends RuntimeException {
@@ -13,12 +14,12 @@ public class ConsultationNotFoundException extends RuntimeException {
     private final String consultationId;
     
     public ConsultationNotFoundException(String consultationId) {
-        super("Consultation not found: " + consultationId);
+        super("Consultation not found: " + consultationId, null, true, DomainExceptions.stackTracesEnabled());
         this.consultationId = consultationId;
     }
     
     public ConsultationNotFoundException(String consultationId, Throwable cause) {
-        super("Consultation not found: " + consultationId, cause);
+        super("Consultation not found: " + consultationId, cause, true, DomainExceptions.stackTracesEnabled());
         this.consultationId = consultationId;
     }
     
@@ -0,0 +1,37 @@
+package com.prescriptionservice.exceptions;
+
+/**
+ * Switch that the domain exceptions reporting bad client input (unknown or foreign IDs, rate limits, conflicting
+ * submissions) consult in their constructors to decide whether to capture a stack trace. Such an exception is thrown
+ * for every unknown or foreign ID, so a client bug or a scanner flooding the service with bad IDs would otherwise
+ * spend most of each request walking the stack for a trace nobody reads.
+ * The switch is static because these exceptions are created with {@code new} wherever input is rejected, with no
+ * way to hand them configuration. It starts off; {@code ErrorHandlingConfiguration} sets it from
+ * {@code consultations.errors.stack-traces}.
+ */
+public final class DomainExceptions {
+
+    private static volatile boolean stackTracesEnabled;
+
+    private DomainExceptions() {
+    }
+
+    /**
+     * Turns stack trace capture on or off for domain exceptions created from now on, e.g. to debug where they are
+     * thrown from.
+     *
+     * @param enabled Whether domain exceptions capture stack traces
+     */
+    public static void setStackTracesEnabled(boolean enabled) {
+        stackTracesEnabled = enabled;
+    }
+
+    /**
+     * Checks whether domain exceptions capture stack traces.
+     *
+     * @return true if stack traces are captured
+     */
+    public static boolean stackTracesEnabled() {
+        return stackTracesEnabled;
+    }
+}
@@ -0,0 +1,26 @@
+package com.prescriptionservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an Idempotency-Key is sent again for a consultation with a different request, so its cached
+ * result cannot stand for the new submission.
+ * Results in HTTP 422 Unprocessable Entity response.
+ * Does not capture a stack trace unless enabled with {@link DomainExceptions#setStackTracesEnabled(boolean)}.
+ */
+@ResponseStatus(value = HttpStatus.UNPROCESSABLE_ENTITY)
+public class IdempotencyKeyReusedException extends RuntimeException {
+    
+    private final String idempotencyKey;
+    
+    public IdempotencyKeyReusedException(String idempotencyKey) {
+        super("Idempotency-Key " + idempotencyKey + " was already used with a different request", null, true,
+                DomainExceptions.stackTracesEnabled());
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+}
@@ -0,0 +1,24 @@
+package com.prescriptionservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception thrown when an answer does not fit its question: an unknown question, or a value that is not valid
+ * for the question's type. Results in HTTP 400 Bad Request response.
+ * Extends IllegalArgumentException so batch submissions report it as an invalid item.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidAnswerException extends IllegalArgumentException {
+    
+    private final String questionId;
+    
+    public InvalidAnswerException(String questionId, String message) {
+        super(message);
+        this.questionId = questionId;
+    }
+    
+    public String getQuestionId() {
+        return questionId;
+    }
+}
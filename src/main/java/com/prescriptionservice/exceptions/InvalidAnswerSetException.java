@@ -0,0 +1,64 @@
+package com.prescriptionservice.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Exception thrown when the answers of a submission do not cover the product's questions: answers to questions
+ * that are not part of the product, questions answered more than once, or required questions left unanswered.
+ * Results in HTTP 400 Bad Request response listing every violation.
+ * Extends IllegalArgumentException so batch submissions report it as an invalid item.
+ */
+@ResponseStatus(value = HttpStatus.BAD_REQUEST)
+public class InvalidAnswerSetException extends IllegalArgumentException {
+
+    private final List<Violation> violations;
+
+    public InvalidAnswerSetException(List<Violation> violations) {
+        super(violations.stream()
+                .map(violation -> violation.reason().describe(violation.questionId()))
+                .collect(Collectors.joining("; ", "Invalid answers: ", "")));
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Why an answer set was rejected.
+     */
+    public enum Reason {
+        UNKNOWN_QUESTION("unknown_question", "question %s is not part of the product"),
+        DUPLICATE_ANSWER("duplicate_answer", "question %s is answered more than once"),
+        MISSING_REQUIRED("missing_required", "required question %s is not answered");
+
+        private final String code;
+        private final String description;
+
+        Reason(String code, String description) {
+            this.code = code;
+            this.description = description;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        String describe(String questionId) {
+            return String.format(description, questionId);
+        }
+    }
+
+    /**
+     * A single problem with an answer set.
+     *
+     * @param questionId The question the problem is about
+     * @param reason The problem
+     */
+    public record Violation(String questionId, Reason reason) {
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Exception thrown when a patient is not found by their ID.
  * Results in HTTP 404 Not Found response.
+ * Does not capture a stack trace unless enabled with {@link DomainExceptions#setStackTracesEnabled(boolean)}.
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class PatientNotFoundException extends RuntimeException {
@@ -13,12 +14,12 @@ public class PatientNotFoundException extends RuntimeException {
     private final String patientId;
     
     public PatientNotFoundException(String patientId) {
-        super("Patient not found: " + patientId);
+        super("Patient not found: " + patientId, null, true, DomainExceptions.stackTracesEnabled());
         this.patientId = patientId;
     }
     
     public PatientNotFoundException(String patientId, Throwable cause) {
-        super("Patient not found: " + patientId, cause);
+        super("Patient not found: " + patientId, cause, true, DomainExceptions.stackTracesEnabled());
         this.patientId = patientId;
     }
     
@@ -6,15 +6,16 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 /**
  * Exception thrown when a product is not found by its ID.
  * Results in HTTP 404 Not Found response.
+ * Does not capture a stack trace unless enabled with {@link DomainExceptions#setStackTracesEnabled(boolean)}.
  */
 @ResponseStatus(value = HttpStatus.NOT_FOUND)
 public class ProductNotFoundException extends RuntimeException {
     
     public ProductNotFoundException(String productId) {
-        super("Product not found: " + productId);
+        super("Product not found: " + productId, null, true, DomainExceptions.stackTracesEnabled());
     }
     
     public ProductNotFoundException(String productId, Throwable cause) {
-        super("Product not found: " + productId, cause);
+        super("Product not found: " + productId, cause, true, DomainExceptions.stackTracesEnabled());
     }
 }
\ No newline at end of file
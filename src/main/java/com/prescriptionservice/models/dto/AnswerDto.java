@@ -1,10 +1,16 @@
 package com.prescriptionservice.models.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.prescriptionservice.models.entity.AnswerValue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
 /**
  * Data transfer object for patient answers received from the frontend.
+ * When read from a request body, the value is also parsed against the question's type (see
+ * {@code AnswerDtoDeserializer}); answers created in code have no parsed value until they are assessed.
+ * A value that does not fit its question is not rejected while the body is read: the reason is kept as the parse
+ * error and reported when the consultation is assessed, so one bad answer in a batch only fails its own item.
  */
 public class AnswerDto {
     @NotNull(message = "Question ID is required")
@@ -14,6 +20,12 @@ public class AnswerDto {
     @NotNull(message = "Answer value is required")
     @NotBlank(message = "Answer value cannot be blank")
     private String value;
+    
+    @JsonIgnore
+    private AnswerValue parsedValue;
+    
+    @JsonIgnore
+    private String parseError;
 
     public AnswerDto() {}
 
@@ -37,4 +49,23 @@ public class AnswerDto {
     public void setValue(String value) {
         this.value = value;
     }
+
+    public AnswerValue getParsedValue() {
+        return parsedValue;
+    }
+
+    public void setParsedValue(AnswerValue parsedValue) {
+        this.parsedValue = parsedValue;
+    }
+
+    /**
+     * Why the value did not fit its question when the request was read, or null if it was parsed or not parsed at all.
+     */
+    public String getParseError() {
+        return parseError;
+    }
+
+    public void setParseError(String parseError) {
+        this.parseError = parseError;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.prescriptionservice.models.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Data transfer object for one consultation of a batch submission: the consultation ID and its answers.
+ */
+public class BatchConsultationItem {
+    @NotNull(message = "Consultation ID is required")
+    @NotBlank(message = "Consultation ID cannot be blank")
+    private String consultationId;
+    
+    @NotNull(message = "Request is required")
+    @Valid
+    private ConsultationRequest request;
+
+    public BatchConsultationItem() {}
+
+    public BatchConsultationItem(String consultationId, ConsultationRequest request) {
+        this.consultationId = consultationId;
+        this.request = request;
+    }
+
+    public String getConsultationId() {
+        return consultationId;
+    }
+
+    public void setConsultationId(String consultationId) {
+        this.consultationId = consultationId;
+    }
+
+    public ConsultationRequest getRequest() {
+        return request;
+    }
+
+    public void setRequest(ConsultationRequest request) {
+        this.request = request;
+    }
+}
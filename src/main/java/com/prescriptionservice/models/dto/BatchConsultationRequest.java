@@ -0,0 +1,30 @@
+package com.prescriptionservice.models.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+
+/**
+ * Data transfer object for submitting the answers of many consultations at once.
+ * Only the list itself is validated with the request; each item is validated on its own when the batch is processed,
+ * so an invalid item fails in its own result rather than failing the whole batch.
+ */
+public class BatchConsultationRequest {
+    @NotNull(message = "Items are required")
+    @NotEmpty(message = "At least one item is required")
+    private List<BatchConsultationItem> items;
+
+    public BatchConsultationRequest() {}
+
+    public BatchConsultationRequest(List<BatchConsultationItem> items) {
+        this.items = items;
+    }
+
+    public List<BatchConsultationItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<BatchConsultationItem> items) {
+        this.items = items;
+    }
+}
@@ -0,0 +1,44 @@
+package com.prescriptionservice.models.dto;
+
+import java.util.List;
+
+/**
+ * Data transfer object for the response to a batch submission, with one result per item in request order.
+ */
+public class BatchEligibilityResponse {
+    private List<BatchEligibilityResult> results;
+    private int succeeded;
+    private int failed;
+
+    public BatchEligibilityResponse() {}
+
+    public BatchEligibilityResponse(List<BatchEligibilityResult> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(BatchEligibilityResult::isSuccessful).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public List<BatchEligibilityResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchEligibilityResult> results) {
+        this.results = results;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+}
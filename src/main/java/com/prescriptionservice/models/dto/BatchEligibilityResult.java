@@ -0,0 +1,79 @@
+package com.prescriptionservice.models.dto;
+
+/**
+ * Data transfer object for the outcome of one item of a batch submission.
+ * Holds either the eligibility result or the error that item failed with.
+ */
+public class BatchEligibilityResult {
+    private String consultationId;
+    private EligibilityResponse result;
+    private String errorType;
+    private String message;
+
+    public BatchEligibilityResult() {}
+
+    public BatchEligibilityResult(String consultationId, EligibilityResponse result, String errorType, String message) {
+        this.consultationId = consultationId;
+        this.result = result;
+        this.errorType = errorType;
+        this.message = message;
+    }
+
+    /**
+     * Creates the result of an item that was assessed.
+     *
+     * @param result The eligibility result
+     * @return The item result
+     */
+    public static BatchEligibilityResult success(EligibilityResponse result) {
+        return new BatchEligibilityResult(result.getConsultationId(), result, null, null);
+    }
+
+    /**
+     * Creates the result of an item that failed.
+     *
+     * @param consultationId The consultation ID of the item
+     * @param errorType The error type, using the same values as error responses
+     * @param message The error message
+     * @return The item result
+     */
+    public static BatchEligibilityResult failure(String consultationId, String errorType, String message) {
+        return new BatchEligibilityResult(consultationId, null, errorType, message);
+    }
+
+    public boolean isSuccessful() {
+        return result != null;
+    }
+
+    public String getConsultationId() {
+        return consultationId;
+    }
+
+    public void setConsultationId(String consultationId) {
+        this.consultationId = consultationId;
+    }
+
+    public EligibilityResponse getResult() {
+        return result;
+    }
+
+    public void setResult(EligibilityResponse result) {
+        this.result = result;
+    }
+
+    public String getErrorType() {
+        return errorType;
+    }
+
+    public void setErrorType(String errorType) {
+        this.errorType = errorType;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,18 @@
+package com.prescriptionservice.models.dto;
+
+/**
+ * Immutable body of the response to a request for an unknown consultation.
+ * It has the shape of an {@link EligibilityResponse}, so clients reading the eligibility result
+ * see a non-eligible ERROR status.
+ *
+ * @param consultationId The consultation ID that was requested
+ * @param eligible Always false
+ * @param message Human-readable description of the error
+ * @param status Always "ERROR"
+ */
+public record ConsultationErrorResponse(String consultationId, boolean eligible, String message, String status) {
+
+    public static ConsultationErrorResponse notFound(String consultationId, String message) {
+        return new ConsultationErrorResponse(consultationId, false, message, "ERROR");
+    }
+}
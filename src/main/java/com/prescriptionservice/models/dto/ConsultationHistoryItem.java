@@ -0,0 +1,73 @@
+package com.prescriptionservice.models.dto;
+
+/**
+ * Data transfer object for one consultation in a patient's consultation history.
+ */
+public class ConsultationHistoryItem {
+    private String consultationId;
+    private String productId;
+    private String status;
+    private boolean eligible;
+    private String message;
+    private long createdAt;
+
+    public ConsultationHistoryItem() {}
+
+    public ConsultationHistoryItem(String consultationId, String productId, String status, boolean eligible,
+                                   String message, long createdAt) {
+        this.consultationId = consultationId;
+        this.productId = productId;
+        this.status = status;
+        this.eligible = eligible;
+        this.message = message;
+        this.createdAt = createdAt;
+    }
+
+    public String getConsultationId() {
+        return consultationId;
+    }
+
+    public void setConsultationId(String consultationId) {
+        this.consultationId = consultationId;
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public boolean isEligible() {
+        return eligible;
+    }
+
+    public void setEligible(boolean eligible) {
+        this.eligible = eligible;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,35 @@
+package com.prescriptionservice.models.dto;
+
+import java.util.List;
+
+/**
+ * Data transfer object for a page of a patient's consultation history, newest first.
+ * {@code nextCursor} is an opaque value to pass back to get the next page, and is null on the last page.
+ */
+public class ConsultationHistoryResponse {
+    private List<ConsultationHistoryItem> consultations;
+    private String nextCursor;
+
+    public ConsultationHistoryResponse() {}
+
+    public ConsultationHistoryResponse(List<ConsultationHistoryItem> consultations, String nextCursor) {
+        this.consultations = consultations;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ConsultationHistoryItem> getConsultations() {
+        return consultations;
+    }
+
+    public void setConsultations(List<ConsultationHistoryItem> consultations) {
+        this.consultations = consultations;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
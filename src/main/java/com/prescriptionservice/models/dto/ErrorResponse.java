@@ -0,0 +1,29 @@
+package com.prescriptionservice.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Immutable body of an error response. Bodies that do not depend on the request are built once and shared.
+ * Absent fields are left out: {@code error_type} for unexpected errors, {@code question_id} unless the error
+ * is about a single answer.
+ *
+ * @param message Human-readable description of the error
+ * @param status "error", or "forbidden" for access errors
+ * @param errorType Machine-readable error type, e.g. "not_found"
+ * @param questionId The question an invalid answer was given to
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ErrorResponse(String message,
+                            String status,
+                            @JsonProperty("error_type") String errorType,
+                            @JsonProperty("question_id") String questionId) {
+
+    public ErrorResponse(String message, String status, String errorType) {
+        this(message, status, errorType, null);
+    }
+
+    public static ErrorResponse error(String message, String errorType) {
+        return new ErrorResponse(message, "error", errorType);
+    }
+}
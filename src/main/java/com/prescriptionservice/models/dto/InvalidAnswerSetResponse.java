@@ -0,0 +1,32 @@
+package com.prescriptionservice.models.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Immutable body of the response to a submission whose answers do not cover the product's questions.
+ *
+ * @param message Human-readable description of every violation
+ * @param status Always "error"
+ * @param errorType Always "invalid_answers"
+ * @param errors One entry per violation
+ */
+public record InvalidAnswerSetResponse(String message,
+                                       String status,
+                                       @JsonProperty("error_type") String errorType,
+                                       List<AnswerError> errors) {
+
+    public InvalidAnswerSetResponse(String message, List<AnswerError> errors) {
+        this(message, "error", "invalid_answers", List.copyOf(errors));
+    }
+
+    /**
+     * A violation of a single question.
+     *
+     * @param questionId The question the violation is about
+     * @param error Machine-readable reason, e.g. "missing_required"
+     */
+    public record AnswerError(@JsonProperty("question_id") String questionId, String error) {
+    }
+}
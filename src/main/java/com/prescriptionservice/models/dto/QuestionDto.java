@@ -1,15 +1,21 @@
 package com.prescriptionservice.models.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.prescriptionservice.models.entity.Question;
 
+import java.util.List;
+
 /**
  * Data transfer object for consultation questions sent to the frontend.
+ * Options are only sent for MULTIPLE_CHOICE questions.
  */
 public class QuestionDto {
     private String id;
     private String text;
     private String type;
     private boolean required;
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<String> options = List.of();
 
     public QuestionDto() {}
 
@@ -21,12 +27,14 @@ public class QuestionDto {
     }
 
     public static QuestionDto fromEntity(Question question) {
-        return new QuestionDto(
+        QuestionDto dto = new QuestionDto(
             question.getId(),
             question.getText(),
             question.getType().name(),
             question.isRequired()
         );
+        dto.setOptions(question.getOptions());
+        return dto;
     }
 
     public String getId() {
@@ -60,4 +68,12 @@ public class QuestionDto {
     public void setRequired(boolean required) {
         this.required = required;
     }
+
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = options;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.prescriptionservice.models.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Pre-serialized form of {@link QuestionsResponse}.
+ * The questions array is rendered to JSON once per product and catalog version and shared between requests;
+ * only the consultation ID is spliced in per request. The ETag identifies the question portion only.
+ * The question DTOs the JSON was rendered from are kept for responses in other encodings.
+ */
+public class SerializedQuestionsResponse {
+    private static final byte[] QUESTIONS_PREFIX = "{\"questions\":".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] CONSULTATION_ID_PREFIX = ",\"consultationId\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+    
+    private final List<QuestionDto> questions;
+    private final byte[] questionsJson;
+    private final String etag;
+    private final String consultationId;
+
+    public SerializedQuestionsResponse(List<QuestionDto> questions, byte[] questionsJson, String etag, String consultationId) {
+        this.questions = questions;
+        this.questionsJson = questionsJson;
+        this.etag = etag;
+        this.consultationId = consultationId;
+    }
+
+    public List<QuestionDto> getQuestions() {
+        return questions;
+    }
+
+    public byte[] getQuestionsJson() {
+        return questionsJson;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public String getConsultationId() {
+        return consultationId;
+    }
+
+    /**
+     * Renders the full response body, equivalent to serializing a {@link QuestionsResponse}.
+     * 
+     * @return The JSON response body
+     */
+    public byte[] toByteArray() {
+        byte[] id = escapeJson(consultationId).getBytes(StandardCharsets.UTF_8);
+        byte[] body = new byte[QUESTIONS_PREFIX.length + questionsJson.length + CONSULTATION_ID_PREFIX.length + id.length + SUFFIX.length];
+        int offset = 0;
+        System.arraycopy(QUESTIONS_PREFIX, 0, body, offset, QUESTIONS_PREFIX.length);
+        offset += QUESTIONS_PREFIX.length;
+        System.arraycopy(questionsJson, 0, body, offset, questionsJson.length);
+        offset += questionsJson.length;
+        System.arraycopy(CONSULTATION_ID_PREFIX, 0, body, offset, CONSULTATION_ID_PREFIX.length);
+        offset += CONSULTATION_ID_PREFIX.length;
+        System.arraycopy(id, 0, body, offset, id.length);
+        offset += id.length;
+        System.arraycopy(SUFFIX, 0, body, offset, SUFFIX.length);
+        return body;
+    }
+
+    /**
+     * Returns the response as a {@link QuestionsResponse}, to be written by a message converter in an encoding
+     * other than JSON. The question DTOs are shared and must not be modified.
+     * 
+     * @return The questions response
+     */
+    public QuestionsResponse toQuestionsResponse() {
+        return new QuestionsResponse(questions, consultationId);
+    }
+
+    private static String escapeJson(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c < 0x20) {
+                return escapeJsonFrom(value, i);
+            }
+        }
+        return value;
+    }
+
+    private static String escapeJsonFrom(String value, int start) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8).append(value, 0, start);
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.prescriptionservice.models.dto;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Immutable body of the response to a request body that fails bean validation.
+ *
+ * @param message Always "Validation failed"
+ * @param errors Validation message by field name
+ */
+public record ValidationErrorResponse(String message, Map<String, String> errors) {
+
+    public ValidationErrorResponse(Map<String, String> errors) {
+        this("Validation failed", Collections.unmodifiableMap(errors));
+    }
+}
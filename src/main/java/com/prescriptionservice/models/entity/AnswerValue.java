@@ -0,0 +1,58 @@
+package com.prescriptionservice.models.entity;
+
+/**
+ * Typed value of an answer, parsed once from the submitted text according to the question's type.
+ * YES_NO answers become a boolean, MULTIPLE_CHOICE answers the ordinal of the chosen option and TEXT answers
+ * the text itself, so rules and storage never compare the raw strings again.
+ */
+public sealed interface AnswerValue permits AnswerValue.YesNo, AnswerValue.Choice, AnswerValue.Text {
+
+    /** Shared "yes" answer. */
+    YesNo YES = new YesNo(true);
+
+    /** Shared "no" answer. */
+    YesNo NO = new YesNo(false);
+
+    /**
+     * Returns the canonical text of the value: "yes" or "no", the chosen option as declared on the question,
+     * or the text answer.
+     */
+    String asText();
+
+    /**
+     * Answer to a YES_NO question.
+     *
+     * @param yes Whether the question was answered "yes"
+     */
+    record YesNo(boolean yes) implements AnswerValue {
+        @Override
+        public String asText() {
+            return yes ? "yes" : "no";
+        }
+    }
+
+    /**
+     * Answer to a MULTIPLE_CHOICE question.
+     *
+     * @param ordinal Index of the chosen option in {@link Question#getOptions()}
+     * @param option The chosen option, as declared on the question
+     */
+    record Choice(int ordinal, String option) implements AnswerValue {
+        @Override
+        public String asText() {
+            return option;
+        }
+    }
+
+    /**
+     * Answer to a TEXT question.
+     *
+     * @param text The answer text
+     */
+    record Text(String text) implements AnswerValue {
+        @Override
+        public String asText() {
+            return text;
+        }
+    }
+}
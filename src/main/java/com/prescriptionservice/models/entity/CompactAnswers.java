@@ -0,0 +1,197 @@
+package com.prescriptionservice.models.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Compact, immutable representation of a consultation's answers.
+ * Answers are keyed by question ordinal: "yes"/"no" answers are packed into two bitsets and any other
+ * value is stored as length-prefixed UTF-8 in a single byte array, in ordinal order. Answers that cannot be
+ * keyed by ordinal (unknown questions, repeated answers, ordinals beyond 63) are kept as-is.
+ * Answers already parsed into {@link AnswerValue}s are stored by type: YES_NO answers only set bits, and
+ * every other value is stored as text, even if it reads "yes" or "no".
+ * {@link Answer} objects are only created when {@link #toAnswers()} is called; "yes"/"no" values come back
+ * in lower case, answers to known questions in ordinal order followed by the other answers.
+ */
+public final class CompactAnswers {
+    
+    private static final String YES = "yes";
+    private static final String NO = "no";
+    private static final byte[] NO_TEXT = new byte[0];
+    
+    private final ProductQuestionIndex questionIndex;
+    private final long answeredMask;
+    private final long yesMask;
+    private final long textMask;
+    private final byte[] textValues;
+    private final List<Answer> otherAnswers;
+    
+    private CompactAnswers(ProductQuestionIndex questionIndex, long answeredMask, long yesMask, long textMask,
+                           byte[] textValues, List<Answer> otherAnswers) {
+        this.questionIndex = questionIndex;
+        this.answeredMask = answeredMask;
+        this.yesMask = yesMask;
+        this.textMask = textMask;
+        this.textValues = textValues;
+        this.otherAnswers = otherAnswers;
+    }
+    
+    public static Builder builder(ProductQuestionIndex questionIndex) {
+        return new Builder(questionIndex);
+    }
+    
+    /**
+     * Returns the bitset of questions answered "yes", indexed by question ordinal.
+     */
+    public long yesMask() {
+        return yesMask;
+    }
+    
+    /**
+     * Returns the bitset of questions that have an answer, indexed by question ordinal.
+     */
+    public long answeredMask() {
+        return answeredMask;
+    }
+    
+    /**
+     * Returns the number of answers, including the ones not keyed by ordinal.
+     */
+    public int size() {
+        return Long.bitCount(answeredMask) + otherAnswers.size();
+    }
+    
+    /**
+     * Decodes the answers into the {@link Answer} model.
+     * 
+     * @return A new list of answers
+     */
+    public List<Answer> toAnswers() {
+        List<Answer> answers = new ArrayList<>(size());
+        int textOffset = 0;
+        for (long remaining = answeredMask; remaining != 0; remaining &= remaining - 1) {
+            int ordinal = Long.numberOfTrailingZeros(remaining);
+            long bit = 1L << ordinal;
+            String value;
+            if ((textMask & bit) != 0) {
+                int length = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = textValues[textOffset++];
+                    length |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                value = new String(textValues, textOffset, length, StandardCharsets.UTF_8);
+                textOffset += length;
+            } else {
+                value = (yesMask & bit) != 0 ? YES : NO;
+            }
+            answers.add(new Answer(questionIndex.questionIdAt(ordinal), value));
+        }
+        answers.addAll(otherAnswers);
+        return answers;
+    }
+    
+    /**
+     * Builds {@link CompactAnswers} from answers in submission order.
+     * Only the first answer to a question is keyed by ordinal.
+     */
+    public static final class Builder {
+        private final ProductQuestionIndex questionIndex;
+        private long answeredMask;
+        private long yesMask;
+        private long textMask;
+        private String[] texts;
+        private List<Answer> otherAnswers;
+        
+        private Builder(ProductQuestionIndex questionIndex) {
+            this.questionIndex = questionIndex;
+        }
+        
+        public Builder add(String questionId, String value) {
+            int ordinal = questionIndex.ordinalOf(questionId);
+            long bit = bitOf(ordinal);
+            if (bit == 0 || (answeredMask & bit) != 0 || value == null) {
+                addOther(questionId, value);
+                return this;
+            }
+            answeredMask |= bit;
+            if (YES.equalsIgnoreCase(value)) {
+                yesMask |= bit;
+            } else if (!NO.equalsIgnoreCase(value)) {
+                addText(ordinal, bit, value);
+            }
+            return this;
+        }
+        
+        /**
+         * Adds an answer whose value was parsed against its question's type, without comparing any text.
+         */
+        public Builder add(String questionId, AnswerValue value) {
+            int ordinal = questionIndex.ordinalOf(questionId);
+            long bit = bitOf(ordinal);
+            if (bit == 0 || (answeredMask & bit) != 0) {
+                addOther(questionId, value.asText());
+                return this;
+            }
+            answeredMask |= bit;
+            if (value instanceof AnswerValue.YesNo yesNo) {
+                if (yesNo.yes()) {
+                    yesMask |= bit;
+                }
+            } else {
+                addText(ordinal, bit, value.asText());
+            }
+            return this;
+        }
+        
+        private static long bitOf(int ordinal) {
+            return ordinal >= 0 && ordinal < Long.SIZE ? 1L << ordinal : 0L;
+        }
+        
+        private void addText(int ordinal, long bit, String value) {
+            textMask |= bit;
+            if (texts == null) {
+                texts = new String[Math.min(questionIndex.size(), Long.SIZE)];
+            }
+            texts[ordinal] = value;
+        }
+        
+        private void addOther(String questionId, String value) {
+            if (otherAnswers == null) {
+                otherAnswers = new ArrayList<>();
+            }
+            otherAnswers.add(new Answer(questionId, value));
+        }
+        
+        public CompactAnswers build() {
+            return new CompactAnswers(
+                    questionIndex,
+                    answeredMask,
+                    yesMask,
+                    textMask,
+                    textMask == 0 ? NO_TEXT : encodeTexts(),
+                    otherAnswers == null ? List.of() : Collections.unmodifiableList(otherAnswers)
+            );
+        }
+        
+        private byte[] encodeTexts() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            for (long remaining = textMask; remaining != 0; remaining &= remaining - 1) {
+                byte[] bytes = texts[Long.numberOfTrailingZeros(remaining)].getBytes(StandardCharsets.UTF_8);
+                int length = bytes.length;
+                while (length >= 0x80) {
+                    out.write((length & 0x7F) | 0x80);
+                    length >>>= 7;
+                }
+                out.write(length);
+                out.write(bytes, 0, bytes.length);
+            }
+            return out.toByteArray();
+        }
+    }
+}
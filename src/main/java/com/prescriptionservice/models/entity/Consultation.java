@@ -1,20 +1,27 @@
 package com.prescriptionservice.models.entity;
 
 import java.util.List;
-import java.util.UUID;
 
 /**
  * Represents a consultation session containing patient answers and eligibility status.
  * Links to a Patient entity via patientId for proper data normalization.
+ * Answers submitted through the API are stored as {@link CompactAnswers} to keep stored consultations small.
  */
 public class Consultation {
     private String id;
     private String patientId;
+    private String productId;
+    private long questionSetVersion;
     private List<Answer> answers;
-    private EligibilityStatus eligibilityStatus;
+    private CompactAnswers compactAnswers;
+    private volatile EligibilityStatus eligibilityStatus;
+    private boolean eligible;
+    private String eligibilityMessage;
+    private long createdAt;
+    private volatile long lastTouchedAt;
 
     public Consultation() {
-        this.id = UUID.randomUUID().toString();
+        this.id = ConsultationIds.next();
         this.eligibilityStatus = EligibilityStatus.PENDING;
     }
 
@@ -23,6 +30,11 @@ public class Consultation {
         this.patientId = patientId;
     }
 
+    public Consultation(String patientId, String productId) {
+        this(patientId);
+        this.productId = productId;
+    }
+
     public String getId() {
         return id;
     }
@@ -39,12 +51,47 @@ public class Consultation {
         this.patientId = patientId;
     }
 
+    public String getProductId() {
+        return productId;
+    }
+
+    public void setProductId(String productId) {
+        this.productId = productId;
+    }
+
+    /**
+     * Catalog version of the question set that was handed out for this consultation.
+     */
+    public long getQuestionSetVersion() {
+        return questionSetVersion;
+    }
+
+    public void setQuestionSetVersion(long questionSetVersion) {
+        this.questionSetVersion = questionSetVersion;
+    }
+
+    /**
+     * Returns the answers, decoding them from their compact form if they are stored compactly.
+     */
     public List<Answer> getAnswers() {
-        return answers;
+        return compactAnswers != null ? compactAnswers.toAnswers() : answers;
     }
 
     public void setAnswers(List<Answer> answers) {
         this.answers = answers;
+        this.compactAnswers = null;
+    }
+
+    public CompactAnswers getCompactAnswers() {
+        return compactAnswers;
+    }
+
+    /**
+     * Stores the answers in compact form, replacing any answer list.
+     */
+    public void setCompactAnswers(CompactAnswers compactAnswers) {
+        this.compactAnswers = compactAnswers;
+        this.answers = null;
     }
 
     public EligibilityStatus getEligibilityStatus() {
@@ -55,10 +102,66 @@ public class Consultation {
         this.eligibilityStatus = eligibilityStatus;
     }
 
+    /**
+     * Whether the patient was assessed as eligible; only meaningful once the status is a final outcome.
+     */
+    public boolean isEligible() {
+        return eligible;
+    }
+
+    public void setEligible(boolean eligible) {
+        this.eligible = eligible;
+    }
+
+    /**
+     * Message of the eligibility outcome, kept so the outcome can be read back after an asynchronous assessment.
+     */
+    public String getEligibilityMessage() {
+        return eligibilityMessage;
+    }
+
+    public void setEligibilityMessage(String eligibilityMessage) {
+        this.eligibilityMessage = eligibilityMessage;
+    }
+
+    /**
+     * Returns the consultation to PENDING and drops the outcome of any earlier assessment, so a status poll does
+     * not report a stale outcome while the patient submits again.
+     */
+    public void resetEligibility() {
+        this.eligible = false;
+        this.eligibilityMessage = null;
+        this.eligibilityStatus = EligibilityStatus.PENDING;
+    }
+
+    /**
+     * Creation time in epoch milliseconds, set by the repository on first save.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Time of the last save or lookup in epoch milliseconds, used to expire abandoned sessions.
+     */
+    public long getLastTouchedAt() {
+        return lastTouchedAt;
+    }
+
+    public void setLastTouchedAt(long lastTouchedAt) {
+        this.lastTouchedAt = lastTouchedAt;
+    }
+
     public enum EligibilityStatus {
         PENDING,
         ELIGIBLE,
         NOT_ELIGIBLE,
-        REQUIRES_REVIEW
+        REQUIRES_REVIEW,
+        // Answers submitted and queued for asynchronous assessment
+        ASSESSING
     }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.prescriptionservice.models.entity;
+
+import java.util.OptionalLong;
+
+/**
+ * Generates consultation IDs.
+ * Implementations must be thread-safe and produce IDs that are unique across all instances of the service.
+ */
+public interface ConsultationIdGenerator {
+
+    /**
+     * Generates a new consultation ID.
+     *
+     * @return The ID
+     */
+    String next();
+
+    /**
+     * Extracts the creation time encoded in an ID, e.g. to decide on expiry or partitioning without a lookup.
+     *
+     * @param id An ID generated by this generator
+     * @return Milliseconds since the epoch at which the ID was generated, or empty if the ID does not encode a
+     *         time or was not generated by this kind of generator
+     */
+    OptionalLong timestampMillis(String id);
+}
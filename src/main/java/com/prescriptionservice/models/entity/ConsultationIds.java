@@ -0,0 +1,45 @@
+package com.prescriptionservice.models.entity;
+
+import java.time.Clock;
+import java.util.OptionalLong;
+
+/**
+ * Holds the generator that assigns the IDs of new consultations.
+ * Entities are not Spring beans, so the configured generator is installed here at startup; until then, and in
+ * tests, IDs are ULIDs.
+ */
+public final class ConsultationIds {
+
+    private static volatile ConsultationIdGenerator generator = new UlidGenerator(Clock.systemUTC());
+
+    private ConsultationIds() {
+    }
+
+    /**
+     * Replaces the generator used for new consultations.
+     *
+     * @param idGenerator The generator
+     */
+    public static void use(ConsultationIdGenerator idGenerator) {
+        generator = idGenerator;
+    }
+
+    /**
+     * Generates the ID of a new consultation.
+     *
+     * @return The ID
+     */
+    public static String next() {
+        return generator.next();
+    }
+
+    /**
+     * Extracts the creation time encoded in a consultation ID.
+     *
+     * @param id A consultation ID
+     * @return Milliseconds since the epoch at which the ID was generated, or empty if it does not encode a time
+     */
+    public static OptionalLong timestampMillis(String id) {
+        return generator.timestampMillis(id);
+    }
+}
@@ -0,0 +1,68 @@
+package com.prescriptionservice.models.entity;
+
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cryptographically secure random numbers for ID generators, drawn without pinning virtual threads.
+ * The JDK's shared SecureRandom reads /dev/urandom inside a synchronized block on Linux, so every draw can pin its
+ * carrier thread and all requests contend on one monitor. Here the bytes come from a set of DRBG instances,
+ * which only do I/O when they are first seeded, each guarded by a ReentrantLock that parks rather than pins.
+ * The instance is picked by thread ID. Instances are not kept per thread, as with virtual threads every request
+ * runs on a new thread and would seed a DRBG of its own.
+ */
+final class DrbgStripes {
+    
+    private final Stripe[] stripes = createStripes(Runtime.getRuntime().availableProcessors() * 2);
+    
+    /**
+     * Fills the array with random bytes.
+     */
+    void nextBytes(byte[] bytes) {
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            stripe.random.nextBytes(bytes);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    /**
+     * Returns 64 random bits.
+     */
+    long nextLong() {
+        Stripe stripe = stripe();
+        stripe.lock.lock();
+        try {
+            return stripe.random.nextLong();
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+    
+    private Stripe stripe() {
+        return stripes[(int) (Thread.currentThread().threadId() & (stripes.length - 1))];
+    }
+    
+    private static Stripe[] createStripes(int minimum) {
+        // Power of two, so the stripe can be picked with a mask
+        Stripe[] stripes = new Stripe[Integer.highestOneBit(Math.max(1, minimum - 1)) << 1];
+        for (int i = 0; i < stripes.length; i++) {
+            try {
+                stripes[i] = new Stripe(SecureRandom.getInstance("DRBG"));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("DRBG SecureRandom is not available", e);
+            }
+        }
+        return stripes;
+    }
+    
+    private record Stripe(SecureRandom random, ReentrantLock lock) {
+        
+        Stripe(SecureRandom random) {
+            this(random, new ReentrantLock());
+        }
+    }
+}
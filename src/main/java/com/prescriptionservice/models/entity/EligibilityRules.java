@@ -0,0 +1,139 @@
+package com.prescriptionservice.models.entity;
+
+import java.util.List;
+
+/**
+ * Declarative eligibility rules attached to a product.
+ * A "yes" to any veto question makes the patient ineligible; otherwise the number of "yes" answers
+ * to symptom questions is matched against the thresholds, highest minimum count first.
+ */
+public class EligibilityRules {
+    private List<String> vetoQuestionIds;
+    private Outcome vetoOutcome;
+    private List<String> symptomQuestionIds;
+    private List<SymptomThreshold> symptomThresholds;
+    private Outcome defaultOutcome;
+
+    public EligibilityRules() {}
+
+    public EligibilityRules(List<String> vetoQuestionIds, Outcome vetoOutcome, List<String> symptomQuestionIds,
+                            List<SymptomThreshold> symptomThresholds, Outcome defaultOutcome) {
+        this.vetoQuestionIds = vetoQuestionIds;
+        this.vetoOutcome = vetoOutcome;
+        this.symptomQuestionIds = symptomQuestionIds;
+        this.symptomThresholds = symptomThresholds;
+        this.defaultOutcome = defaultOutcome;
+    }
+
+    public List<String> getVetoQuestionIds() {
+        return vetoQuestionIds;
+    }
+
+    public void setVetoQuestionIds(List<String> vetoQuestionIds) {
+        this.vetoQuestionIds = vetoQuestionIds;
+    }
+
+    public Outcome getVetoOutcome() {
+        return vetoOutcome;
+    }
+
+    public void setVetoOutcome(Outcome vetoOutcome) {
+        this.vetoOutcome = vetoOutcome;
+    }
+
+    public List<String> getSymptomQuestionIds() {
+        return symptomQuestionIds;
+    }
+
+    public void setSymptomQuestionIds(List<String> symptomQuestionIds) {
+        this.symptomQuestionIds = symptomQuestionIds;
+    }
+
+    public List<SymptomThreshold> getSymptomThresholds() {
+        return symptomThresholds;
+    }
+
+    public void setSymptomThresholds(List<SymptomThreshold> symptomThresholds) {
+        this.symptomThresholds = symptomThresholds;
+    }
+
+    public Outcome getDefaultOutcome() {
+        return defaultOutcome;
+    }
+
+    public void setDefaultOutcome(Outcome defaultOutcome) {
+        this.defaultOutcome = defaultOutcome;
+    }
+
+    /**
+     * Outcome applied when at least {@code minimumCount} symptom questions were answered "yes".
+     */
+    public static class SymptomThreshold {
+        private int minimumCount;
+        private Outcome outcome;
+
+        public SymptomThreshold() {}
+
+        public SymptomThreshold(int minimumCount, Outcome outcome) {
+            this.minimumCount = minimumCount;
+            this.outcome = outcome;
+        }
+
+        public int getMinimumCount() {
+            return minimumCount;
+        }
+
+        public void setMinimumCount(int minimumCount) {
+            this.minimumCount = minimumCount;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public void setOutcome(Outcome outcome) {
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * Result of a rule: eligibility flag, patient-facing message and resulting consultation status.
+     */
+    public static class Outcome {
+        private boolean eligible;
+        private String message;
+        private Consultation.EligibilityStatus status;
+
+        public Outcome() {}
+
+        public Outcome(boolean eligible, String message, Consultation.EligibilityStatus status) {
+            this.eligible = eligible;
+            this.message = message;
+            this.status = status;
+        }
+
+        public boolean isEligible() {
+            return eligible;
+        }
+
+        public void setEligible(boolean eligible) {
+            this.eligible = eligible;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+
+        public Consultation.EligibilityStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(Consultation.EligibilityStatus status) {
+            this.status = status;
+        }
+    }
+}
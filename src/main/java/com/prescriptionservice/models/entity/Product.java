@@ -11,6 +11,7 @@ public class Product {
     private String name;
     private String description;
     private List<String> questionIds;
+    private EligibilityRules eligibilityRules;
 
     public Product() {}
 
@@ -21,6 +22,11 @@ public class Product {
         this.questionIds = questionIds;
     }
 
+    public Product(String id, String name, String description, List<String> questionIds, EligibilityRules eligibilityRules) {
+        this(id, name, description, questionIds);
+        this.eligibilityRules = eligibilityRules;
+    }
+
     public String getId() {
         return id;
     }
@@ -52,4 +58,12 @@ public class Product {
     public void setQuestionIds(List<String> questionIds) {
         this.questionIds = questionIds;
     }
+
+    public EligibilityRules getEligibilityRules() {
+        return eligibilityRules;
+    }
+
+    public void setEligibilityRules(EligibilityRules eligibilityRules) {
+        this.eligibilityRules = eligibilityRules;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,140 @@
+package com.prescriptionservice.models.entity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable mapping between a product's question IDs and their ordinals.
+ * The ordinal of a question is the index of its first occurrence in {@link Product#getQuestionIds()};
+ * it is what answer bitmasks and compiled eligibility rules are indexed by.
+ * A resolved index also holds the product's questions in a dense array by ordinal, so the catalog resolves a
+ * product's questions once per catalog version and lookups by ordinal or ID are array reads.
+ */
+public final class ProductQuestionIndex {
+
+    private static final Question[] NO_QUESTIONS = new Question[0];
+
+    private final List<String> questionIds;
+    // Open-addressing table from question ID to ordinal, at most half full so probes stay short
+    private final String[] slotIds;
+    private final int[] slotOrdinals;
+    private final Question[] questions;
+    private final List<Question> resolvedQuestions;
+    private final long requiredMask;
+
+    public ProductQuestionIndex(List<String> questionIds) {
+        this(questionIds, null);
+    }
+
+    private ProductQuestionIndex(List<String> questionIds, Function<String, Question> catalog) {
+        this.questionIds = List.copyOf(questionIds);
+        int slots = Integer.highestOneBit(Math.max(1, this.questionIds.size()) * 2 - 1) << 1;
+        this.slotIds = new String[slots];
+        this.slotOrdinals = new int[slots];
+        this.questions = catalog == null ? NO_QUESTIONS : new Question[this.questionIds.size()];
+
+        List<Question> resolved = new ArrayList<>(questions.length);
+        long required = 0;
+        for (int ordinal = 0; ordinal < this.questionIds.size(); ordinal++) {
+            String questionId = this.questionIds.get(ordinal);
+            int slot = slotOf(questionId);
+            if (slotIds[slot] != null) {
+                // Only the first occurrence of a question ID has an ordinal
+                continue;
+            }
+            slotIds[slot] = questionId;
+            slotOrdinals[slot] = ordinal;
+            Question question = catalog == null ? null : catalog.apply(questionId);
+            if (question != null) {
+                questions[ordinal] = question;
+                resolved.add(question);
+                if (question.isRequired() && ordinal < Long.SIZE) {
+                    required |= 1L << ordinal;
+                }
+            }
+        }
+        this.resolvedQuestions = List.copyOf(resolved);
+        this.requiredMask = required;
+    }
+
+    /**
+     * Builds the index of a product's questions and resolves each of them against the catalog.
+     *
+     * @param questionIds The product's question IDs
+     * @param catalog Looks up a question by ID, returning null for questions missing from the catalog
+     * @return The resolved index
+     */
+    public static ProductQuestionIndex resolve(List<String> questionIds, Function<String, Question> catalog) {
+        return new ProductQuestionIndex(questionIds, catalog);
+    }
+
+    /**
+     * Returns the slot holding a question ID, or the empty slot where it would go.
+     */
+    private int slotOf(String questionId) {
+        int mask = slotIds.length - 1;
+        int hash = questionId.hashCode();
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (slotIds[slot] != null && !slotIds[slot].equals(questionId)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the ordinal of a question.
+     *
+     * @param questionId The question ID, may be null
+     * @return The ordinal, or -1 if the question is not part of the product
+     */
+    public int ordinalOf(String questionId) {
+        if (questionId == null) {
+            return -1;
+        }
+        int slot = slotOf(questionId);
+        return slotIds[slot] == null ? -1 : slotOrdinals[slot];
+    }
+
+    /**
+     * Returns the ID of the question with the given ordinal.
+     *
+     * @param ordinal The ordinal
+     * @return The question ID
+     */
+    public String questionIdAt(int ordinal) {
+        return questionIds.get(ordinal);
+    }
+
+    /**
+     * Returns the question with the given ordinal.
+     *
+     * @param ordinal The ordinal
+     * @return The question, or null if the index is not resolved or the question is missing from the catalog
+     */
+    public Question questionAt(int ordinal) {
+        return ordinal < questions.length ? questions[ordinal] : null;
+    }
+
+    /**
+     * Returns the resolved questions in ordinal order, without questions missing from the catalog.
+     *
+     * @return The immutable list of questions, empty if the index is not resolved
+     */
+    public List<Question> questions() {
+        return resolvedQuestions;
+    }
+
+    /**
+     * Returns the bits of the resolved questions marked as required, by ordinal.
+     *
+     * @return The required questions mask
+     */
+    public long requiredMask() {
+        return requiredMask;
+    }
+
+    public int size() {
+        return questionIds.size();
+    }
+}
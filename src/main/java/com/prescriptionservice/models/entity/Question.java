@@ -1,13 +1,17 @@
 package com.prescriptionservice.models.entity;
 
+import java.util.List;
+
 /**
  * Represents a reusable consultation question that can be associated with multiple products.
+ * MULTIPLE_CHOICE questions list the options an answer must be one of.
  */
 public class Question {
     private String id;
     private String text;
     private QuestionType type;
     private boolean required;
+    private List<String> options = List.of();
 
     public Question() {}
 
@@ -18,6 +22,11 @@ public class Question {
         this.required = required;
     }
 
+    public Question(String id, String text, QuestionType type, boolean required, List<String> options) {
+        this(id, text, type, required);
+        this.options = List.copyOf(options);
+    }
+
     public String getId() {
         return id;
     }
@@ -50,6 +59,14 @@ public class Question {
         this.required = required;
     }
 
+    public List<String> getOptions() {
+        return options;
+    }
+
+    public void setOptions(List<String> options) {
+        this.options = List.copyOf(options);
+    }
+
     public enum QuestionType {
         YES_NO,
         TEXT,
@@ -0,0 +1,36 @@
+package com.prescriptionservice.models.entity;
+
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Random (version 4) UUID generation that does not pin virtual threads.
+ * {@link UUID#randomUUID()} draws from one shared SecureRandom that can pin its carrier thread on every ID; the
+ * bytes come from {@link DrbgStripes} instead.
+ * Use this generator when consultation IDs must carry no timestamp.
+ */
+public final class RandomUuidGenerator implements ConsultationIdGenerator {
+    
+    private final DrbgStripes random = new DrbgStripes();
+    
+    @Override
+    public String next() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        
+        bytes[6] = (byte) ((bytes[6] & 0x0F) | 0x40);  // version 4
+        bytes[8] = (byte) ((bytes[8] & 0x3F) | 0x80);  // IETF variant
+        long mostSignificant = 0;
+        long leastSignificant = 0;
+        for (int i = 0; i < 8; i++) {
+            mostSignificant = (mostSignificant << 8) | (bytes[i] & 0xFF);
+            leastSignificant = (leastSignificant << 8) | (bytes[i + 8] & 0xFF);
+        }
+        return new UUID(mostSignificant, leastSignificant).toString();
+    }
+    
+    @Override
+    public OptionalLong timestampMillis(String id) {
+        return OptionalLong.empty();
+    }
+}
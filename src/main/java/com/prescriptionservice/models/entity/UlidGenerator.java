@@ -0,0 +1,105 @@
+package com.prescriptionservice.models.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.Arrays;
+import java.util.OptionalLong;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates monotonic ULIDs: 26 Crockford base32 characters encoding a 48-bit millisecond timestamp followed by
+ * 80 bits that order IDs within the same millisecond and keep instances from colliding. IDs sort by creation
+ * time, so they index well in ordered stores, and the timestamp is read back from the first 10 characters.
+ *
+ * The upper 64 bits (timestamp and a 16-bit counter) are advanced with a single compare-and-set, so IDs from one
+ * instance are strictly increasing without locking. The counter starts at a random value below 2^15 in each new
+ * millisecond; bursts of more than 2^15 IDs in one millisecond carry into the timestamp, which briefly runs ahead
+ * of the clock, as does a clock that steps backwards. The lower 64 bits are random, so two instances only collide
+ * if they pick the same millisecond, counter and 64-bit value. They come from {@link DrbgStripes}, so they cannot
+ * be predicted from IDs seen before, and knowing a consultation's creation time is not enough to guess its ID.
+ * The counter's start only spreads IDs within a millisecond and is taken from {@link ThreadLocalRandom}.
+ */
+public final class UlidGenerator implements ConsultationIdGenerator {
+
+    static final int LENGTH = 26;
+    private static final int TIMESTAMP_CHARS = 10;
+    private static final int COUNTER_BITS = 16;
+    private static final int COUNTER_START_BOUND = 1 << (COUNTER_BITS - 1);
+    private static final byte[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DECODING = decodingTable();
+
+    private final Clock clock;
+    private final AtomicLong lastHigh = new AtomicLong();
+    private final DrbgStripes random = new DrbgStripes();
+
+    public UlidGenerator(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public String next() {
+        long now = clock.millis();
+        long high;
+        long last;
+        do {
+            last = lastHigh.get();
+            high = (last >>> COUNTER_BITS) < now
+                    ? (now << COUNTER_BITS) | ThreadLocalRandom.current().nextInt(COUNTER_START_BOUND)
+                    : last + 1;
+        } while (!lastHigh.compareAndSet(last, high));
+        return encode(high, random.nextLong());
+    }
+
+    @Override
+    public OptionalLong timestampMillis(String id) {
+        if (id == null || id.length() != LENGTH) {
+            return OptionalLong.empty();
+        }
+        long timestamp = 0;
+        for (int i = 0; i < TIMESTAMP_CHARS; i++) {
+            int value = decode(id.charAt(i));
+            // The first character only carries the top 3 of the 128 bits
+            if (value < 0 || (i == 0 && value > 7)) {
+                return OptionalLong.empty();
+            }
+            timestamp = (timestamp << 5) | value;
+        }
+        return OptionalLong.of(timestamp);
+    }
+
+    static String encode(long high, long low) {
+        byte[] chars = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            chars[i] = ENCODING[fiveBits(high, low, 5 * (LENGTH - 1 - i))];
+        }
+        return new String(chars, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Returns the 5 bits of the 128-bit value {@code high:low} starting at bit {@code shift}.
+     */
+    private static int fiveBits(long high, long low, int shift) {
+        if (shift >= Long.SIZE) {
+            return (int) (high >>> (shift - Long.SIZE)) & 0x1F;
+        }
+        if (shift + 5 <= Long.SIZE) {
+            return (int) (low >>> shift) & 0x1F;
+        }
+        return (int) ((low >>> shift) | (high << (Long.SIZE - shift))) & 0x1F;
+    }
+
+    private static int decode(char c) {
+        return c < DECODING.length ? DECODING[c] : -1;
+    }
+
+    private static byte[] decodingTable() {
+        byte[] table = new byte[128];
+        Arrays.fill(table, (byte) -1);
+        for (int i = 0; i < ENCODING.length; i++) {
+            table[ENCODING[i]] = (byte) i;
+            table[Character.toLowerCase(ENCODING[i])] = (byte) i;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,160 @@
+package com.prescriptionservice.repositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.prescriptionservice.models.entity.EligibilityRules;
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.Question;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Reads the product and question catalog from JSON into an unpublished {@link CatalogSnapshot}.
+ * A catalog source is either a single file or a directory whose {@code *.json} files are read in parallel and merged;
+ * each file holds {@code questions} and {@code products} arrays in the entities' JSON form.
+ * The loaded catalog is validated as a whole: IDs must be unique across files and every question a product or its
+ * eligibility rules refer to must exist, so a broken edit is rejected instead of partially applied.
+ */
+public final class CatalogLoader {
+
+    /**
+     * Classpath location of the catalog used when no catalog path is configured.
+     */
+    public static final String DEFAULT_CATALOG = "/catalog/catalog.json";
+
+    private static final String CATALOG_FILE_SUFFIX = ".json";
+
+    private final ObjectReader reader = new ObjectMapper().readerFor(CatalogFile.class);
+
+    /**
+     * Loads the catalog bundled with the application.
+     *
+     * @return The catalog, at version 0
+     * @throws IOException if the bundled catalog cannot be read
+     */
+    public CatalogSnapshot loadDefault() throws IOException {
+        try (InputStream in = CatalogLoader.class.getResourceAsStream(DEFAULT_CATALOG)) {
+            if (in == null) {
+                throw new IOException("Bundled catalog " + DEFAULT_CATALOG + " is missing");
+            }
+            CatalogFile file = reader.readValue(in);
+            return validate(file.questions(), file.products());
+        }
+    }
+
+    /**
+     * Loads the catalog from a file, or from every JSON file in a directory.
+     *
+     * @param path The catalog file or directory
+     * @return The catalog, at version 0
+     * @throws IOException if a file cannot be read or parsed
+     * @throws IllegalArgumentException if the catalog is inconsistent
+     */
+    public CatalogSnapshot load(Path path) throws IOException {
+        List<Path> files = Files.isDirectory(path) ? catalogFiles(path) : List.of(path);
+        List<CatalogFile> parsed;
+        try {
+            parsed = files.parallelStream()
+                    .map(this::read)
+                    .toList();
+        } catch (UncheckedIOException e) {
+            throw new IOException(e.getMessage(), e.getCause());
+        }
+
+        int questionCount = 0;
+        int productCount = 0;
+        for (CatalogFile file : parsed) {
+            questionCount += file.questions().size();
+            productCount += file.products().size();
+        }
+        List<Question> questions = new ArrayList<>(questionCount);
+        List<Product> products = new ArrayList<>(productCount);
+        for (CatalogFile file : parsed) {
+            questions.addAll(file.questions());
+            products.addAll(file.products());
+        }
+        return validate(questions, products);
+    }
+
+    /**
+     * Returns whether a file belongs to a catalog directory.
+     */
+    static boolean isCatalogFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(CATALOG_FILE_SUFFIX) && !name.startsWith(".");
+    }
+
+    private static List<Path> catalogFiles(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries
+                    .filter(file -> Files.isRegularFile(file) && isCatalogFile(file))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private CatalogFile read(Path file) {
+        try (InputStream in = Files.newInputStream(file)) {
+            return reader.readValue(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read catalog file " + file, e);
+        }
+    }
+
+    private static CatalogSnapshot validate(List<Question> questions, List<Product> products) {
+        for (Question question : questions) {
+            if (question.getId() == null || question.getType() == null) {
+                throw new IllegalArgumentException("Every question needs an id and a type");
+            }
+        }
+        for (Product product : products) {
+            if (product.getId() == null || product.getQuestionIds() == null) {
+                throw new IllegalArgumentException("Every product needs an id and questionIds");
+            }
+        }
+        CatalogSnapshot snapshot = CatalogSnapshot.of(0, products, questions);
+        for (Product product : products) {
+            requireQuestions(snapshot, product, product.getQuestionIds());
+            EligibilityRules rules = product.getEligibilityRules();
+            if (rules != null) {
+                requireQuestions(snapshot, product, rules.getVetoQuestionIds());
+                requireQuestions(snapshot, product, rules.getSymptomQuestionIds());
+            }
+        }
+        return snapshot;
+    }
+
+    private static void requireQuestions(CatalogSnapshot snapshot, Product product, List<String> questionIds) {
+        if (questionIds == null) {
+            return;
+        }
+        Set<String> seen = new HashSet<>();
+        for (String questionId : questionIds) {
+            if (snapshot.question(questionId) == null) {
+                throw new IllegalArgumentException("Product " + product.getId() + " refers to unknown question " + questionId);
+            }
+            if (!seen.add(questionId)) {
+                throw new IllegalArgumentException("Product " + product.getId() + " lists question " + questionId + " twice");
+            }
+        }
+    }
+
+    /**
+     * Contents of one catalog file.
+     */
+    record CatalogFile(List<Question> questions, List<Product> products) {
+        CatalogFile {
+            questions = questions == null ? List.of() : questions;
+            products = products == null ? List.of() : products;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.prescriptionservice.repositories;
+
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
+import com.prescriptionservice.models.entity.Question;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, indexed view of the whole product and question catalog at one catalog version.
+ * Each product's questions are resolved into a {@link ProductQuestionIndex} when the snapshot is built, so the
+ * ordinals and questions of a product are fixed for the snapshot's version and looking them up costs nothing.
+ * Snapshots are never modified once published: a reload or a save builds a new one and swaps it in, so a reader
+ * holding a snapshot keeps a consistent catalog for as long as it needs, without locking.
+ */
+public final class CatalogSnapshot {
+
+    private final long version;
+    private final Map<String, Product> products;
+    private final Map<String, Question> questions;
+    private final List<Question> questionList;
+    private final Map<String, ProductQuestionIndex> questionIndexes;
+
+    private CatalogSnapshot(long version, Map<String, Product> products, Map<String, Question> questions,
+                            List<Question> questionList, Map<String, ProductQuestionIndex> questionIndexes) {
+        this.version = version;
+        this.products = products;
+        this.questions = questions;
+        this.questionList = questionList;
+        this.questionIndexes = questionIndexes;
+    }
+
+    /**
+     * Indexes products and questions by ID.
+     *
+     * @param version The catalog version of the snapshot
+     * @param products The products
+     * @param questions The questions
+     * @return The snapshot
+     * @throws IllegalArgumentException if two products or two questions share an ID
+     */
+    public static CatalogSnapshot of(long version, Collection<Product> products, Collection<Question> questions) {
+        Map<String, Product> productsById = HashMap.newHashMap(products.size());
+        for (Product product : products) {
+            if (productsById.putIfAbsent(product.getId(), product) != null) {
+                throw new IllegalArgumentException("Duplicate product " + product.getId());
+            }
+        }
+        Map<String, Question> questionsById = HashMap.newHashMap(questions.size());
+        for (Question question : questions) {
+            if (questionsById.putIfAbsent(question.getId(), question) != null) {
+                throw new IllegalArgumentException("Duplicate question " + question.getId());
+            }
+        }
+        Map<String, ProductQuestionIndex> questionIndexes = HashMap.newHashMap(productsById.size());
+        for (Product product : productsById.values()) {
+            questionIndexes.put(product.getId(), resolve(product, questionsById));
+        }
+        return new CatalogSnapshot(version, productsById, questionsById, List.copyOf(questions), questionIndexes);
+    }
+
+    private static ProductQuestionIndex resolve(Product product, Map<String, Question> questionsById) {
+        List<String> questionIds = product.getQuestionIds() == null ? List.of() : product.getQuestionIds();
+        return ProductQuestionIndex.resolve(questionIds, questionsById::get);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Product product(String id) {
+        return products.get(id);
+    }
+
+    public Question question(String id) {
+        return questions.get(id);
+    }
+
+    public List<Question> questions() {
+        return questionList;
+    }
+
+    /**
+     * Returns the resolved questions of a product.
+     *
+     * @param productId The product ID
+     * @return The product's question index, or null if the product does not exist
+     */
+    public ProductQuestionIndex questionIndex(String productId) {
+        return questionIndexes.get(productId);
+    }
+
+    public int productCount() {
+        return products.size();
+    }
+
+    /**
+     * Returns this catalog under another version, sharing the indexes.
+     */
+    CatalogSnapshot withVersion(long newVersion) {
+        return new CatalogSnapshot(newVersion, products, questions, questionList, questionIndexes);
+    }
+
+    /**
+     * Returns a copy of this catalog with the product added or replaced.
+     */
+    CatalogSnapshot withProduct(long newVersion, Product product) {
+        Map<String, Product> copy = HashMap.newHashMap(products.size() + 1);
+        copy.putAll(products);
+        copy.put(product.getId(), product);
+        Map<String, ProductQuestionIndex> indexes = HashMap.newHashMap(questionIndexes.size() + 1);
+        indexes.putAll(questionIndexes);
+        indexes.put(product.getId(), resolve(product, questions));
+        return new CatalogSnapshot(newVersion, copy, questions, questionList, indexes);
+    }
+
+    /**
+     * Returns a copy of this catalog with the question added or replaced, keeping the question order.
+     * Only the products asking the question are resolved again.
+     */
+    CatalogSnapshot withQuestion(long newVersion, Question question) {
+        Map<String, Question> copy = HashMap.newHashMap(questions.size() + 1);
+        copy.putAll(questions);
+        Question replaced = copy.put(question.getId(), question);
+        List<Question> list = new ArrayList<>(questionList.size() + 1);
+        for (Question existing : questionList) {
+            list.add(existing == replaced ? question : existing);
+        }
+        if (replaced == null) {
+            list.add(question);
+        }
+        Map<String, ProductQuestionIndex> indexes = HashMap.newHashMap(questionIndexes.size());
+        for (Product product : products.values()) {
+            ProductQuestionIndex index = questionIndexes.get(product.getId());
+            indexes.put(product.getId(), index.ordinalOf(question.getId()) >= 0 ? resolve(product, copy) : index);
+        }
+        return new CatalogSnapshot(newVersion, products, copy, List.copyOf(list), indexes);
+    }
+}
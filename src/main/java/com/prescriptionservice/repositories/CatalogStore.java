@@ -0,0 +1,103 @@
+package com.prescriptionservice.repositories;
+
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.Question;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link CatalogSnapshot} that the product and question repositories read from.
+ * The catalog is loaded at startup from {@code consultations.catalog.path}, a JSON file or a directory of them,
+ * or from the bundled catalog when no path is configured. Reloads and saves build a new snapshot and publish it with
+ * a single volatile write, so readers never lock and keep whichever snapshot they already hold. Writers are
+ * serialized, and each published snapshot is followed by a {@link CatalogVersion} increment so derived caches,
+ * which read the version before the catalog, rebuild their entries.
+ */
+@Component
+public class CatalogStore {
+
+    private final CatalogVersion catalogVersion;
+    private final Path path;
+    private final CatalogLoader loader = new CatalogLoader();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile CatalogSnapshot snapshot = CatalogSnapshot.of(0, List.of(), List.of());
+
+    @Autowired
+    public CatalogStore(CatalogVersion catalogVersion, @Value("${consultations.catalog.path:}") String path) {
+        this.catalogVersion = catalogVersion;
+        this.path = path.isBlank() ? null : Path.of(path);
+    }
+
+    @PostConstruct
+    public void initializeCatalog() throws IOException {
+        reload();
+    }
+
+    /**
+     * Returns the current catalog.
+     *
+     * @return The latest published snapshot
+     */
+    public CatalogSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Returns the configured catalog file or directory.
+     *
+     * @return The catalog path, or null when the bundled catalog is used
+     */
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Loads the catalog from its source and publishes it. The current catalog is kept if loading fails.
+     *
+     * @return The published snapshot
+     * @throws IOException if the catalog cannot be read or parsed
+     * @throws IllegalArgumentException if the catalog is inconsistent
+     */
+    public CatalogSnapshot reload() throws IOException {
+        CatalogSnapshot loaded = path == null ? loader.loadDefault() : loader.load(path);
+        writeLock.lock();
+        try {
+            return publish(loaded.withVersion(catalogVersion.current() + 1));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    Product save(Product product) {
+        writeLock.lock();
+        try {
+            publish(snapshot.withProduct(catalogVersion.current() + 1, product));
+            return product;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    Question save(Question question) {
+        writeLock.lock();
+        try {
+            publish(snapshot.withQuestion(catalogVersion.current() + 1, question));
+            return question;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private CatalogSnapshot publish(CatalogSnapshot next) {
+        snapshot = next;
+        catalogVersion.increment();
+        return next;
+    }
+}
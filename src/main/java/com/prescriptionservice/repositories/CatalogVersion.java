@@ -0,0 +1,33 @@
+package com.prescriptionservice.repositories;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the product and question catalog.
+ * Incremented whenever a product or question is saved, or the catalog is reloaded, so that derived caches can detect stale entries.
+ */
+@Component
+public class CatalogVersion {
+    
+    private final AtomicLong version = new AtomicLong();
+    
+    /**
+     * Returns the current catalog version.
+     * 
+     * @return The current version
+     */
+    public long current() {
+        return version.get();
+    }
+    
+    /**
+     * Marks the catalog as changed.
+     * 
+     * @return The new version
+     */
+    public long increment() {
+        return version.incrementAndGet();
+    }
+}
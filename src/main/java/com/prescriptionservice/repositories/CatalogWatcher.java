@@ -0,0 +1,140 @@
+package com.prescriptionservice.repositories;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the catalog when its file, or a JSON file in its directory, changes.
+ * Changes arriving within {@code reload-delay} of each other are batched into one reload, so an editor saving a file
+ * in several writes or a deployment copying many files triggers a single reload once it has finished.
+ * A reload that fails keeps the current catalog in place and is retried on the next change.
+ * Nothing is watched when the bundled catalog is used or {@code consultations.catalog.watch} is false.
+ */
+@Component
+public class CatalogWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogWatcher.class);
+
+    private final CatalogStore catalogStore;
+    private final boolean enabled;
+    private final long reloadDelayMillis;
+    private final Timer reloads;
+    private final Counter failedReloads;
+    private WatchService watchService;
+    private Thread watcher;
+
+    @Autowired
+    public CatalogWatcher(
+            CatalogStore catalogStore,
+            MeterRegistry meterRegistry,
+            @Value("${consultations.catalog.watch:true}") boolean enabled,
+            @Value("${consultations.catalog.reload-delay:500ms}") Duration reloadDelay) {
+        this.catalogStore = catalogStore;
+        this.enabled = enabled;
+        this.reloadDelayMillis = reloadDelay.toMillis();
+
+        Gauge.builder("consultations.catalog.version", catalogStore, store -> store.snapshot().version())
+                .description("Version of the product and question catalog in use")
+                .register(meterRegistry);
+        this.reloads = Timer.builder("consultations.catalog.reloads")
+                .description("Time taken to load and publish a changed catalog")
+                .register(meterRegistry);
+        this.failedReloads = Counter.builder("consultations.catalog.reload.failures")
+                .description("Catalog reloads rejected because the catalog could not be read or was inconsistent")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startWatching() throws IOException {
+        Path path = catalogStore.path();
+        if (!enabled || path == null) {
+            return;
+        }
+        Path directory = Files.isDirectory(path) ? path : path.toAbsolutePath().getParent();
+        Path file = Files.isDirectory(path) ? null : path.getFileName();
+        watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        watcher = new Thread(() -> watch(file), "catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @PreDestroy
+    public void stopWatching() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Waits for changes until the watch service is closed.
+     *
+     * @param file The watched catalog file name, or null to react to any catalog file in the directory
+     */
+    private void watch(Path file) {
+        try {
+            while (true) {
+                if (!isCatalogChange(watchService.take(), file)) {
+                    continue;
+                }
+                // Let the burst of changes settle before reading the catalog
+                WatchKey next;
+                while ((next = watchService.poll(reloadDelayMillis, TimeUnit.MILLISECONDS)) != null) {
+                    isCatalogChange(next, file);
+                }
+                reload();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Shutting down
+        }
+    }
+
+    private static boolean isCatalogChange(WatchKey key, Path file) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                changed = true;
+            } else if (event.context() instanceof Path changedFile) {
+                changed |= file == null ? CatalogLoader.isCatalogFile(changedFile) : file.equals(changedFile);
+            }
+        }
+        key.reset();
+        return changed;
+    }
+
+    void reload() {
+        long start = System.nanoTime();
+        try {
+            CatalogSnapshot snapshot = catalogStore.reload();
+            reloads.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("Reloaded catalog from {}: {} products, {} questions, version {}", catalogStore.path(),
+                    snapshot.productCount(), snapshot.questions().size(), snapshot.version());
+        } catch (IOException | RuntimeException e) {
+            failedReloads.increment();
+            log.warn("Keeping catalog version {}; reloading {} failed: {}", catalogStore.snapshot().version(),
+                    catalogStore.path(), e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.prescriptionservice.repositories;
 
 import com.prescriptionservice.models.entity.Consultation;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -17,6 +18,18 @@ public interface ConsultationRepository {
      */
     Consultation save(Consultation consultation);
     
+    /**
+     * Saves several consultations in one write.
+     * Implementations that pay a per-write cost (locking, flushing) should override this to pay it once.
+     * 
+     * @param consultations The consultations to save
+     * @return The saved consultations
+     */
+    default List<Consultation> saveAll(List<Consultation> consultations) {
+        consultations.forEach(this::save);
+        return consultations;
+    }
+    
     /**
      * Finds a consultation by its ID.
      * 
@@ -24,4 +37,16 @@ public interface ConsultationRepository {
      * @return Optional containing the consultation if found
      */
     Optional<Consultation> findById(String id);
+    
+    /**
+     * Finds a page of a patient's consultations, newest first.
+     * Pages are read from a per-patient index ordered by creation time, so a page costs time proportional to its
+     * size rather than to the number of stored consultations.
+     * 
+     * @param patientId The patient ID
+     * @param after The position of the last consultation of the previous page, or null for the first page
+     * @param limit Maximum number of consultations to return
+     * @return Up to {@code limit} consultations following {@code after}
+     */
+    List<Consultation> findByPatientId(String patientId, HistoryPosition after, int limit);
 }
\ No newline at end of file
@@ -1,28 +1,278 @@
 package com.prescriptionservice.repositories;
 
+import com.prescriptionservice.exceptions.ConsultationCapacityExceededException;
 import com.prescriptionservice.models.entity.Consultation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * In-memory implementation of ConsultationRepository using HashMap storage.
  * Thread-safe implementation suitable for concurrent access.
+ * PENDING consultations that are not touched for the configured TTL are expired by a background sweeper
+ * driven by a hierarchical timing wheel, and the number of PENDING consultations is capped. Completed
+ * consultations do not count against the cap and are kept for patient histories, unless a retention TTL is set
+ * for them, in which case they are expired once it passes. Kept completed consultations are not bounded.
+ * A {@link PatientConsultationIndex} kept alongside the map serves patient histories.
+ * This is the default store; {@code consultations.store.type=log} selects the durable log-backed one instead.
  */
 @Repository
+@ConditionalOnProperty(name = "consultations.store.type", havingValue = "memory", matchIfMissing = true)
 public class ConsultationRepositoryImpl implements ConsultationRepository {
-    
+
+    /**
+     * What to do when a new consultation would exceed the capacity.
+     */
+    public enum CapacityPolicy {
+        /** Evict the oldest consultation still PENDING, rejecting the new one if there is none. */
+        EVICT_OLDEST_PENDING,
+        /** Reject the new consultation. */
+        REJECT_NEW
+    }
+
     private final Map<String, Consultation> consultations = new ConcurrentHashMap<>();
-    
+    private final AtomicInteger size = new AtomicInteger();
+    // IDs of the consultations that count against the capacity
+    private final Set<String> pendingIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final PatientConsultationIndex patientIndex = new PatientConsultationIndex();
+    // Consultation IDs in insertion order, used to pick capacity eviction candidates
+    private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+    // New consultation IDs waiting to be scheduled on the wheel, which only the sweeper thread touches
+    private final Queue<String> unscheduled = new ConcurrentLinkedQueue<>();
+    private final TimingWheel<String> expiryWheel;
+    private final Clock clock;
+    private final long ttlMillis;
+    private final long completedTtlMillis;
+    private final long expiryTickMillis;
+    private final int maxSize;
+    private final CapacityPolicy capacityPolicy;
+    private final Counter expiredEvictions;
+    private final Counter capacityEvictions;
+    private final Timer expiryLag;
+    private ScheduledExecutorService sweeper;
+
+    @Autowired
+    public ConsultationRepositoryImpl(
+            MeterRegistry meterRegistry,
+            @Value("${consultations.store.ttl:30m}") Duration ttl,
+            @Value("${consultations.store.completed-ttl:0}") Duration completedTtl,
+            @Value("${consultations.store.max-size:100000}") int maxSize,
+            @Value("${consultations.store.capacity-policy:EVICT_OLDEST_PENDING}") CapacityPolicy capacityPolicy,
+            @Value("${consultations.store.expiry-tick:1s}") Duration expiryTick) {
+        this(meterRegistry, ttl, completedTtl, maxSize, capacityPolicy, expiryTick, Clock.systemUTC());
+    }
+
+    ConsultationRepositoryImpl(MeterRegistry meterRegistry, Duration ttl, Duration completedTtl, int maxSize,
+                               CapacityPolicy capacityPolicy, Duration expiryTick, Clock clock) {
+        this.clock = clock;
+        this.ttlMillis = ttl.toMillis();
+        this.completedTtlMillis = completedTtl.toMillis();
+        this.expiryTickMillis = expiryTick.toMillis();
+        this.maxSize = maxSize;
+        this.capacityPolicy = capacityPolicy;
+        this.expiryWheel = new TimingWheel<>(expiryTickMillis, clock.millis());
+
+        Gauge.builder("consultations.live", size, AtomicInteger::get)
+                .description("Consultations currently stored")
+                .register(meterRegistry);
+        this.expiredEvictions = Counter.builder("consultations.evictions")
+                .description("Consultations removed from the store")
+                .tag("reason", "expired")
+                .register(meterRegistry);
+        this.capacityEvictions = Counter.builder("consultations.evictions")
+                .description("Consultations removed from the store")
+                .tag("reason", "capacity")
+                .register(meterRegistry);
+        this.expiryLag = Timer.builder("consultations.expiry.lag")
+                .description("Delay between a consultation's expiry deadline and its removal")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startSweeper() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "consultation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::expireStaleConsultations, expiryTickMillis, expiryTickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stopSweeper() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
     @Override
     public Consultation save(Consultation consultation) {
-        consultations.put(consultation.getId(), consultation);
+        long now = clock.millis();
+        if (consultation.getCreatedAt() == 0) {
+            consultation.setCreatedAt(now);
+        }
+        consultation.setLastTouchedAt(now);
+
+        boolean pending = isPending(consultation);
+        if (consultations.put(consultation.getId(), consultation) == null) {
+            patientIndex.add(consultation.getPatientId(), HistoryPosition.of(consultation));
+            size.incrementAndGet();
+            if (pending) {
+                trackPending(consultation.getId(), true);
+                if (pendingCount.get() > maxSize && !evictForCapacity()) {
+                    if (remove(consultation.getId(), consultation)) {
+                        size.decrementAndGet();
+                    }
+                    throw new ConsultationCapacityExceededException(maxSize);
+                }
+                insertionOrder.add(consultation.getId());
+            }
+            unscheduled.add(consultation.getId());
+        } else {
+            trackPending(consultation.getId(), pending);
+        }
         return consultation;
     }
-    
+
     @Override
     public Optional<Consultation> findById(String id) {
-        return Optional.ofNullable(consultations.get(id));
+        Consultation consultation = consultations.get(id);
+        if (consultation == null) {
+            return Optional.empty();
+        }
+        consultation.setLastTouchedAt(clock.millis());
+        return Optional.of(consultation);
+    }
+
+    /**
+     * Reads the page from the patient index. Listing a history does not count as touching its consultations.
+     */
+    @Override
+    public List<Consultation> findByPatientId(String patientId, HistoryPosition after, int limit) {
+        return patientIndex.page(patientId, after, limit, position -> {
+            Consultation consultation = consultations.get(position.consultationId());
+            return consultation != null && patientId.equals(consultation.getPatientId()) ? consultation : null;
+        });
+    }
+
+    /**
+     * Removes consultations whose TTL has elapsed since they were last touched: the TTL for PENDING ones and
+     * the completed TTL for the others. Runs on the sweeper thread; only the keys due on the timing wheel
+     * are inspected.
+     */
+    void expireStaleConsultations() {
+        String id;
+        while ((id = unscheduled.poll()) != null) {
+            Consultation consultation = consultations.get(id);
+            long deadline = consultation == null ? Long.MAX_VALUE : expiryDeadline(consultation);
+            if (deadline != Long.MAX_VALUE) {
+                expiryWheel.schedule(id, deadline);
+            }
+        }
+
+        long now = clock.millis();
+        for (String dueId : expiryWheel.advance(now)) {
+            Consultation consultation = consultations.get(dueId);
+            if (consultation == null) {
+                continue;
+            }
+            long deadline = expiryDeadline(consultation);
+            if (deadline == Long.MAX_VALUE) {
+                continue;
+            }
+            if (deadline > now) {
+                // Touched or completed since it was scheduled
+                expiryWheel.schedule(dueId, deadline);
+            } else if (remove(dueId, consultation)) {
+                size.decrementAndGet();
+                expiredEvictions.increment();
+                expiryLag.record(now - deadline, TimeUnit.MILLISECONDS);
+            }
+        }
+        trimInsertionOrder();
+    }
+
+    /**
+     * Returns when a consultation expires, or Long.MAX_VALUE if completed consultations are kept forever.
+     */
+    private long expiryDeadline(Consultation consultation) {
+        if (isPending(consultation)) {
+            return consultation.getLastTouchedAt() + ttlMillis;
+        }
+        return completedTtlMillis > 0 ? consultation.getLastTouchedAt() + completedTtlMillis : Long.MAX_VALUE;
+    }
+
+    /**
+     * Drops IDs at the head of the insertion queue that can no longer be evicted, so the queue stays
+     * proportional to the number of PENDING consultations.
+     */
+    private void trimInsertionOrder() {
+        String head;
+        while ((head = insertionOrder.peek()) != null && !isPending(consultations.get(head))) {
+            insertionOrder.remove(head);
+        }
+    }
+
+    private boolean evictForCapacity() {
+        if (capacityPolicy == CapacityPolicy.REJECT_NEW) {
+            return false;
+        }
+        String id;
+        while ((id = insertionOrder.poll()) != null) {
+            Consultation candidate = consultations.get(id);
+            if (isPending(candidate) && remove(id, candidate)) {
+                size.decrementAndGet();
+                capacityEvictions.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a consultation if it is still the one stored under its ID, then drops it from the patient index.
+     */
+    private boolean remove(String id, Consultation consultation) {
+        if (!consultations.remove(id, consultation)) {
+            return false;
+        }
+        trackPending(id, false);
+        patientIndex.remove(consultation.getPatientId(), HistoryPosition.of(consultation));
+        return true;
+    }
+
+    /**
+     * Counts or stops counting a consultation against the capacity as its status moves to or from PENDING.
+     */
+    private void trackPending(String id, boolean pending) {
+        if (pending ? pendingIds.add(id) : pendingIds.remove(id)) {
+            pendingCount.addAndGet(pending ? 1 : -1);
+        }
+    }
+
+    private static boolean isPending(Consultation consultation) {
+        return consultation != null && consultation.getEligibilityStatus() == Consultation.EligibilityStatus.PENDING;
     }
-}
\ No newline at end of file
+}
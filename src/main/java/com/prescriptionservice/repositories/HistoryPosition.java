@@ -0,0 +1,32 @@
+package com.prescriptionservice.repositories;
+
+import com.prescriptionservice.models.entity.Consultation;
+
+import java.util.Comparator;
+
+/**
+ * Position of a consultation in its patient's history. Histories are ordered newest first, by creation time and
+ * then by consultation ID, so consultations created in the same millisecond still have a stable order.
+ *
+ * @param createdAt The consultation's creation time, in epoch milliseconds
+ * @param consultationId The consultation ID
+ */
+public record HistoryPosition(long createdAt, String consultationId) {
+
+    /**
+     * Orders positions newest first.
+     */
+    public static final Comparator<HistoryPosition> NEWEST_FIRST = Comparator
+            .comparingLong(HistoryPosition::createdAt).reversed()
+            .thenComparing(HistoryPosition::consultationId, Comparator.reverseOrder());
+
+    /**
+     * Gets the position of a consultation. Its creation time must already be set.
+     *
+     * @param consultation The consultation
+     * @return The consultation's position
+     */
+    public static HistoryPosition of(Consultation consultation) {
+        return new HistoryPosition(consultation.getCreatedAt(), consultation.getId());
+    }
+}
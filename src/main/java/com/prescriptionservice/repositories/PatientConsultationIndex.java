@@ -0,0 +1,92 @@
+package com.prescriptionservice.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Secondary index from patient ID to the positions of the patient's consultations, newest first.
+ * Each patient has a concurrent skip list, so a page is read by seeking to the cursor and walking forward:
+ * it costs O(log n + page size) for a patient with n consultations, whatever the size of the store.
+ * Adding and removing run inside the patient's map entry update, so a patient's list is never dropped while
+ * another thread adds to it, and lists are removed once empty. Readers take no lock.
+ * Stores update the index after the consultation itself and remove from it after removing the consultation,
+ * and resolve every indexed position against the store when reading, skipping the ones that are gone.
+ */
+public final class PatientConsultationIndex {
+
+    private final Map<String, NavigableSet<HistoryPosition>> byPatient = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a consultation to its patient's history. Adding a position that is already indexed has no effect.
+     *
+     * @param patientId The patient ID; consultations without a patient are not indexed
+     * @param position The consultation's position
+     */
+    public void add(String patientId, HistoryPosition position) {
+        if (patientId == null) {
+            return;
+        }
+        byPatient.compute(patientId, (id, positions) -> {
+            NavigableSet<HistoryPosition> target = positions != null
+                    ? positions
+                    : new ConcurrentSkipListSet<>(HistoryPosition.NEWEST_FIRST);
+            target.add(position);
+            return target;
+        });
+    }
+
+    /**
+     * Removes a consultation from its patient's history.
+     *
+     * @param patientId The patient ID
+     * @param position The consultation's position
+     */
+    public void remove(String patientId, HistoryPosition position) {
+        if (patientId == null) {
+            return;
+        }
+        byPatient.computeIfPresent(patientId, (id, positions) -> {
+            positions.remove(position);
+            return positions.isEmpty() ? null : positions;
+        });
+    }
+
+    /**
+     * Reads a page of a patient's history, newest first.
+     *
+     * @param patientId The patient ID
+     * @param after The position of the last consultation of the previous page, or null for the first page
+     * @param limit Maximum number of consultations to return
+     * @param resolver Looks up the consultation at a position, returning null if it is no longer stored
+     * @return Up to {@code limit} resolved consultations following {@code after}
+     */
+    public <T> List<T> page(String patientId, HistoryPosition after, int limit, Function<HistoryPosition, T> resolver) {
+        NavigableSet<HistoryPosition> positions = byPatient.get(patientId);
+        if (positions == null || limit <= 0) {
+            return List.of();
+        }
+        List<T> page = new ArrayList<>(Math.min(limit, 64));
+        for (HistoryPosition position : after == null ? positions : positions.tailSet(after, false)) {
+            T resolved = resolver.apply(position);
+            if (resolved != null) {
+                page.add(resolved);
+                if (page.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Removes every entry, e.g. when the store is closed.
+     */
+    public void clear() {
+        byPatient.clear();
+    }
+}
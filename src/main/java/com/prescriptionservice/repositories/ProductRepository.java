@@ -16,4 +16,12 @@ public interface ProductRepository {
      * @return Optional containing the product if found
      */
     Optional<Product> findById(String id);
+    
+    /**
+     * Saves a product to storage, changing the catalog version.
+     * 
+     * @param product The product to save
+     * @return The saved product
+     */
+    Product save(Product product);
 }
\ No newline at end of file
@@ -1,37 +1,31 @@
 package com.prescriptionservice.repositories;
 
 import com.prescriptionservice.models.entity.Product;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import jakarta.annotation.PostConstruct;
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Optional;
 
 /**
- * In-memory implementation of ProductRepository using HashMap storage.
- * Initializes with predefined products and their associated question IDs.
+ * In-memory implementation of ProductRepository reading from the current catalog snapshot.
+ * Products, their associated question IDs and eligibility rules are loaded by the {@link CatalogStore}.
  */
 @Repository
 public class ProductRepositoryImpl implements ProductRepository {
     
-    private final Map<String, Product> products = new ConcurrentHashMap<>();
-    private static final String PEAR_ALLERGY_PRODUCT_ID = "pear-allergy";
+    private final CatalogStore catalogStore;
     
-    @PostConstruct
-    public void initializeProducts() {
-        List<String> pearAllergyQuestionIds = Arrays.asList("Q1", "Q2", "Q3", "Q4", "Q5");
-        
-        Product pearAllergyProduct = new Product(
-            PEAR_ALLERGY_PRODUCT_ID,
-            "Pear Allergy Treatment",
-            "Treatment for allergic reactions to pears and pear-derived products",
-            pearAllergyQuestionIds
-        );
-        
-        products.put(PEAR_ALLERGY_PRODUCT_ID, pearAllergyProduct);
+    @Autowired
+    public ProductRepositoryImpl(CatalogStore catalogStore) {
+        this.catalogStore = catalogStore;
     }
     
     @Override
     public Optional<Product> findById(String id) {
-        return Optional.ofNullable(products.get(id));
+        return Optional.ofNullable(catalogStore.snapshot().product(id));
+    }
+    
+    @Override
+    public Product save(Product product) {
+        return catalogStore.save(product);
     }
 }
\ No newline at end of file
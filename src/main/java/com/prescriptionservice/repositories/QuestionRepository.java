@@ -1,5 +1,7 @@
 package com.prescriptionservice.repositories;
 
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
 import com.prescriptionservice.models.entity.Question;
 import org.springframework.stereotype.Repository;
 import java.util.List;
@@ -20,6 +22,14 @@ public interface QuestionRepository {
      */
     List<Question> findByIds(List<String> questionIds);
     
+    /**
+     * Retrieves a product's questions indexed by their ordinal in the product.
+     * 
+     * @param product The product
+     * @return The product's resolved question index
+     */
+    ProductQuestionIndex findQuestionIndex(Product product);
+    
     /**
      * Retrieves all available consultation questions.
      * 
@@ -34,4 +44,12 @@ public interface QuestionRepository {
      * @return Optional containing the question if found
      */
     Optional<Question> findById(String id);
+    
+    /**
+     * Saves a question to storage, changing the catalog version.
+     * 
+     * @param question The question to save
+     * @return The saved question
+     */
+    Question save(Question question);
 }
\ No newline at end of file
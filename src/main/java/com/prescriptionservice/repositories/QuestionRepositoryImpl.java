@@ -1,49 +1,64 @@
 package com.prescriptionservice.repositories;
 
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
 import com.prescriptionservice.models.entity.Question;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
-import jakarta.annotation.PostConstruct;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
 /**
- * In-memory implementation of QuestionRepository using HashMap storage.
- * Initializes with reusable consultation questions that can be associated with multiple products.
+ * In-memory implementation of QuestionRepository reading from the current catalog snapshot.
+ * Reusable consultation questions, which can be associated with multiple products, are loaded by the {@link CatalogStore}.
  */
 @Repository
 public class QuestionRepositoryImpl implements QuestionRepository {
     
-    private final Map<String, Question> questions = new ConcurrentHashMap<>();
+    private final CatalogStore catalogStore;
     
-    @PostConstruct
-    public void initializeQuestions() {
-        addQuestion("Q1", "Do you experience nose itchiness when near pears?", Question.QuestionType.YES_NO, true);
-        addQuestion("Q2", "Have you ever sneezed uncontrollably in a fruit market?", Question.QuestionType.YES_NO, true);
-        addQuestion("Q3", "Does your throat feel scratchy after eating pear-flavored items?", Question.QuestionType.YES_NO, true);
-        addQuestion("Q4", "Do you avoid pear orchards during blooming season?", Question.QuestionType.YES_NO, false);
-        addQuestion("Q5", "Have you previously had an adverse reaction to allergy medication?", Question.QuestionType.YES_NO, true);
+    @Autowired
+    public QuestionRepositoryImpl(CatalogStore catalogStore) {
+        this.catalogStore = catalogStore;
     }
     
-    private void addQuestion(String id, String text, Question.QuestionType type, boolean required) {
-        questions.put(id, new Question(id, text, type, required));
+    @Override
+    public List<Question> findByIds(List<String> questionIds) {
+        CatalogSnapshot snapshot = catalogStore.snapshot();
+        List<Question> found = new ArrayList<>(questionIds.size());
+        for (String questionId : questionIds) {
+            Question question = snapshot.question(questionId);
+            if (question != null) {
+                found.add(question);
+            }
+        }
+        return found;
     }
     
+    /**
+     * Returns the index the catalog snapshot resolved for the product, resolving it only for a product object
+     * that is not the snapshot's own, e.g. one read before a reload or not saved yet.
+     */
     @Override
-    public List<Question> findByIds(List<String> questionIds) {
-        return questionIds.stream()
-                .map(questions::get)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
+    public ProductQuestionIndex findQuestionIndex(Product product) {
+        CatalogSnapshot snapshot = catalogStore.snapshot();
+        if (snapshot.product(product.getId()) == product) {
+            return snapshot.questionIndex(product.getId());
+        }
+        return ProductQuestionIndex.resolve(product.getQuestionIds(), snapshot::question);
     }
     
     @Override
     public List<Question> findAll() {
-        return new ArrayList<>(questions.values());
+        return catalogStore.snapshot().questions();
     }
     
     @Override
     public Optional<Question> findById(String id) {
-        return Optional.ofNullable(questions.get(id));
+        return Optional.ofNullable(catalogStore.snapshot().question(id));
+    }
+    
+    @Override
+    public Question save(Question question) {
+        return catalogStore.save(question);
     }
 }
\ No newline at end of file
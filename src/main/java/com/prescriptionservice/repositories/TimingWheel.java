@@ -0,0 +1,109 @@
+package com.prescriptionservice.repositories;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel used to schedule expiry checks without scanning the whole store.
+ * Each level has 64 slots; a slot on level n spans 64^n ticks, so four levels cover 64^4 ticks.
+ * Deadlines further away than that are clamped to the top level and simply re-checked when they fire.
+ * Not thread-safe: a single thread is expected to schedule and advance the wheel.
+ */
+final class TimingWheel<K> {
+    
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 4;
+    private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+    
+    private final long tickMillis;
+    private final List<List<Entry<K>>> buckets = new ArrayList<>(LEVELS * WHEEL_SIZE);
+    private long currentTick;
+    private int size;
+    
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        for (int i = 0; i < LEVELS * WHEEL_SIZE; i++) {
+            buckets.add(null);
+        }
+    }
+    
+    /**
+     * Schedules a key to be returned by {@link #advance(long)} once its deadline has passed.
+     * Deadlines that already passed fire on the next tick.
+     */
+    void schedule(K key, long deadlineMillis) {
+        long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        insert(new Entry<>(key, Math.min(tick, currentTick + MAX_DELTA)));
+        size++;
+    }
+    
+    /**
+     * Advances the wheel up to the given time.
+     * 
+     * @param nowMillis The current time
+     * @return The keys whose deadline has been reached, in deadline order
+     */
+    List<K> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<K> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    List<Entry<K>> cascaded = take(level, slotOf(currentTick, level));
+                    if (cascaded != null) {
+                        cascaded.forEach(this::insert);
+                    }
+                }
+            }
+            List<Entry<K>> due = take(0, slotOf(currentTick, 0));
+            if (due != null) {
+                for (Entry<K> entry : due) {
+                    expired.add(entry.key());
+                }
+                size -= due.size();
+            }
+        }
+        return expired;
+    }
+    
+    /**
+     * Returns the number of scheduled keys.
+     */
+    int size() {
+        return size;
+    }
+    
+    private void insert(Entry<K> entry) {
+        long delta = entry.tick() - currentTick;
+        int level = delta <= 0 ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(delta)) / WHEEL_BITS;
+        long tick = delta <= 0 ? currentTick : entry.tick();
+        int index = level * WHEEL_SIZE + slotOf(tick, level);
+        List<Entry<K>> bucket = buckets.get(index);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            buckets.set(index, bucket);
+        }
+        bucket.add(entry);
+    }
+    
+    private List<Entry<K>> take(int level, int slot) {
+        int index = level * WHEEL_SIZE + slot;
+        List<Entry<K>> bucket = buckets.get(index);
+        buckets.set(index, null);
+        return bucket;
+    }
+    
+    private static int slotOf(long tick, int level) {
+        return (int) ((tick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+    }
+    
+    private record Entry<K>(K key, long tick) {
+    }
+}
@@ -0,0 +1,179 @@
+package com.prescriptionservice.repositories.log;
+
+import com.prescriptionservice.models.entity.Answer;
+import com.prescriptionservice.models.entity.Consultation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary encoding of consultations as log records.
+ * A record is {@code [int payloadLength][int crc32c(payload)][payload]}; the payload starts with a format byte
+ * followed by the consultation ID, so the ID can be read without decoding the rest of the record.
+ * Records written in older formats stay readable. New statuses must be appended to the enum, as statuses are
+ * stored by ordinal.
+ */
+final class ConsultationRecordCodec {
+    
+    static final int HEADER_BYTES = 2 * Integer.BYTES;
+    
+    private static final byte FORMAT_VERSION = 2;
+    private static final Consultation.EligibilityStatus[] STATUSES = Consultation.EligibilityStatus.values();
+    
+    private ConsultationRecordCodec() {
+    }
+    
+    /**
+     * Encodes a consultation into a complete record, header included.
+     */
+    static byte[] encode(Consultation consultation) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0);
+            out.writeInt(0);
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(consultation.getId());
+            writeNullable(out, consultation.getPatientId());
+            writeNullable(out, consultation.getProductId());
+            out.writeLong(consultation.getQuestionSetVersion());
+            out.writeLong(consultation.getCreatedAt());
+            out.writeLong(consultation.getLastTouchedAt());
+            out.writeByte(consultation.getEligibilityStatus() == null ? -1 : consultation.getEligibilityStatus().ordinal());
+            out.writeBoolean(consultation.isEligible());
+            writeNullable(out, consultation.getEligibilityMessage());
+            List<Answer> answers = consultation.getAnswers();
+            out.writeInt(answers == null ? -1 : answers.size());
+            if (answers != null) {
+                for (Answer answer : answers) {
+                    writeNullable(out, answer.getQuestionId());
+                    writeNullable(out, answer.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        byte[] record = bytes.toByteArray();
+        int payloadLength = record.length - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(record, HEADER_BYTES, payloadLength);
+        writeInt(record, 0, payloadLength);
+        writeInt(record, Integer.BYTES, (int) crc.getValue());
+        return record;
+    }
+    
+    /**
+     * Decodes a record payload into a new consultation.
+     */
+    static Consultation decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            byte format = readFormat(in);
+            Consultation consultation = new Consultation();
+            consultation.setId(in.readUTF());
+            consultation.setPatientId(readNullable(in));
+            consultation.setProductId(readNullable(in));
+            consultation.setQuestionSetVersion(in.readLong());
+            consultation.setCreatedAt(in.readLong());
+            consultation.setLastTouchedAt(in.readLong());
+            int status = in.readByte();
+            consultation.setEligibilityStatus(status < 0 ? null : STATUSES[status]);
+            if (format >= 2) {
+                consultation.setEligible(in.readBoolean());
+                consultation.setEligibilityMessage(readNullable(in));
+            }
+            int answerCount = in.readInt();
+            if (answerCount >= 0) {
+                List<Answer> answers = new ArrayList<>(answerCount);
+                for (int i = 0; i < answerCount; i++) {
+                    answers.add(new Answer(readNullable(in), readNullable(in)));
+                }
+                consultation.setAnswers(answers);
+            }
+            return consultation;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Reads only the consultation ID of a record payload.
+     */
+    static String readId(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            readFormat(in);
+            return in.readUTF();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Reads only the fields of a record payload that identify the consultation, place it in its patient's
+     * history and tell whether it is being assessed, skipping the product and question-set version and stopping
+     * before the outcome and answers.
+     */
+    static Header readHeader(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            readFormat(in);
+            String id = in.readUTF();
+            String patientId = readNullable(in);
+            if (in.readBoolean()) {
+                in.skipBytes(in.readUnsignedShort());
+            }
+            in.readLong();
+            long createdAt = in.readLong();
+            in.readLong();
+            return new Header(id, patientId, createdAt, in.readByte() == Consultation.EligibilityStatus.ASSESSING.ordinal());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Checks a payload against the CRC stored in its record header.
+     */
+    static boolean isIntact(byte[] payload, int expectedCrc) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload, 0, payload.length);
+        return (int) crc.getValue() == expectedCrc;
+    }
+    
+    private static byte readFormat(DataInputStream in) throws IOException {
+        byte format = in.readByte();
+        if (format < 1 || format > FORMAT_VERSION) {
+            throw new IOException("Unsupported consultation record format " + format);
+        }
+        return format;
+    }
+    
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+    
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+    
+    private static void writeInt(byte[] target, int offset, int value) {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+    
+    /**
+     * The identifying fields of a record.
+     */
+    record Header(String id, String patientId, long createdAt, boolean assessing) {
+    }
+}
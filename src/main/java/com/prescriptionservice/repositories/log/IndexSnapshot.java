@@ -0,0 +1,126 @@
+package com.prescriptionservice.repositories.log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+
+/**
+ * Point-in-time copy of the consultation index (ID to record location, patient, creation time and whether it is
+ * being assessed), taken at a known log position. Recovery loads the snapshot and replays only the log written
+ * after that position; the patient and creation time let it rebuild patient histories, and the assessing flag find
+ * interrupted assessments, without reading the snapshotted records.
+ *
+ * @param segmentId Segment the snapshot position is in
+ * @param offset Offset within that segment up to which the log is covered
+ * @param ids Consultation IDs
+ * @param locations Record locations, parallel to {@code ids}
+ * @param patientIds Patient IDs, possibly null, parallel to {@code ids}
+ * @param createdAts Creation times, parallel to {@code ids}
+ * @param assessing Whether the record's status is ASSESSING, parallel to {@code ids}
+ */
+record IndexSnapshot(int segmentId, int offset, String[] ids, long[] locations, String[] patientIds, long[] createdAts,
+                     boolean[] assessing) {
+    
+    static final String FILE_NAME = "index.snapshot";
+    
+    private static final int MAGIC = 0x43534E50;
+    // Snapshots of an older format are ignored, and recovery replays the whole log instead
+    private static final byte FORMAT_VERSION = 3;
+    
+    /**
+     * Writes the snapshot to a temporary file and atomically moves it into place, so a crash never leaves a
+     * partially written snapshot behind.
+     */
+    void write(Path directory) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + ids.length * 72);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(segmentId);
+            out.writeInt(offset);
+            out.writeInt(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                out.writeUTF(ids[i]);
+                out.writeLong(locations[i]);
+                out.writeBoolean(patientIds[i] != null);
+                if (patientIds[i] != null) {
+                    out.writeUTF(patientIds[i]);
+                }
+                out.writeLong(createdAts[i]);
+                out.writeBoolean(assessing[i]);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        Path target = directory.resolve(FILE_NAME);
+        Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try {
+            Files.write(temporary, bytes.toByteArray());
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write index snapshot " + target, e);
+        }
+    }
+    
+    /**
+     * Reads the snapshot in the given directory.
+     *
+     * @return The snapshot, or empty if there is none or it is corrupt
+     */
+    static Optional<IndexSnapshot> read(Path directory) {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(directory.resolve(FILE_NAME));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (bytes.length < Integer.BYTES) {
+            return Optional.empty();
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length - Integer.BYTES);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - Integer.BYTES, Integer.BYTES).getInt()) {
+            return Optional.empty();
+        }
+        
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            int segmentId = in.readInt();
+            int offset = in.readInt();
+            int count = in.readInt();
+            String[] ids = new String[count];
+            long[] locations = new long[count];
+            String[] patientIds = new String[count];
+            long[] createdAts = new long[count];
+            boolean[] assessing = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = in.readUTF();
+                locations[i] = in.readLong();
+                patientIds[i] = in.readBoolean() ? in.readUTF() : null;
+                createdAts[i] = in.readLong();
+                assessing[i] = in.readBoolean();
+            }
+            return Optional.of(new IndexSnapshot(segmentId, offset, ids, locations, patientIds, createdAts, assessing));
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+}
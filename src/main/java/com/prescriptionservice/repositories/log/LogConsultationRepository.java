@@ -0,0 +1,587 @@
+package com.prescriptionservice.repositories.log;
+
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.ConsultationRepository;
+import com.prescriptionservice.repositories.HistoryPosition;
+import com.prescriptionservice.repositories.PatientConsultationIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Durable implementation of ConsultationRepository backed by an append-only log.
+ * Every save appends a CRC-protected record to the active memory-mapped segment; an in-memory index maps each
+ * consultation ID to the location of its latest record, and reads decode straight from the mapped segment.
+ * Durability is controlled by the fsync policy: with ALWAYS, writers wait for a flusher thread that forces
+ * everything written so far in one go, so concurrent saves share a single fsync (group commit).
+ * The index is periodically snapshotted, so recovery only replays the log tail, and sealed segments that are
+ * mostly superseded records are compacted by copying their live records forward and deleting them.
+ * Patient histories are served from a {@link PatientConsultationIndex}. The index keeps each consultation's patient
+ * and creation time next to its location and snapshots them too, so recovery rebuilds the histories from the
+ * snapshot and only reads the headers of the records in the log tail.
+ * A consultation saved as ASSESSING lost its queued assessment with the process that queued it, so once the log is
+ * open, consultations recovered as ASSESSING are reset to PENDING and their patients can submit their answers again.
+ * The index flags them too, so finding them does not decode every record.
+ * Unlike the in-memory store, this store keeps every consultation forever: consultations.store.ttl,
+ * completed-ttl and max-size do not apply, and there are no deletion records, so compaction only reclaims superseded
+ * records. Every questions request that starts a consultation therefore grows the index and the log for good,
+ * including consultations abandoned while PENDING.
+ * Selected with {@code consultations.store.type=log}.
+ */
+@Repository
+@ConditionalOnProperty(name = "consultations.store.type", havingValue = "log")
+public class LogConsultationRepository implements ConsultationRepository {
+
+    /**
+     * When appended records are forced to the storage device.
+     */
+    public enum FsyncPolicy {
+        /** Saves return only once their record has been forced; concurrent saves share one fsync. */
+        ALWAYS,
+        /** Records are forced every fsync interval; a crash loses at most that interval of saves. */
+        INTERVAL,
+        /** Records are never forced explicitly; flushing is left to the operating system. */
+        NEVER
+    }
+
+    private final Map<String, IndexEntry> index = new ConcurrentHashMap<>();
+    private final PatientConsultationIndex patientIndex = new PatientConsultationIndex();
+    private final ConcurrentNavigableMap<Integer, LogSegment> segments = new ConcurrentSkipListMap<>();
+    // Guards appends, segment rolls and index updates
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Condition flushRequested = flushLock.newCondition();
+    private final Condition flushCompleted = flushLock.newCondition();
+    private final Path directory;
+    private final int segmentSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final long snapshotIntervalMillis;
+    private final long compactionIntervalMillis;
+    private final double compactionThreshold;
+    private final Clock clock;
+    private final Timer fsyncTimer;
+    private volatile LogSegment active;
+    // Log positions are (segment ID, offset) pairs packed into a long, so they grow monotonically
+    private volatile long writtenPosition;
+    private volatile long durablePosition;
+    private volatile long snapshotPosition;
+    private volatile boolean open;
+    private Thread flusher;
+    private ScheduledExecutorService maintenance;
+
+    @Autowired
+    public LogConsultationRepository(
+            MeterRegistry meterRegistry,
+            @Value("${consultations.store.log.directory:./data/consultations}") Path directory,
+            @Value("${consultations.store.log.segment-size:64MB}") DataSize segmentSize,
+            @Value("${consultations.store.log.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+            @Value("${consultations.store.log.fsync-interval:50ms}") Duration fsyncInterval,
+            @Value("${consultations.store.log.snapshot-interval:5m}") Duration snapshotInterval,
+            @Value("${consultations.store.log.compaction-interval:1m}") Duration compactionInterval,
+            @Value("${consultations.store.log.compaction-threshold:0.5}") double compactionThreshold) {
+        this(meterRegistry, directory, Math.toIntExact(segmentSize.toBytes()), fsyncPolicy, fsyncInterval,
+                snapshotInterval, compactionInterval, compactionThreshold, Clock.systemUTC());
+    }
+
+    LogConsultationRepository(MeterRegistry meterRegistry, Path directory, int segmentSize, FsyncPolicy fsyncPolicy,
+                              Duration fsyncInterval, Duration snapshotInterval, Duration compactionInterval,
+                              double compactionThreshold, Clock clock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncInterval.toMillis();
+        this.snapshotIntervalMillis = snapshotInterval.toMillis();
+        this.compactionIntervalMillis = compactionInterval.toMillis();
+        this.compactionThreshold = compactionThreshold;
+        this.clock = clock;
+
+        Gauge.builder("consultations.live", index, Map::size)
+                .description("Consultations currently stored")
+                .register(meterRegistry);
+        this.fsyncTimer = Timer.builder("consultations.log.fsync")
+                .description("Time spent forcing the consultation log to the storage device")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Recovers the index from the snapshot and log tail, starts the flusher and maintenance threads and resets
+     * interrupted assessments.
+     */
+    @PostConstruct
+    public void open() {
+        recover();
+        open = true;
+
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            flusher = new Thread(this::flushLoop, "consultation-log-flusher");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+        maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "consultation-log-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (snapshotIntervalMillis > 0) {
+            maintenance.scheduleWithFixedDelay(this::writeSnapshotIfChanged,
+                    snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        if (compactionIntervalMillis > 0) {
+            maintenance.scheduleWithFixedDelay(this::compact,
+                    compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+        resetInterruptedAssessments();
+    }
+
+    /**
+     * Saves the consultations recovered as ASSESSING back as PENDING, in one batch.
+     */
+    private void resetInterruptedAssessments() {
+        List<Consultation> interrupted = new ArrayList<>();
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            if (entry.getValue().assessing()) {
+                findById(entry.getKey()).ifPresent(consultation -> {
+                    consultation.resetEligibility();
+                    interrupted.add(consultation);
+                });
+            }
+        }
+        if (!interrupted.isEmpty()) {
+            saveAll(interrupted);
+        }
+    }
+
+    /**
+     * Stops the background threads, forces outstanding records and writes a final snapshot so the next
+     * start does not need to replay anything.
+     */
+    @PreDestroy
+    public void close() {
+        if (!open) {
+            return;
+        }
+        maintenance.shutdownNow();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        writeLock.lock();
+        try {
+            open = false;
+            active.force();
+        } finally {
+            writeLock.unlock();
+        }
+        if (flusher != null) {
+            flusher.interrupt();
+            try {
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        markDurable(writtenPosition);
+
+        writeSnapshot();
+        segments.values().forEach(LogSegment::close);
+        segments.clear();
+        index.clear();
+        patientIndex.clear();
+    }
+
+    @Override
+    public Consultation save(Consultation consultation) {
+        byte[] record = encode(consultation, clock.millis());
+        long position = append(consultation.getId(), consultation.getPatientId(), consultation.getCreatedAt(),
+                isAssessing(consultation), record, null);
+        patientIndex.add(consultation.getPatientId(), HistoryPosition.of(consultation));
+        awaitDurable(position);
+        return consultation;
+    }
+
+    /**
+     * Appends all records under a single acquisition of the write lock and waits for a single flush.
+     */
+    @Override
+    public List<Consultation> saveAll(List<Consultation> consultations) {
+        long now = clock.millis();
+        byte[][] records = new byte[consultations.size()][];
+        for (int i = 0; i < records.length; i++) {
+            records[i] = encode(consultations.get(i), now);
+        }
+
+        long position = -1;
+        writeLock.lock();
+        try {
+            for (int i = 0; i < records.length; i++) {
+                Consultation consultation = consultations.get(i);
+                position = appendLocked(consultation.getId(), consultation.getPatientId(), consultation.getCreatedAt(),
+                        isAssessing(consultation), records[i], null);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        for (Consultation consultation : consultations) {
+            patientIndex.add(consultation.getPatientId(), HistoryPosition.of(consultation));
+        }
+        awaitDurable(position);
+        return consultations;
+    }
+
+    private byte[] encode(Consultation consultation, long now) {
+        if (consultation.getCreatedAt() == 0) {
+            consultation.setCreatedAt(now);
+        }
+        consultation.setLastTouchedAt(now);
+
+        byte[] record = ConsultationRecordCodec.encode(consultation);
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("Consultation record of " + record.length
+                    + " bytes exceeds the log segment size of " + segmentSize + " bytes");
+        }
+        return record;
+    }
+
+    @Override
+    public Optional<Consultation> findById(String id) {
+        // A compaction may move the record between reading its location and its segment; the index then
+        // already points at the copy, so one retry is enough
+        for (int attempt = 0; attempt < 2; attempt++) {
+            IndexEntry entry = index.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            LogSegment segment = segments.get(segmentId(entry.location()));
+            if (segment != null) {
+                return Optional.of(ConsultationRecordCodec.decode(segment.readPayload(offset(entry.location()))));
+            }
+        }
+        throw new IllegalStateException("Log segment for consultation " + id + " is missing");
+    }
+
+    /**
+     * Reads the page from the patient index, decoding only the consultations of the page.
+     */
+    @Override
+    public List<Consultation> findByPatientId(String patientId, HistoryPosition after, int limit) {
+        return patientIndex.page(patientId, after, limit, position -> findById(position.consultationId()).orElse(null));
+    }
+
+    /**
+     * Appends a record and points the index at it.
+     *
+     * @param expectedLocation If not null, the append only happens while the index still points here (compaction)
+     * @return The log position after the record, or -1 if the expected location no longer matched
+     */
+    private long append(String id, String patientId, long createdAt, boolean assessing, byte[] record,
+                        Long expectedLocation) {
+        writeLock.lock();
+        try {
+            return appendLocked(id, patientId, createdAt, assessing, record, expectedLocation);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long appendLocked(String id, String patientId, long createdAt, boolean assessing, byte[] record,
+                              Long expectedLocation) {
+        if (!open) {
+            throw new IllegalStateException("Consultation log is closed");
+        }
+        if (expectedLocation != null && !isAt(index.get(id), expectedLocation)) {
+            return -1;
+        }
+        if (!active.hasRoomFor(record.length)) {
+            roll();
+        }
+        int offset = active.append(record);
+        active.addLiveBytes(record.length);
+        IndexEntry previous = index.put(id, new IndexEntry(location(active.id(), offset), patientId, createdAt, assessing));
+        if (previous != null) {
+            LogSegment previousSegment = segments.get(segmentId(previous.location()));
+            if (previousSegment != null) {
+                previousSegment.addLiveBytes(-previousSegment.recordLength(offset(previous.location())));
+            }
+        }
+        writtenPosition = location(active.id(), active.endOffset());
+        return writtenPosition;
+    }
+
+    /**
+     * Seals the active segment and starts a new one. Runs under the write lock.
+     */
+    private void roll() {
+        active.force();
+        int nextId = active.id() + 1;
+        LogSegment next = LogSegment.open(directory, nextId, segmentSize);
+        segments.put(nextId, next);
+        active = next;
+    }
+
+    private void awaitDurable(long position) {
+        if (fsyncPolicy != FsyncPolicy.ALWAYS) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            while (durablePosition < position) {
+                flushRequested.signal();
+                flushCompleted.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the consultation log to be flushed", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flusher thread: forces everything written so far. With ALWAYS it forces as soon as a writer is waiting,
+     * so writers that append while a force is running are covered by the next one. With INTERVAL it forces at
+     * most once per fsync interval, however many records are appended in between.
+     */
+    private void flushLoop() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        long lastForce = System.nanoTime();
+        while (open) {
+            flushLock.lock();
+            try {
+                if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                    if (writtenPosition == durablePosition) {
+                        flushRequested.awaitNanos(intervalNanos);
+                    }
+                } else {
+                    long remaining = intervalNanos - (System.nanoTime() - lastForce);
+                    while (remaining > 0 && open) {
+                        remaining = flushRequested.awaitNanos(remaining);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            } finally {
+                flushLock.unlock();
+            }
+
+            lastForce = System.nanoTime();
+            long position = writtenPosition;
+            if (position > durablePosition) {
+                // Segments before the position's segment were forced when they were sealed
+                LogSegment segment = segments.get(segmentId(position));
+                if (segment != null) {
+                    segment.force();
+                    fsyncTimer.record(System.nanoTime() - lastForce, TimeUnit.NANOSECONDS);
+                }
+                markDurable(position);
+            }
+        }
+    }
+
+    private void markDurable(long position) {
+        flushLock.lock();
+        try {
+            durablePosition = Math.max(durablePosition, position);
+            flushCompleted.signalAll();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites sealed segments whose live ratio dropped below the compaction threshold: their live records are
+     * appended to the active segment, which is forced before the old segment is deleted.
+     */
+    void compact() {
+        boolean compacted = false;
+        for (LogSegment segment : segments.headMap(active.id(), false).values()) {
+            if (segment.liveRatio() >= compactionThreshold) {
+                continue;
+            }
+            segment.scan(0, false, (offset, payload) -> {
+                long location = location(segment.id(), offset);
+                String id = ConsultationRecordCodec.readId(payload);
+                IndexEntry entry = index.get(id);
+                if (isAt(entry, location)) {
+                    append(id, entry.patientId(), entry.createdAt(), entry.assessing(), segment.readRecord(offset), location);
+                }
+            });
+            writeLock.lock();
+            try {
+                active.force();
+            } finally {
+                writeLock.unlock();
+            }
+            segments.remove(segment.id());
+            segment.delete();
+            compacted = true;
+        }
+        if (compacted) {
+            writeSnapshot();
+        }
+    }
+
+    private void writeSnapshotIfChanged() {
+        if (writtenPosition != snapshotPosition) {
+            writeSnapshot();
+        }
+    }
+
+    /**
+     * Captures the index together with the log position it covers. The capture happens under the write lock
+     * after forcing the active segment, so every location in the snapshot refers to a durable record.
+     */
+    void writeSnapshot() {
+        IndexSnapshot snapshot;
+        writeLock.lock();
+        try {
+            active.force();
+            String[] ids = new String[index.size()];
+            long[] locations = new long[ids.length];
+            String[] patientIds = new String[ids.length];
+            long[] createdAts = new long[ids.length];
+            boolean[] assessing = new boolean[ids.length];
+            int i = 0;
+            for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+                ids[i] = entry.getKey();
+                locations[i] = entry.getValue().location();
+                patientIds[i] = entry.getValue().patientId();
+                createdAts[i] = entry.getValue().createdAt();
+                assessing[i++] = entry.getValue().assessing();
+            }
+            snapshot = new IndexSnapshot(active.id(), active.endOffset(), ids, locations, patientIds, createdAts,
+                    assessing);
+            snapshotPosition = location(active.id(), active.endOffset());
+        } finally {
+            writeLock.unlock();
+        }
+        snapshot.write(directory);
+    }
+
+    /**
+     * Rebuilds the index: loads the snapshot if every segment it refers to still exists, then replays the
+     * records written after it, verifying their CRCs. Replay stops at the first torn record of a segment.
+     * Only replayed records are decoded; the patient histories of snapshotted ones come from the snapshot.
+     */
+    private void recover() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                files.mapToInt(file -> LogSegment.parseId(file.getFileName().toString()))
+                        .filter(id -> id >= 0)
+                        .sorted()
+                        .forEach(id -> segments.put(id, LogSegment.open(directory, id, segmentSize)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open consultation log in " + directory, e);
+        }
+
+        int replaySegment = segments.isEmpty() ? 0 : segments.firstKey();
+        int replayOffset = 0;
+        Optional<IndexSnapshot> snapshot = IndexSnapshot.read(directory).filter(this::isUsable);
+        if (snapshot.isPresent()) {
+            IndexSnapshot loaded = snapshot.get();
+            for (int i = 0; i < loaded.ids().length; i++) {
+                index.put(loaded.ids()[i], new IndexEntry(loaded.locations()[i], loaded.patientIds()[i],
+                        loaded.createdAts()[i], loaded.assessing()[i]));
+            }
+            replaySegment = loaded.segmentId();
+            replayOffset = loaded.offset();
+        }
+
+        for (LogSegment segment : segments.values()) {
+            if (segment.id() < replaySegment) {
+                segment.scan(0, false, null);
+            } else {
+                segment.scan(segment.id() == replaySegment ? replayOffset : 0, true, (offset, payload) -> {
+                    ConsultationRecordCodec.Header header = ConsultationRecordCodec.readHeader(payload);
+                    index.put(header.id(), new IndexEntry(location(segment.id(), offset), header.patientId(),
+                            header.createdAt(), header.assessing()));
+                });
+            }
+        }
+        for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+            long location = entry.getValue().location();
+            LogSegment segment = segments.get(segmentId(location));
+            segment.addLiveBytes(segment.recordLength(offset(location)));
+            patientIndex.add(entry.getValue().patientId(), new HistoryPosition(entry.getValue().createdAt(), entry.getKey()));
+        }
+
+        if (segments.isEmpty()) {
+            segments.put(1, LogSegment.open(directory, 1, segmentSize));
+        }
+        active = segments.lastEntry().getValue();
+        active.truncateTail();
+        writtenPosition = location(active.id(), active.endOffset());
+        durablePosition = writtenPosition;
+        snapshotPosition = snapshot.isPresent() ? location(replaySegment, replayOffset) : -1;
+    }
+
+    private boolean isUsable(IndexSnapshot snapshot) {
+        if (!segments.containsKey(snapshot.segmentId())) {
+            return false;
+        }
+        for (long location : snapshot.locations()) {
+            if (!segments.containsKey(segmentId(location))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAssessing(Consultation consultation) {
+        return consultation.getEligibilityStatus() == Consultation.EligibilityStatus.ASSESSING;
+    }
+
+    private static boolean isAt(IndexEntry entry, long location) {
+        return entry != null && entry.location() == location;
+    }
+
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    /**
+     * Location of a consultation's latest record, with the fields that place it in its patient's history and
+     * whether it was saved as ASSESSING.
+     */
+    private record IndexEntry(long location, String patientId, long createdAt, boolean assessing) {
+    }
+}
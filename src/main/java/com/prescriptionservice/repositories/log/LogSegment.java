@@ -0,0 +1,214 @@
+package com.prescriptionservice.repositories.log;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed-size, memory-mapped log segment.
+ * The whole segment is mapped up front, so appends and reads are plain memory accesses and the file never grows.
+ * Unwritten space is zero-filled, which is how the end of the records is recognised on recovery.
+ * Writes are single-threaded (the repository's write lock); reads only use absolute accessors and may run concurrently.
+ */
+final class LogSegment {
+    
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".log";
+    
+    private final int id;
+    private final Path path;
+    private final int capacity;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    // Bytes of records in this segment that are still referenced by the index
+    private final AtomicLong liveBytes = new AtomicLong();
+    // End of the last record written to this segment
+    private volatile int endOffset;
+    
+    private LogSegment(int id, Path path, int capacity, FileChannel channel, MappedByteBuffer buffer) {
+        this.id = id;
+        this.path = path;
+        this.capacity = capacity;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+    
+    /**
+     * Opens the segment with the given ID, creating and pre-sizing its file if it does not exist.
+     */
+    static LogSegment open(Path directory, int id, int capacity) {
+        Path path = directory.resolve(fileName(id));
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int size = (int) Math.max(capacity, channel.size());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            return new LogSegment(id, path, size, channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open log segment " + path, e);
+        }
+    }
+    
+    static String fileName(int id) {
+        return String.format("%s%010d%s", PREFIX, id, SUFFIX);
+    }
+    
+    /**
+     * Parses a segment ID from a file name.
+     *
+     * @return The segment ID, or -1 if the file is not a segment
+     */
+    static int parseId(String fileName) {
+        if (!fileName.startsWith(PREFIX) || !fileName.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(fileName.substring(PREFIX.length(), fileName.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    int id() {
+        return id;
+    }
+    
+    int capacity() {
+        return capacity;
+    }
+    
+    int endOffset() {
+        return endOffset;
+    }
+    
+    boolean hasRoomFor(int recordLength) {
+        return endOffset + recordLength <= capacity;
+    }
+    
+    /**
+     * Appends a complete record at the end of the segment.
+     *
+     * @return The offset the record was written at
+     */
+    int append(byte[] record) {
+        int offset = endOffset;
+        buffer.put(offset, record);
+        endOffset = offset + record.length;
+        return offset;
+    }
+    
+    /**
+     * Reads the payload of the record at the given offset.
+     */
+    byte[] readPayload(int offset) {
+        byte[] payload = new byte[buffer.getInt(offset)];
+        buffer.get(offset + ConsultationRecordCodec.HEADER_BYTES, payload);
+        return payload;
+    }
+    
+    /**
+     * Reads a complete record, header included, e.g. to copy it into another segment.
+     */
+    byte[] readRecord(int offset) {
+        byte[] record = new byte[recordLength(offset)];
+        buffer.get(offset, record);
+        return record;
+    }
+    
+    int recordLength(int offset) {
+        return ConsultationRecordCodec.HEADER_BYTES + buffer.getInt(offset);
+    }
+    
+    /**
+     * Walks the records from the given offset, stopping at the zero-filled tail or at the first record that
+     * is truncated or fails its CRC check (a torn write). The end offset is set to where the walk stopped.
+     *
+     * @param fromOffset Offset of the first record to visit
+     * @param verify Whether to check record CRCs; records already covered by a snapshot were checked before
+     * @param visitor Called with the offset and payload of every intact record, or null to only find the end
+     */
+    void scan(int fromOffset, boolean verify, RecordVisitor visitor) {
+        int offset = fromOffset;
+        while (offset + ConsultationRecordCodec.HEADER_BYTES <= capacity) {
+            int payloadLength = buffer.getInt(offset);
+            if (payloadLength <= 0 || payloadLength > capacity - offset - ConsultationRecordCodec.HEADER_BYTES) {
+                break;
+            }
+            if (verify || visitor != null) {
+                byte[] payload = new byte[payloadLength];
+                buffer.get(offset + ConsultationRecordCodec.HEADER_BYTES, payload);
+                if (verify && !ConsultationRecordCodec.isIntact(payload, buffer.getInt(offset + Integer.BYTES))) {
+                    break;
+                }
+                if (visitor != null) {
+                    visitor.visit(offset, payload);
+                }
+            }
+            offset += ConsultationRecordCodec.HEADER_BYTES + payloadLength;
+        }
+        endOffset = offset;
+    }
+    
+    /**
+     * Zeroes everything after the end offset, so bytes left behind by a torn write can never be mistaken for
+     * records once new appends land in front of them.
+     */
+    void truncateTail() {
+        int last = capacity;
+        while (last - Long.BYTES >= endOffset && buffer.getLong(last - Long.BYTES) == 0) {
+            last -= Long.BYTES;
+        }
+        while (last > endOffset && buffer.get(last - 1) == 0) {
+            last--;
+        }
+        for (int i = endOffset; i < last; i++) {
+            buffer.put(i, (byte) 0);
+        }
+    }
+    
+    void addLiveBytes(long delta) {
+        liveBytes.addAndGet(delta);
+    }
+    
+    /**
+     * Fraction of the written bytes still referenced by the index.
+     */
+    double liveRatio() {
+        int written = endOffset;
+        return written == 0 ? 1.0 : (double) liveBytes.get() / written;
+    }
+    
+    /**
+     * Flushes the mapped pages to the storage device.
+     */
+    void force() {
+        buffer.force();
+    }
+    
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close log segment " + path, e);
+        }
+    }
+    
+    void delete() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to delete log segment " + path, e);
+        }
+    }
+    
+    @FunctionalInterface
+    interface RecordVisitor {
+        void visit(int offset, byte[] payload);
+    }
+}
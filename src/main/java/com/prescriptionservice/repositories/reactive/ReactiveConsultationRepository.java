@@ -0,0 +1,27 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Consultation;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link com.prescriptionservice.repositories.ConsultationRepository}
+ * used by the reactive consultation API.
+ */
+public interface ReactiveConsultationRepository {
+    
+    /**
+     * Saves a consultation to storage.
+     * 
+     * @param consultation The consultation to save
+     * @return Mono emitting the saved consultation
+     */
+    Mono<Consultation> save(Consultation consultation);
+    
+    /**
+     * Finds a consultation by its ID.
+     * 
+     * @param id The consultation ID
+     * @return Mono emitting the consultation, or empty if not found
+     */
+    Mono<Consultation> findById(String id);
+}
@@ -0,0 +1,46 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.ConsultationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Exposes the configured consultation store through the reactive repository interface.
+ * Lookups are in-memory index reads in both stores and run on the caller's thread. Saves to the log store may
+ * wait for an fsync, so they are moved off the event loop to the bounded elastic scheduler; saves to the
+ * in-memory store run inline.
+ */
+@Repository
+public class ReactiveConsultationRepositoryAdapter implements ReactiveConsultationRepository {
+    
+    private final ConsultationRepository consultationRepository;
+    private final Scheduler saveScheduler;
+    
+    @Autowired
+    public ReactiveConsultationRepositoryAdapter(
+            ConsultationRepository consultationRepository,
+            @Value("${consultations.store.type:memory}") String storeType) {
+        this(consultationRepository, "log".equals(storeType) ? Schedulers.boundedElastic() : Schedulers.immediate());
+    }
+    
+    public ReactiveConsultationRepositoryAdapter(ConsultationRepository consultationRepository, Scheduler saveScheduler) {
+        this.consultationRepository = consultationRepository;
+        this.saveScheduler = saveScheduler;
+    }
+    
+    @Override
+    public Mono<Consultation> save(Consultation consultation) {
+        return Mono.fromCallable(() -> consultationRepository.save(consultation))
+                .subscribeOn(saveScheduler);
+    }
+    
+    @Override
+    public Mono<Consultation> findById(String id) {
+        return Mono.fromSupplier(() -> consultationRepository.findById(id).orElse(null));
+    }
+}
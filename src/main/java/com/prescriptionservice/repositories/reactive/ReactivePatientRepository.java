@@ -0,0 +1,19 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Patient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link com.prescriptionservice.repositories.PatientRepository}
+ * used by the reactive consultation API.
+ */
+public interface ReactivePatientRepository {
+    
+    /**
+     * Finds a patient by their ID.
+     * 
+     * @param id The patient ID
+     * @return Mono emitting the patient, or empty if not found
+     */
+    Mono<Patient> findById(String id);
+}
@@ -0,0 +1,27 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Patient;
+import com.prescriptionservice.repositories.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exposes the in-memory patient repository through the reactive repository interface.
+ * Lookups are map reads, so they run on the caller's thread.
+ */
+@Repository
+public class ReactivePatientRepositoryAdapter implements ReactivePatientRepository {
+    
+    private final PatientRepository patientRepository;
+    
+    @Autowired
+    public ReactivePatientRepositoryAdapter(PatientRepository patientRepository) {
+        this.patientRepository = patientRepository;
+    }
+    
+    @Override
+    public Mono<Patient> findById(String id) {
+        return Mono.fromSupplier(() -> patientRepository.findById(id).orElse(null));
+    }
+}
@@ -0,0 +1,19 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Product;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link com.prescriptionservice.repositories.ProductRepository}
+ * used by the reactive consultation API.
+ */
+public interface ReactiveProductRepository {
+    
+    /**
+     * Finds a product by its ID.
+     * 
+     * @param id The product ID
+     * @return Mono emitting the product, or empty if not found
+     */
+    Mono<Product> findById(String id);
+}
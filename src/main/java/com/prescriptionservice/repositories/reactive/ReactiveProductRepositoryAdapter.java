@@ -0,0 +1,27 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.repositories.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Exposes the catalog's product repository through the reactive repository interface.
+ * Lookups read the current catalog snapshot, so they run on the caller's thread.
+ */
+@Repository
+public class ReactiveProductRepositoryAdapter implements ReactiveProductRepository {
+    
+    private final ProductRepository productRepository;
+    
+    @Autowired
+    public ReactiveProductRepositoryAdapter(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+    
+    @Override
+    public Mono<Product> findById(String id) {
+        return Mono.fromSupplier(() -> productRepository.findById(id).orElse(null));
+    }
+}
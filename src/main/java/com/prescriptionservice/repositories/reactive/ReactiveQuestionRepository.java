@@ -0,0 +1,32 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
+import com.prescriptionservice.models.entity.Question;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Non-blocking counterpart of {@link com.prescriptionservice.repositories.QuestionRepository}
+ * used by the reactive consultation API.
+ */
+public interface ReactiveQuestionRepository {
+    
+    /**
+     * Retrieves multiple questions by their IDs.
+     * 
+     * @param questionIds List of question IDs to retrieve
+     * @return Flux of the questions matching the provided IDs
+     */
+    Flux<Question> findByIds(List<String> questionIds);
+    
+    /**
+     * Retrieves a product's questions indexed by their ordinal in the product.
+     * 
+     * @param product The product
+     * @return Mono emitting the product's resolved question index
+     */
+    Mono<ProductQuestionIndex> findQuestionIndex(Product product);
+}
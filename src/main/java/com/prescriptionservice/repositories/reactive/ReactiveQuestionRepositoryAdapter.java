@@ -0,0 +1,37 @@
+package com.prescriptionservice.repositories.reactive;
+
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
+import com.prescriptionservice.models.entity.Question;
+import com.prescriptionservice.repositories.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Exposes the catalog's question repository through the reactive repository interface.
+ * Lookups read the current catalog snapshot, so they run on the caller's thread.
+ */
+@Repository
+public class ReactiveQuestionRepositoryAdapter implements ReactiveQuestionRepository {
+    
+    private final QuestionRepository questionRepository;
+    
+    @Autowired
+    public ReactiveQuestionRepositoryAdapter(QuestionRepository questionRepository) {
+        this.questionRepository = questionRepository;
+    }
+    
+    @Override
+    public Flux<Question> findByIds(List<String> questionIds) {
+        return Flux.defer(() -> Flux.fromIterable(questionRepository.findByIds(questionIds)));
+    }
+    
+    @Override
+    public Mono<ProductQuestionIndex> findQuestionIndex(Product product) {
+        return Mono.fromSupplier(() -> questionRepository.findQuestionIndex(product));
+    }
+}
@@ -0,0 +1,130 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.InvalidAnswerException;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.entity.AnswerValue;
+import com.prescriptionservice.models.entity.Question;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.QuestionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses submitted answers into {@link AnswerValue}s according to the type of their question.
+ * Used while request bodies are deserialized. Parsing never fails the body: an answer to a question missing from the
+ * catalog is left unparsed, for the answer set check to report as an unknown question, and a value that does not fit
+ * its question is recorded as the answer's parse error, for the assessment of its consultation to report.
+ * Question IDs are interned against the catalog: parsed answers carry the catalog's ID instance rather than the
+ * string read from the request. The question lookup is rebuilt on first use after the catalog version changes.
+ * Depends on the repositories rather than {@link QuestionCatalogCache}, which needs the ObjectMapper this parser
+ * is registered with.
+ */
+@Component
+public class AnswerParser {
+    
+    /**
+     * Maximum length of an answer to a TEXT question.
+     */
+    public static final int MAX_TEXT_LENGTH = 1000;
+    
+    private final QuestionRepository questionRepository;
+    private final CatalogVersion catalogVersion;
+    private volatile QuestionLookup questionLookup = new QuestionLookup(-1, Map.of());
+    
+    @Autowired
+    public AnswerParser(QuestionRepository questionRepository, CatalogVersion catalogVersion) {
+        this.questionRepository = questionRepository;
+        this.catalogVersion = catalogVersion;
+    }
+    
+    /**
+     * Creates an answer with its value parsed against the catalog question it answers.
+     * A missing or blank question ID or value is left unparsed, for bean validation to report, as is an answer to
+     * a question missing from the catalog.
+     * 
+     * @param questionId The question ID as submitted
+     * @param value The answer value as submitted
+     * @return The answer, with the interned question ID and either the parsed value or the parse error
+     */
+    public AnswerDto parse(String questionId, String value) {
+        AnswerDto answer = new AnswerDto(questionId, value);
+        if (questionId == null || questionId.isBlank() || value == null || value.isBlank()) {
+            return answer;
+        }
+        Question question = questionLookup().questions().get(questionId);
+        if (question == null) {
+            return answer;
+        }
+        answer.setQuestionId(question.getId());
+        try {
+            answer.setParsedValue(parse(question, value));
+        } catch (InvalidAnswerException e) {
+            answer.setParseError(e.getMessage());
+        }
+        return answer;
+    }
+    
+    /**
+     * Parses an answer value according to the type of its question.
+     * "yes" and "no" are matched ignoring case, as are the options of a MULTIPLE_CHOICE question.
+     * 
+     * @param question The question answered
+     * @param value The answer value as submitted
+     * @return The parsed value
+     * @throws InvalidAnswerException if the value is not valid for the question's type
+     */
+    public static AnswerValue parse(Question question, String value) {
+        switch (question.getType()) {
+            case YES_NO -> {
+                if ("yes".equalsIgnoreCase(value)) {
+                    return AnswerValue.YES;
+                }
+                if ("no".equalsIgnoreCase(value)) {
+                    return AnswerValue.NO;
+                }
+                throw new InvalidAnswerException(question.getId(),
+                        "Answer to question " + question.getId() + " must be yes or no");
+            }
+            case MULTIPLE_CHOICE -> {
+                List<String> options = question.getOptions();
+                for (int i = 0; i < options.size(); i++) {
+                    if (options.get(i).equalsIgnoreCase(value)) {
+                        return new AnswerValue.Choice(i, options.get(i));
+                    }
+                }
+                throw new InvalidAnswerException(question.getId(),
+                        "Answer to question " + question.getId() + " must be one of " + options);
+            }
+            default -> {
+                if (value.length() > MAX_TEXT_LENGTH) {
+                    throw new InvalidAnswerException(question.getId(), "Answer to question " + question.getId()
+                            + " must not exceed " + MAX_TEXT_LENGTH + " characters");
+                }
+                return new AnswerValue.Text(value);
+            }
+        }
+    }
+    
+    private QuestionLookup questionLookup() {
+        long version = catalogVersion.current();
+        QuestionLookup lookup = questionLookup;
+        if (lookup.catalogVersion() == version) {
+            return lookup;
+        }
+        // The version is read before the repository, so a lookup racing with a catalog change is rebuilt on next use
+        Map<String, Question> questions = new HashMap<>();
+        for (Question question : questionRepository.findAll()) {
+            questions.put(question.getId(), question);
+        }
+        lookup = new QuestionLookup(version, questions);
+        questionLookup = lookup;
+        return lookup;
+    }
+    
+    private record QuestionLookup(long catalogVersion, Map<String, Question> questions) {
+    }
+}
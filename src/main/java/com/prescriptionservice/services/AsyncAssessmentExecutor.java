@@ -0,0 +1,132 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.AssessmentQueueFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded worker pool running eligibility assessments for products configured for asynchronous assessment.
+ * At most {@code workers + queue-capacity} assessments are accepted at a time; submissions beyond that are
+ * rejected immediately rather than queued, so the time a submission waits for a worker stays bounded under load.
+ */
+@Service
+public class AsyncAssessmentExecutor {
+
+    private final Set<String> asyncProducts;
+    private final long retryAfterSeconds;
+    private final ThreadPoolExecutor executor;
+    // Slots for running and queued assessments, reserved before a submission is accepted
+    private final Semaphore slots;
+    private final Timer queueWait;
+    private final Counter rejected;
+
+    @Autowired
+    public AsyncAssessmentExecutor(
+            MeterRegistry meterRegistry,
+            @Value("${consultations.async.products:}") String[] asyncProducts,
+            @Value("${consultations.async.workers:0}") int workers,
+            @Value("${consultations.async.queue-capacity:1000}") int queueCapacity,
+            @Value("${consultations.async.retry-after:1s}") Duration retryAfter) {
+        this.asyncProducts = Arrays.stream(asyncProducts)
+                .map(String::trim)
+                .filter(productId -> !productId.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        this.retryAfterSeconds = Math.max(1, retryAfter.toSeconds());
+        int poolSize = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.slots = new Semaphore(poolSize + queueCapacity);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "eligibility-assessment-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        Gauge.builder("consultations.assessment.queue.depth", executor, pool -> pool.getQueue().size())
+                .description("Assessments waiting for a worker")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("consultations.assessment.queue.wait")
+                .description("Time an assessment waited in the queue before a worker picked it up")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("consultations.assessment.rejected")
+                .description("Assessments rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Checks whether consultations for a product are assessed asynchronously.
+     *
+     * @param productId The product ID
+     * @return true if the product is configured for asynchronous assessment
+     */
+    public boolean isAsync(String productId) {
+        return asyncProducts.contains(productId);
+    }
+
+    /**
+     * Checks whether any product is configured for asynchronous assessment.
+     *
+     * @return true if consultations.async.products lists at least one product
+     */
+    public boolean hasAsyncProducts() {
+        return !asyncProducts.isEmpty();
+    }
+
+    /**
+     * Queues an assessment.
+     *
+     * @param onAccepted Runs on the calling thread once the assessment is accepted and before it can start,
+     *                   e.g. to record that the consultation is being assessed
+     * @param assessment The assessment to run on a worker
+     * @throws AssessmentQueueFullException if the queue is full
+     * @throws java.util.concurrent.RejectedExecutionException if the pool is shut down; onAccepted has run by then
+     */
+    public void submit(Runnable onAccepted, Runnable assessment) {
+        if (!slots.tryAcquire()) {
+            rejected.increment();
+            throw new AssessmentQueueFullException(retryAfterSeconds);
+        }
+        try {
+            onAccepted.run();
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                try {
+                    queueWait.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                    assessment.run();
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,137 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.models.entity.Consultation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics of the consultation request path: a timer per stage of answer processing, request timers for
+ * the questions and answers endpoints, and eligibility outcome counters by product and status.
+ * Request timers publish percentile histograms and the configured SLO buckets for alerting. Stage timers only
+ * keep count, total and max: they are recorded six times per submission, and a histogram would make each of
+ * those recordings several times more expensive while the request timers already cover the latency SLO.
+ * Meters are registered once and looked up by index or product, so recording does not allocate;
+ * callers time stages with {@link System#nanoTime()} rather than {@link Timer.Sample}s for the same reason.
+ */
+@Component
+public class ConsultationMetrics {
+
+    /**
+     * Stages of answer processing, in order. The lookup and access check stages are also recorded for status
+     * requests, and batch submissions record the answer mapping and assessment of each item.
+     */
+    public enum Stage {
+        CONSULTATION_LOOKUP("consultation_lookup"),
+        PATIENT_LOOKUP("patient_lookup"),
+        ACCESS_CHECK("access_check"),
+        ANSWER_MAPPING("answer_mapping"),
+        ASSESSMENT("assessment"),
+        SAVE("save");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final Consultation.EligibilityStatus[] STATUSES = Consultation.EligibilityStatus.values();
+
+    private final MeterRegistry meterRegistry;
+    private final Duration[] serviceLevelObjectives;
+    private final Timer[] stageTimers = new Timer[Stage.values().length];
+    private final Map<String, Timer> questionsTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> answersTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter[]> outcomeCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConsultationMetrics(MeterRegistry meterRegistry,
+                               @Value("${consultations.metrics.slo:10ms,50ms,100ms,250ms}") Duration[] serviceLevelObjectives) {
+        this.meterRegistry = meterRegistry;
+        this.serviceLevelObjectives = serviceLevelObjectives;
+        for (Stage stage : Stage.values()) {
+            stageTimers[stage.ordinal()] = Timer.builder("consultations.answers.stage")
+                    .description("Time spent in each stage of processing consultation answers")
+                    .tag("stage", stage.tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Records a stage that started at {@code startNanos} and ended now.
+     *
+     * @param stage The stage
+     * @param startNanos The {@link System#nanoTime()} at which the stage started
+     * @return The current {@link System#nanoTime()}, i.e. the start of the next stage
+     */
+    public long recordStage(Stage stage, long startNanos) {
+        long now = System.nanoTime();
+        stageTimers[stage.ordinal()].record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    /**
+     * Records a questions request for a product that started at {@code startNanos} and ended now.
+     *
+     * @param productId The product the questions were handed out for
+     * @param startNanos The {@link System#nanoTime()} at which the request started
+     */
+    public void recordQuestions(String productId, long startNanos) {
+        questionsTimers.computeIfAbsent(productId, id -> requestTimer("consultations.questions",
+                        "Time taken to hand out a product's questions and start a consultation", id))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records an answer submission for a product that started at {@code startNanos} and ended now.
+     *
+     * @param productId The product of the consultation
+     * @param startNanos The {@link System#nanoTime()} at which the submission started
+     */
+    public void recordAnswers(String productId, long startNanos) {
+        answersTimers.computeIfAbsent(productId, id -> requestTimer("consultations.answers",
+                        "Time taken to process consultation answers", id))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Counts an eligibility assessment outcome.
+     *
+     * @param productId The product of the consultation
+     * @param status The assessed eligibility status
+     */
+    public void recordOutcome(String productId, Consultation.EligibilityStatus status) {
+        Counter[] counters = outcomeCounters.computeIfAbsent(productId, id -> new Counter[STATUSES.length]);
+        Counter counter = counters[status.ordinal()];
+        if (counter == null) {
+            // Racing registrations get the same counter back from the registry
+            counter = Counter.builder("consultations.outcomes")
+                    .description("Eligibility assessments by product and outcome")
+                    .tag("product", productId)
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+            counters[status.ordinal()] = counter;
+        }
+        counter.increment();
+    }
+
+    private Timer requestTimer(String name, String description, String productId) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("product", productId)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(serviceLevelObjectives)
+                .minimumExpectedValue(Duration.ofNanos(1000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+}
@@ -3,18 +3,35 @@ package com.prescriptionservice.services;
 import com.prescriptionservice.models.dto.*;
 import com.prescriptionservice.models.entity.*;
 import com.prescriptionservice.repositories.ConsultationRepository;
-import com.prescriptionservice.repositories.QuestionRepository;
-import com.prescriptionservice.repositories.ProductRepository;
+import com.prescriptionservice.repositories.HistoryPosition;
 import com.prescriptionservice.repositories.PatientRepository;
+import com.prescriptionservice.exceptions.AssessmentInProgressException;
+import com.prescriptionservice.exceptions.AssessmentQueueFullException;
 import com.prescriptionservice.exceptions.ConsultationNotFoundException;
 import com.prescriptionservice.exceptions.ConsultationAccessException;
+import com.prescriptionservice.exceptions.InvalidAnswerException;
+import com.prescriptionservice.exceptions.InvalidAnswerSetException;
 import com.prescriptionservice.exceptions.PatientNotFoundException;
 import com.prescriptionservice.exceptions.ProductNotFoundException;
+import com.prescriptionservice.services.ConsultationMetrics.Stage;
+import com.prescriptionservice.services.eligibility.EligibilityAssessment;
+import com.prescriptionservice.services.eligibility.EligibilityRuleEngine;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Service class handling consultation business logic including eligibility assessment.
@@ -23,62 +40,298 @@ import java.util.stream.Collectors;
 @Service
 public class ConsultationService {
     
-    private final QuestionRepository questionRepository;
-    private final ProductRepository productRepository;
+    /**
+     * Largest page of consultation history that can be requested.
+     */
+    public static final int MAX_HISTORY_PAGE_SIZE = 100;
+    
+    private final QuestionCatalogCache questionCatalogCache;
     private final PatientRepository patientRepository;
     private final ConsultationRepository consultationRepository;
+    private final EligibilityRuleEngine eligibilityRuleEngine;
+    private final ConsultationTokenService consultationTokenService;
+    private final AsyncAssessmentExecutor asyncAssessmentExecutor;
+    private final ConsultationMetrics consultationMetrics;
+    private final CurrentPatient currentPatient;
+    private final Validator validator;
+    private final int maxBatchSize;
+    // Consultations with a queued or running assessment; claimed before ASSESSING is saved, so two concurrent
+    // submissions cannot both queue one
+    private final Set<String> assessingIds = ConcurrentHashMap.newKeySet();
     
     @Autowired
-    public ConsultationService(QuestionRepository questionRepository, ProductRepository productRepository, PatientRepository patientRepository, ConsultationRepository consultationRepository) {
-        this.questionRepository = questionRepository;
-        this.productRepository = productRepository;
+    public ConsultationService(QuestionCatalogCache questionCatalogCache, PatientRepository patientRepository, ConsultationRepository consultationRepository, EligibilityRuleEngine eligibilityRuleEngine, ConsultationTokenService consultationTokenService,
+                               AsyncAssessmentExecutor asyncAssessmentExecutor, ConsultationMetrics consultationMetrics,
+                               CurrentPatient currentPatient, Validator validator,
+                               @Value("${consultations.batch.max-size:1000}") int maxBatchSize) {
+        this.questionCatalogCache = questionCatalogCache;
         this.patientRepository = patientRepository;
         this.consultationRepository = consultationRepository;
+        this.eligibilityRuleEngine = eligibilityRuleEngine;
+        this.consultationTokenService = consultationTokenService;
+        this.asyncAssessmentExecutor = asyncAssessmentExecutor;
+        this.consultationMetrics = consultationMetrics;
+        this.currentPatient = currentPatient;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
     }
     
     /**
      * Retrieves all consultation questions available for patients for a specific product.
-     * Creates a new consultation session for tracking purposes.
+     * Creates a new consultation session for tracking purposes, or issues a signed consultation token
+     * without touching the store when token mode is enabled.
+     * Questions are served from the catalog cache, so only the consultation is created per call.
      * 
      * @param productId The product ID to retrieve questions for
      * @return QuestionsResponse containing product-specific questions and consultation ID
      */
     public QuestionsResponse getConsultationQuestions(String productId) {
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductNotFoundException(productId));
+        long start = System.nanoTime();
+        QuestionCatalogCache.ProductQuestions productQuestions = questionCatalogCache.getProductQuestions(productId);
+        String consultationId = startConsultation(productQuestions);
+        consultationMetrics.recordQuestions(productQuestions.product().getId(), start);
+        
+        return new QuestionsResponse(productQuestions.questionDtos(), consultationId);
+    }
+    
+    /**
+     * Same as {@link #getConsultationQuestions(String)}, but returns the questions pre-rendered to JSON
+     * along with their ETag, so the response body can be written without re-serializing the questions.
+     * 
+     * @param productId The product ID to retrieve questions for
+     * @return SerializedQuestionsResponse containing the rendered questions, their ETag and the consultation ID
+     */
+    public SerializedQuestionsResponse getSerializedConsultationQuestions(String productId) {
+        long start = System.nanoTime();
+        QuestionCatalogCache.ProductQuestions productQuestions = questionCatalogCache.getProductQuestions(productId);
+        String consultationId = startConsultation(productQuestions);
+        consultationMetrics.recordQuestions(productQuestions.product().getId(), start);
         
-        List<Question> questions = questionRepository.findByIds(product.getQuestionIds());
-        List<QuestionDto> questionDtos = questions.stream()
-                .map(QuestionDto::fromEntity)
-                .collect(Collectors.toList());
+        return new SerializedQuestionsResponse(productQuestions.questionDtos(), productQuestions.questionsJson(), productQuestions.etag(), consultationId);
+    }
+    
+    private String startConsultation(QuestionCatalogCache.ProductQuestions productQuestions) {
+        String patientId = currentPatient.id();
+        String productId = productQuestions.product().getId();
+        if (consultationTokenService.isEnabled()) {
+            return consultationTokenService.issue(patientId, productId, productQuestions.catalogVersion());
+        }
         
         // Create a new consultation session linked to patient
-        // TODO: Extract patientId from JWT token instead of hardcoding
-        String patientId = "patient-123";
-        Consultation consultation = new Consultation(patientId);
+        Consultation consultation = new Consultation(patientId, productId);
+        consultation.setQuestionSetVersion(productQuestions.catalogVersion());
         consultationRepository.save(consultation);
-        
-        return new QuestionsResponse(questionDtos, consultation.getId());
+        return consultation.getId();
     }
     
     /**
      * Processes consultation answers and determines patient eligibility.
-     * Implements business rules for prescription eligibility assessment.
+     * Eligibility is assessed with the rules declared on the consultation's product.
+     * In token mode, a consultation is stored for the first time here, from the claims of its verified token.
+     * Each stage is timed (see {@link ConsultationMetrics.Stage}), as is the whole call.
      * 
      * @param consultationId The consultation session ID
      * @param request The consultation request containing patient info and answers
      * @return EligibilityResponse indicating eligibility status and reasoning
+     * @throws InvalidAnswerSetException if the answers do not cover the product's questions
+     * @throws AssessmentInProgressException if earlier answers to the consultation are still being assessed
      */
     public EligibilityResponse processConsultation(String consultationId, ConsultationRequest request) {
-        Consultation consultation = consultationRepository.findById(consultationId)
-                .orElseThrow(() -> new ConsultationNotFoundException(consultationId));
+        long start = System.nanoTime();
+        Consultation consultation = findPatientConsultation(consultationId, start);
         
-        // TODO: Extract patientId from JWT token instead of hardcoding
-        String patientId = "patient-123";
+        EligibilityResponse response = assessConsultation(consultation, request);
+        saveAssessed(consultation, start);
+        
+        return response;
+    }
+    
+    /**
+     * Submits consultation answers, assessing them right away or, for products configured for asynchronous
+     * assessment, queueing the assessment on the worker pool. A queued consultation is saved as ASSESSING
+     * before the assessment can start and moves to its final status once a worker has assessed it.
+     * 
+     * @param consultationId The consultation session ID
+     * @param request The consultation request containing patient info and answers
+     * @return AnswerSubmission with the eligibility result, or the ASSESSING status if the assessment was queued
+     * @throws InvalidAnswerSetException if the answers do not cover the product's questions
+     * @throws AssessmentInProgressException if earlier answers to the consultation are still being assessed
+     * @throws AssessmentQueueFullException if the assessment would have to be queued but the queue is full
+     */
+    public AnswerSubmission submitConsultation(String consultationId, ConsultationRequest request) {
+        long start = System.nanoTime();
+        Consultation consultation = findPatientConsultation(consultationId, start);
+        if (!asyncAssessmentExecutor.isAsync(consultation.getProductId())) {
+            EligibilityResponse response = assessConsultation(consultation, request);
+            saveAssessed(consultation, start);
+            return new AnswerSubmission(response, false);
+        }
+        
+        // Answers are checked before queueing, so an invalid submission is rejected rather than left PENDING
+        checkNotAssessing(consultation);
+        long stageStart = System.nanoTime();
+        QuestionCatalogCache.ProductQuestions productQuestions = questionCatalogCache.getProductQuestions(consultation.getProductId());
+        CompactAnswers answers = mapAnswers(productQuestions, request);
+        consultationMetrics.recordStage(Stage.ANSWER_MAPPING, stageStart);
+        if (!assessingIds.add(consultationId)) {
+            throw new AssessmentInProgressException(consultationId);
+        }
+        try {
+            asyncAssessmentExecutor.submit(
+                    () -> {
+                        consultation.setEligibilityStatus(Consultation.EligibilityStatus.ASSESSING);
+                        consultationRepository.save(consultation);
+                    },
+                    () -> completeAssessment(consultation, productQuestions, answers));
+        } catch (RuntimeException e) {
+            try {
+                if (consultation.getEligibilityStatus() == Consultation.EligibilityStatus.ASSESSING) {
+                    // Saved as ASSESSING but never queued, e.g. the pool was shut down; the patient can submit again
+                    consultation.resetEligibility();
+                    consultationRepository.save(consultation);
+                }
+            } finally {
+                assessingIds.remove(consultationId);
+            }
+            throw e;
+        }
+        return new AnswerSubmission(statusResponse(consultation), true);
+    }
+    
+    /**
+     * Saves a consultation assessed synchronously and records the save and the whole submission.
+     */
+    private void saveAssessed(Consultation consultation, long submissionStart) {
+        long saveStart = System.nanoTime();
+        consultationRepository.save(consultation);
+        consultationMetrics.recordStage(Stage.SAVE, saveStart);
+        consultationMetrics.recordAnswers(consultation.getProductId(), submissionStart);
+    }
+    
+    /**
+     * Runs a queued assessment on a worker thread.
+     */
+    private void completeAssessment(Consultation consultation, QuestionCatalogCache.ProductQuestions productQuestions, CompactAnswers answers) {
+        try {
+            try {
+                consultation.setCompactAnswers(answers);
+                assessAnswers(consultation, productQuestions, answers, System.nanoTime());
+            } catch (RuntimeException e) {
+                // E.g. the product's rules failed to compile; the patient can submit again
+                consultation.resetEligibility();
+            }
+            consultationRepository.save(consultation);
+        } finally {
+            assessingIds.remove(consultation.getId());
+        }
+    }
+    
+    /**
+     * Rejects answers to a consultation whose earlier answers are queued or being assessed, as the assessment
+     * would overwrite their outcome with that of the earlier answers.
+     */
+    private void checkNotAssessing(Consultation consultation) {
+        if (consultation.getEligibilityStatus() == Consultation.EligibilityStatus.ASSESSING
+                || assessingIds.contains(consultation.getId())) {
+            throw new AssessmentInProgressException(consultation.getId());
+        }
+    }
+    
+    /**
+     * Retrieves the current eligibility status of a consultation, e.g. to poll for the outcome of an
+     * asynchronous assessment.
+     * 
+     * @param consultationId The consultation session ID
+     * @return EligibilityResponse with the outcome, or with the PENDING / ASSESSING status if there is none yet
+     */
+    public EligibilityResponse getConsultationStatus(String consultationId) {
+        return statusResponse(findPatientConsultation(consultationId, System.nanoTime()));
+    }
+    
+    private static EligibilityResponse statusResponse(Consultation consultation) {
+        return new EligibilityResponse(consultation.getId(), consultation.isEligible(), statusMessage(consultation),
+                consultation.getEligibilityStatus().name());
+    }
+    
+    private static String statusMessage(Consultation consultation) {
+        return switch (consultation.getEligibilityStatus()) {
+            case PENDING -> "Awaiting answers.";
+            case ASSESSING -> "Your answers are being assessed.";
+            default -> consultation.getEligibilityMessage();
+        };
+    }
+    
+    /**
+     * Retrieves a page of the authenticated patient's consultations, newest first.
+     * Pages are read from the repository's patient index, so a page costs time proportional to its size.
+     * In token mode, a consultation is only listed once its answers have been submitted, as that is when it is
+     * first stored.
+     * 
+     * @param cursor The nextCursor of the previous page, or null for the first page
+     * @param limit Maximum number of consultations to return, from 1 to {@value #MAX_HISTORY_PAGE_SIZE}
+     * @return ConsultationHistoryResponse with the page and the cursor of the next one
+     */
+    public ConsultationHistoryResponse getConsultationHistory(String cursor, int limit) {
+        if (limit < 1 || limit > MAX_HISTORY_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_HISTORY_PAGE_SIZE);
+        }
+        HistoryPosition after = cursor == null || cursor.isEmpty() ? null : decodeHistoryCursor(cursor);
+        
+        String patientId = currentPatient.id();
+        patientRepository.findById(patientId)
+                .orElseThrow(() -> new PatientNotFoundException(patientId));
+        
+        // Reading one consultation more than the page tells whether there is a next page
+        List<Consultation> consultations = consultationRepository.findByPatientId(patientId, after, limit + 1);
+        int pageSize = Math.min(limit, consultations.size());
+        List<ConsultationHistoryItem> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            Consultation consultation = consultations.get(i);
+            items.add(new ConsultationHistoryItem(consultation.getId(), consultation.getProductId(),
+                    consultation.getEligibilityStatus().name(), consultation.isEligible(), statusMessage(consultation),
+                    consultation.getCreatedAt()));
+        }
+        String nextCursor = consultations.size() > limit
+                ? encodeHistoryCursor(HistoryPosition.of(consultations.get(limit - 1)))
+                : null;
+        return new ConsultationHistoryResponse(items, nextCursor);
+    }
+    
+    /**
+     * Encodes a history position as an opaque cursor: {@code base64url(createdAt:consultationId)}.
+     */
+    static String encodeHistoryCursor(HistoryPosition position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                (position.createdAt() + ":" + position.consultationId()).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static HistoryPosition decodeHistoryCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator > 0 && separator < decoded.length() - 1) {
+                return new HistoryPosition(Long.parseLong(decoded, 0, separator, 10), decoded.substring(separator + 1));
+            }
+        } catch (IllegalArgumentException e) {
+            // Malformed base64 or creation time, reported below
+        }
+        throw new IllegalArgumentException("Invalid consultation history cursor");
+    }
+    
+    /**
+     * Finds a consultation and checks that it belongs to the authenticated patient, timing the lookups and
+     * the check from {@code start}.
+     */
+    private Consultation findPatientConsultation(String consultationId, long start) {
+        Consultation consultation = findConsultation(consultationId);
+        long stageStart = consultationMetrics.recordStage(Stage.CONSULTATION_LOOKUP, start);
+        
+        String patientId = currentPatient.id();
         
         // Verify patient exists (would normally get patientId from auth token)
         Patient patient = patientRepository.findById(patientId)
                 .orElseThrow(() -> new PatientNotFoundException(patientId));
+        stageStart = consultationMetrics.recordStage(Stage.PATIENT_LOOKUP, stageStart);
 
         // TODO: Here we would extract patient data from the retrieved Patient, rather than accepting it in the request
 
@@ -86,20 +339,151 @@ public class ConsultationService {
         if (!patientId.equals(consultation.getPatientId())) {
             throw new ConsultationAccessException(patientId, consultationId);
         }
+        consultationMetrics.recordStage(Stage.ACCESS_CHECK, stageStart);
+        return consultation;
+    }
+    
+    /**
+     * Processes the answers of many consultations at once.
+     * Items are validated and assessed in parallel, then every assessed consultation is written in a single
+     * bulk repository write. An item that fails (missing or blank fields, unknown consultation, another patient's
+     * consultation, a consultation repeated within the batch, ...) is reported in its own result and does not fail
+     * the batch.
+     * Batch items are always assessed synchronously, whatever the product's assessment mode.
+     * 
+     * @param items The consultation IDs and their answers
+     * @return BatchEligibilityResponse with one result per item, in request order
+     */
+    public BatchEligibilityResponse processConsultations(List<BatchConsultationItem> items) {
+        if (items.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch must not contain more than " + maxBatchSize + " consultations");
+        }
         
-        List<Answer> answers = request.getAnswers().stream()
-                .map(dto -> new Answer(dto.getQuestionId(), dto.getValue()))
-                .collect(Collectors.toList());
-        consultation.setAnswers(answers);
+        String patientId = currentPatient.id();
+        patientRepository.findById(patientId)
+                .orElseThrow(() -> new PatientNotFoundException(patientId));
         
-        // Assess eligibility based on answers
-        EligibilityAssessment assessment = assessEligibility(answers);
-        consultation.setEligibilityStatus(assessment.status());
+        String[] validationErrors = IntStream.range(0, items.size())
+                .parallel()
+                .mapToObj(i -> validationError(items.get(i)))
+                .toArray(String[]::new);
         
-        consultationRepository.save(consultation);
+        // Consultations repeated within a batch would be assessed concurrently, so only the first valid occurrence counts
+        Set<String> seen = new HashSet<>();
+        boolean[] duplicate = new boolean[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            duplicate[i] = validationErrors[i] == null && !seen.add(items.get(i).getConsultationId());
+        }
+        
+        List<BatchItemOutcome> outcomes = IntStream.range(0, items.size())
+                .parallel()
+                .mapToObj(i -> {
+                    if (validationErrors[i] != null) {
+                        BatchConsultationItem item = items.get(i);
+                        return BatchItemOutcome.failed(item == null ? null : item.getConsultationId(),
+                                "validation_error", validationErrors[i]);
+                    }
+                    return duplicate[i]
+                            ? BatchItemOutcome.failed(items.get(i).getConsultationId(), "duplicate_consultation",
+                                    "Consultation appears more than once in the batch")
+                            : assessBatchItem(patientId, items.get(i));
+                })
+                .toList();
+        
+        List<Consultation> assessed = new ArrayList<>(outcomes.size());
+        for (BatchItemOutcome outcome : outcomes) {
+            if (outcome.consultation() != null) {
+                assessed.add(outcome.consultation());
+            }
+        }
+        consultationRepository.saveAll(assessed);
+        
+        return new BatchEligibilityResponse(outcomes.stream().map(BatchItemOutcome::result).toList());
+    }
+    
+    /**
+     * Validates a batch item with the constraints a single submission is validated with.
+     * 
+     * @return The item's constraint violations, one {@code field: message} per violation, or null if it is valid
+     */
+    private String validationError(BatchConsultationItem item) {
+        if (item == null) {
+            return "Item is required";
+        }
+        Set<ConstraintViolation<BatchConsultationItem>> violations = validator.validate(item);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+    
+    private BatchItemOutcome assessBatchItem(String patientId, BatchConsultationItem item) {
+        String consultationId = item.getConsultationId();
+        try {
+            Consultation consultation = findConsultation(consultationId);
+            if (!patientId.equals(consultation.getPatientId())) {
+                throw new ConsultationAccessException(patientId, consultationId);
+            }
+            EligibilityResponse response = assessConsultation(consultation, item.getRequest());
+            return new BatchItemOutcome(consultation, BatchEligibilityResult.success(response));
+        } catch (ConsultationNotFoundException | ProductNotFoundException e) {
+            return BatchItemOutcome.failed(consultationId, "not_found", e.getMessage());
+        } catch (ConsultationAccessException e) {
+            return BatchItemOutcome.failed(consultationId, "access_denied", e.getMessage());
+        } catch (AssessmentInProgressException e) {
+            return BatchItemOutcome.failed(consultationId, "assessment_in_progress", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return BatchItemOutcome.failed(consultationId, "invalid_request", e.getMessage());
+        }
+    }
+    
+    /**
+     * Stores the answers on the consultation and assesses its eligibility with the rules declared on its product.
+     * The consultation is updated but not saved.
+     * 
+     * @throws InvalidAnswerSetException if the answers do not cover the product's questions
+     */
+    private EligibilityResponse assessConsultation(Consultation consultation, ConsultationRequest request) {
+        long stageStart = System.nanoTime();
+        QuestionCatalogCache.ProductQuestions productQuestions = questionCatalogCache.getProductQuestions(consultation.getProductId());
+        return assessConsultation(consultation, productQuestions, request, stageStart);
+    }
+    
+    /**
+     * Same as {@link #assessConsultation(Consultation, ConsultationRequest)}, for callers that looked the product's
+     * questions up themselves, timing the answer mapping from {@code stageStart}.
+     * 
+     * @throws InvalidAnswerSetException if the answers do not cover the product's questions
+     * @throws AssessmentInProgressException if earlier answers to the consultation are still being assessed
+     */
+    EligibilityResponse assessConsultation(Consultation consultation, QuestionCatalogCache.ProductQuestions productQuestions,
+                                           ConsultationRequest request, long stageStart) {
+        checkNotAssessing(consultation);
+        CompactAnswers compactAnswers = mapAnswers(productQuestions, request);
+        consultation.setCompactAnswers(compactAnswers);
+        stageStart = consultationMetrics.recordStage(Stage.ANSWER_MAPPING, stageStart);
+        
+        return assessAnswers(consultation, productQuestions, compactAnswers, stageStart);
+    }
+    
+    /**
+     * Assesses the eligibility of a consultation's mapped answers, timing the assessment from {@code stageStart}.
+     */
+    private EligibilityResponse assessAnswers(Consultation consultation, QuestionCatalogCache.ProductQuestions productQuestions,
+                                              CompactAnswers compactAnswers, long stageStart) {
+        EligibilityAssessment assessment = eligibilityRuleEngine.assess(productQuestions.product(), productQuestions.questions(), compactAnswers.yesMask());
+        consultationMetrics.recordStage(Stage.ASSESSMENT, stageStart);
+        consultationMetrics.recordOutcome(consultation.getProductId(), assessment.status());
+        consultation.setEligible(assessment.eligible());
+        consultation.setEligibilityMessage(assessment.message());
+        // Set last, so a concurrent status poll that sees the outcome also sees its message
+        consultation.setEligibilityStatus(assessment.status());
         
         return new EligibilityResponse(
-                consultationId,
+                consultation.getId(),
                 assessment.eligible(),
                 assessment.message(),
                 assessment.status().name()
@@ -107,57 +491,138 @@ public class ConsultationService {
     }
     
     /**
-     * Assesses patient eligibility based on consultation answers using business rules.
-     * Current rules focus on adverse medication reactions and severe allergy symptoms.
-     * This method is designed to be easily extensible for additional rules.
-     */
-    private EligibilityAssessment assessEligibility(List<Answer> answers) {
-        // Rule 1: Check for previous adverse reactions to medication (Q5)
-        boolean hasAdverseReaction = answers.stream()
-                .filter(answer -> "Q5".equals(answer.getQuestionId()))
-                .findFirst()
-                .map(answer -> "yes".equalsIgnoreCase(answer.getValue()))
-                .orElse(false);
-        
-        if (hasAdverseReaction) {
-            return new EligibilityAssessment(
-                    false,
-                    "Unfortunately, we cannot prescribe medication due to your previous adverse reaction to allergy medication. Please consult with your doctor.",
-                    Consultation.EligibilityStatus.NOT_ELIGIBLE
-            );
-        }
-        
-        // Rule 2: Count severe allergy symptoms (Q1, Q2, Q3)
-        long severeSymptomCount = answers.stream()
-                .filter(answer -> List.of("Q1", "Q2", "Q3").contains(answer.getQuestionId()))
-                .filter(answer -> "yes".equalsIgnoreCase(answer.getValue()))
-                .count();
-        
-        if (severeSymptomCount >= 3) {
-            return new EligibilityAssessment(
-                    true,
-                    "Great news! Based on your symptoms, you appear to be a good candidate for our pear allergy medication. We'll proceed with your consultation.",
-                    Consultation.EligibilityStatus.ELIGIBLE
-            );
-        } else if (severeSymptomCount >= 1) {
-            return new EligibilityAssessment(
-                    true,
-                    "Based on your responses, you may benefit from our medication. We'll have a doctor review your case.",
-                    Consultation.EligibilityStatus.REQUIRES_REVIEW
-            );
-        }
-        
-        // Default case: minimal symptoms
-        return new EligibilityAssessment(
-                false,
-                "Based on your responses, our medication may not be necessary for your current symptom level. Consider consulting with your doctor for alternative treatments.",
-                Consultation.EligibilityStatus.NOT_ELIGIBLE
-        );
+     * Checks the answers against the product's questions and maps them to their compact form.
+     * Completeness, duplicates and unknown questions are checked in the same pass that maps the answers, by
+     * folding each answer's bit into a mask of answered questions and comparing it with the product's required and
+     * allowed masks; the list of violations is only built, in a second pass, once a submission is rejected.
+     * 
+     * @throws InvalidAnswerSetException if an answer is to a question that is not part of the product, a question is
+     *         answered more than once or a required question is not answered
+     * @throws InvalidAnswerException if a value is not valid for its question
+     */
+    private static CompactAnswers mapAnswers(QuestionCatalogCache.ProductQuestions productQuestions, ConsultationRequest request) {
+        CompactAnswers.Builder answers = CompactAnswers.builder(productQuestions.questionIndex());
+        long answeredMask = 0;
+        boolean rejected = false;
+        for (AnswerDto answer : request.getAnswers()) {
+            long bit = productQuestions.questionBit(answer.getQuestionId());
+            if (bit == 0 || (answeredMask & bit) != 0) {
+                rejected = true;
+                continue;
+            }
+            answeredMask |= bit;
+            AnswerValue value = parsedValue(productQuestions, bit, answer);
+            if (value != null) {
+                answers.add(answer.getQuestionId(), value);
+            } else {
+                answers.add(answer.getQuestionId(), answer.getValue());
+            }
+        }
+        if (rejected || (productQuestions.requiredMask() & ~answeredMask) != 0) {
+            throw new InvalidAnswerSetException(answerSetViolations(productQuestions, request.getAnswers()));
+        }
+        return answers.build();
     }
-
+    
+    /**
+     * Lists what is wrong with a rejected answer set: unknown and repeated answers in request order, followed by
+     * the unanswered required questions in ordinal order.
+     */
+    private static List<InvalidAnswerSetException.Violation> answerSetViolations(QuestionCatalogCache.ProductQuestions productQuestions,
+                                                                                List<AnswerDto> answers) {
+        List<InvalidAnswerSetException.Violation> violations = new ArrayList<>();
+        long answeredMask = 0;
+        long reportedMask = 0;
+        for (AnswerDto answer : answers) {
+            long bit = productQuestions.questionBit(answer.getQuestionId());
+            if (bit == 0) {
+                violations.add(new InvalidAnswerSetException.Violation(answer.getQuestionId(), InvalidAnswerSetException.Reason.UNKNOWN_QUESTION));
+            } else if ((answeredMask & bit) != 0 && (reportedMask & bit) == 0) {
+                reportedMask |= bit;
+                violations.add(new InvalidAnswerSetException.Violation(answer.getQuestionId(), InvalidAnswerSetException.Reason.DUPLICATE_ANSWER));
+            }
+            answeredMask |= bit;
+        }
+        for (long missing = productQuestions.requiredMask() & ~answeredMask; missing != 0; missing &= missing - 1) {
+            String questionId = productQuestions.questionIndex().questionIdAt(Long.numberOfTrailingZeros(missing));
+            violations.add(new InvalidAnswerSetException.Violation(questionId, InvalidAnswerSetException.Reason.MISSING_REQUIRED));
+        }
+        return violations;
+    }
+    
+    /**
+     * Returns the value of an answer parsed when the request was read, or parses it now against the product's
+     * question for answers that were not read from a request body.
+     * The request was parsed against the catalog version current when it was read; if a reload since then changed
+     * the question's type or options, the parsed value no longer fits and the answer is parsed again against the
+     * question being assessed. A value that did not fit its question when the request was read is rejected here,
+     * so the error is reported for this consultation only.
+     * Answers to questions missing from the catalog are not parsed and are stored as submitted.
+     * 
+     * @param bit The answered question's bit in the product's masks
+     * @throws InvalidAnswerException if the value is not valid for the question
+     */
+    private static AnswerValue parsedValue(QuestionCatalogCache.ProductQuestions productQuestions, long bit, AnswerDto answer) {
+        Question question = productQuestions.questionAt(Long.numberOfTrailingZeros(bit));
+        if (question == null || answer.getValue() == null) {
+            return null;
+        }
+        if (answer.getParseError() != null) {
+            throw new InvalidAnswerException(answer.getQuestionId(), answer.getParseError());
+        }
+        AnswerValue parsed = answer.getParsedValue();
+        return parsed != null && fits(parsed, question) ? parsed : AnswerParser.parse(question, answer.getValue());
+    }
+    
+    /**
+     * Checks that a parsed value is of the kind the question's type produces and, for a choice, that the option at
+     * its ordinal is still the one chosen.
+     */
+    private static boolean fits(AnswerValue value, Question question) {
+        if (value instanceof AnswerValue.Choice choice) {
+            return question.getType() == Question.QuestionType.MULTIPLE_CHOICE
+                    && choice.ordinal() < question.getOptions().size()
+                    && question.getOptions().get(choice.ordinal()).equals(choice.option());
+        }
+        if (value instanceof AnswerValue.YesNo) {
+            return question.getType() == Question.QuestionType.YES_NO;
+        }
+        return question.getType() == Question.QuestionType.TEXT;
+    }
+    
     /**
-         * Helper class to encapsulate eligibility assessment results.
-         */
-        private record EligibilityAssessment(boolean eligible, String message, Consultation.EligibilityStatus status) {
+     * Finds a stored consultation, falling back to restoring it from a signed token in token mode.
+     * Forged, malformed and expired tokens are reported as not found.
+     */
+    private Consultation findConsultation(String consultationId) {
+        Optional<Consultation> stored = consultationRepository.findById(consultationId);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        if (consultationTokenService.isEnabled()) {
+            return consultationTokenService.verify(consultationId)
+                    .map(token -> token.toConsultation(consultationId))
+                    .orElseThrow(() -> new ConsultationNotFoundException(consultationId));
+        }
+        throw new ConsultationNotFoundException(consultationId);
+    }
+    
+    /**
+     * A batch item's result, with the consultation to save if it was assessed.
+     */
+    private record BatchItemOutcome(Consultation consultation, BatchEligibilityResult result) {
+        
+        static BatchItemOutcome failed(String consultationId, String errorType, String message) {
+            return new BatchItemOutcome(null, BatchEligibilityResult.failure(consultationId, errorType, message));
+        }
+    }
+    
+    /**
+     * Result of submitting consultation answers.
+     * 
+     * @param response The eligibility result, or the ASSESSING status if the assessment was queued
+     * @param queued Whether the assessment was queued for asynchronous processing
+     */
+    public record AnswerSubmission(EligibilityResponse response, boolean queued) {
     }
 }
\ No newline at end of file
@@ -0,0 +1,290 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.models.entity.Consultation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Service issuing and verifying stateless consultation tokens.
+ * When enabled, the consultation ID handed out with the questions is an HMAC-SHA256 signed token
+ * encoding the patient, product, question-set (catalog) version and issue time, so nothing needs to be
+ * stored until answers are submitted. Tokens have the form {@code base64url(payload).base64url(mac)}.
+ * Verification checks the MAC in constant time before anything is decoded and allocates only for the payload.
+ * MAC instances are pooled rather than kept per thread, since with virtual threads every request runs on a new
+ * thread and a thread-local MAC would be created and initialised on every call.
+ */
+@Service
+public class ConsultationTokenService {
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 16;
+    private static final int MAC_CHARS = 22;
+    private static final int MAX_ID_BYTES = 255;
+    private static final long CLOCK_SKEW_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int MAX_POOLED_MACS = 64;
+
+    private final boolean enabled;
+    private final SecretKeySpec key;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final BlockingQueue<MacBuffers> macBuffers = new ArrayBlockingQueue<>(MAX_POOLED_MACS);
+
+    @Autowired
+    public ConsultationTokenService(
+            @Value("${consultations.tokens.enabled:false}") boolean enabled,
+            @Value("${consultations.tokens.secret:}") String secret,
+            @Value("${consultations.tokens.max-age:24h}") Duration maxAge) {
+        this(enabled, secret, maxAge, Clock.systemUTC());
+    }
+
+    ConsultationTokenService(boolean enabled, String secret, Duration maxAge, Clock clock) {
+        this.enabled = enabled;
+        this.key = new SecretKeySpec(secret == null || secret.isBlank() ? randomSecret() : Base64.getDecoder().decode(secret), ALGORITHM);
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+    }
+
+    /**
+     * Checks whether consultation IDs are issued as stateless tokens.
+     *
+     * @return true if token mode is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Issues a signed consultation token.
+     *
+     * @param patientId The patient the consultation belongs to
+     * @param productId The product the questions were handed out for
+     * @param catalogVersion The catalog version of the question set handed out
+     * @return The token, to be used as consultation ID
+     */
+    public String issue(String patientId, String productId, long catalogVersion) {
+        byte[] patient = patientId.getBytes(StandardCharsets.UTF_8);
+        byte[] product = productId.getBytes(StandardCharsets.UTF_8);
+        if (patient.length > MAX_ID_BYTES || product.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("Patient and product IDs must not exceed " + MAX_ID_BYTES + " bytes");
+        }
+        byte[] payload = ByteBuffer.allocate(1 + Long.BYTES * 2 + 2 + patient.length + product.length)
+                .put(FORMAT_VERSION)
+                .putLong(clock.millis())
+                .putLong(catalogVersion)
+                .put((byte) patient.length)
+                .put(patient)
+                .put((byte) product.length)
+                .put(product)
+                .array();
+
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String encodedPayload = encoder.encodeToString(payload);
+        byte[] mac = new byte[MAC_BYTES];
+        MacBuffers buffers = acquireBuffers();
+        try {
+            sign(buffers, encodedPayload, encodedPayload.length());
+            System.arraycopy(buffers.computed, 0, mac, 0, MAC_BYTES);
+        } finally {
+            macBuffers.offer(buffers);
+        }
+        return encodedPayload + '.' + encoder.encodeToString(mac);
+    }
+
+    /**
+     * Verifies a consultation token and decodes its claims.
+     *
+     * @param token The token received as consultation ID
+     * @return The decoded token, or empty if the token is malformed, forged or expired
+     */
+    public Optional<ConsultationToken> verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0 || token.length() - dot - 1 != MAC_CHARS) {
+            return Optional.empty();
+        }
+        MacBuffers buffers = acquireBuffers();
+        try {
+            if (!sign(buffers, token, dot) || !decodeBase64Url(token, dot + 1, buffers.provided)) {
+                return Optional.empty();
+            }
+            int difference = 0;
+            for (int i = 0; i < MAC_BYTES; i++) {
+                difference |= buffers.computed[i] ^ buffers.provided[i];
+            }
+            if (difference != 0) {
+                return Optional.empty();
+            }
+        } finally {
+            macBuffers.offer(buffers);
+        }
+        return decodePayload(token.substring(0, dot));
+    }
+    
+    /**
+     * Takes a MAC from the pool, creating one if the pool is empty. Buffers are returned with {@code offer},
+     * which drops them when the pool is full.
+     */
+    private MacBuffers acquireBuffers() {
+        MacBuffers buffers = macBuffers.poll();
+        return buffers != null ? buffers : new MacBuffers(newMac(key));
+    }
+
+    private Optional<ConsultationToken> decodePayload(String encodedPayload) {
+        ByteBuffer payload;
+        try {
+            payload = ByteBuffer.wrap(Base64.getUrlDecoder().decode(encodedPayload));
+            if (payload.get() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+            long issuedAt = payload.getLong();
+            long catalogVersion = payload.getLong();
+            String patientId = readString(payload);
+            String productId = readString(payload);
+            long now = clock.millis();
+            if (issuedAt > now + CLOCK_SKEW_MILLIS || now - issuedAt > maxAgeMillis) {
+                return Optional.empty();
+            }
+            return Optional.of(new ConsultationToken(patientId, productId, catalogVersion, issuedAt));
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static String readString(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.get() & 0xFF];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes the MAC of the first {@code length} characters of the token into the computed buffer.
+     */
+    private static boolean sign(MacBuffers buffers, String token, int length) {
+        Mac mac = buffers.mac;
+        for (int i = 0; i < length; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7F) {
+                mac.reset();
+                return false;
+            }
+            mac.update((byte) c);
+        }
+        try {
+            mac.doFinal(buffers.computed, 0);
+            return true;
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Decodes unpadded base64url characters from {@code offset} to the end of the string into the target buffer.
+     */
+    private static boolean decodeBase64Url(String value, int offset, byte[] target) {
+        int bits = 0;
+        int bitCount = 0;
+        int position = 0;
+        for (int i = offset; i < value.length(); i++) {
+            int sextet = base64UrlValue(value.charAt(i));
+            if (sextet < 0) {
+                return false;
+            }
+            bits = (bits << 6) | sextet;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                if (position == target.length) {
+                    return false;
+                }
+                target[position++] = (byte) (bits >> bitCount);
+            }
+        }
+        // Unused trailing bits must be zero so that every MAC has a single valid encoding
+        return position == target.length && (bits & ((1 << bitCount) - 1)) == 0;
+    }
+
+    private static int base64UrlValue(char c) {
+        if (c >= 'A' && c <= 'Z') {
+            return c - 'A';
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 26;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 52;
+        }
+        if (c == '-') {
+            return 62;
+        }
+        if (c == '_') {
+            return 63;
+        }
+        return -1;
+    }
+
+    private static byte[] randomSecret() {
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        return secret;
+    }
+
+    private static Mac newMac(SecretKeySpec key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Unable to initialize " + ALGORITHM, e);
+        }
+    }
+
+    /**
+     * Pooled MAC instance and scratch buffers, so verification does not allocate.
+     */
+    private static final class MacBuffers {
+        private final Mac mac;
+        private final byte[] computed;
+        private final byte[] provided = new byte[MAC_BYTES];
+
+        private MacBuffers(Mac mac) {
+            this.mac = mac;
+            this.computed = new byte[mac.getMacLength()];
+        }
+    }
+
+    /**
+     * Claims carried by a verified consultation token.
+     */
+    public record ConsultationToken(String patientId, String productId, long catalogVersion, long issuedAt) {
+
+        /**
+         * Creates the PENDING consultation described by this token.
+         *
+         * @param consultationId The token itself, used as consultation ID
+         * @return The consultation
+         */
+        public Consultation toConsultation(String consultationId) {
+            Consultation consultation = new Consultation(patientId, productId);
+            consultation.setId(consultationId);
+            consultation.setCreatedAt(issuedAt);
+            consultation.setQuestionSetVersion(catalogVersion);
+            return consultation;
+        }
+    }
+}
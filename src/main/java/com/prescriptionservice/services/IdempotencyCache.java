@@ -0,0 +1,220 @@
+package com.prescriptionservice.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import com.prescriptionservice.exceptions.IdempotencyKeyReusedException;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of answer submissions keyed by the client's Idempotency-Key, so a retried submission returns the
+ * result of the first attempt instead of being looked up, assessed and saved again.
+ * Keys are scoped to the requesting patient and their consultation, so a cached result is only ever returned to the
+ * patient it was computed for: another patient replaying the consultation ID, key and body misses the cache and is
+ * rejected by the submission's ownership check.
+ * Concurrent submissions with the same key are coalesced: the first one runs and the others wait for its result.
+ * Each entry keeps a SHA-256 fingerprint of its request, so a key sent again with different patient details or
+ * answers is rejected rather than answered with the first result. Only successful results are kept; a failed
+ * submission is reported to every waiting duplicate and can then be retried with the same key.
+ * Entries expire {@code ttl} after they were created. As every entry lives equally long, insertion order is expiry
+ * order, so a FIFO queue is enough to evict expired entries, and the oldest ones once {@code max-size} is reached.
+ */
+@Service
+public class IdempotencyCache {
+
+    /**
+     * Longest Idempotency-Key accepted.
+     */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final CurrentPatient currentPatient;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Every cached entry, oldest first; may also hold failed entries already removed from the map
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Counter hits;
+    private final Timer coalescedWaits;
+
+    @Autowired
+    public IdempotencyCache(
+            MeterRegistry meterRegistry,
+            CurrentPatient currentPatient,
+            @Value("${consultations.idempotency.ttl:1h}") Duration ttl,
+            @Value("${consultations.idempotency.max-size:100000}") int maxSize) {
+        this(meterRegistry, currentPatient, ttl, maxSize, Clock.systemUTC());
+    }
+
+    IdempotencyCache(MeterRegistry meterRegistry, CurrentPatient currentPatient, Duration ttl, int maxSize, Clock clock) {
+        this.currentPatient = currentPatient;
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = maxSize;
+        this.clock = clock;
+
+        Gauge.builder("consultations.idempotency.size", entries, Map::size)
+                .description("Answer submissions held for idempotent retries")
+                .register(meterRegistry);
+        this.hits = Counter.builder("consultations.idempotency.hits")
+                .description("Retried answer submissions answered from the idempotency cache")
+                .register(meterRegistry);
+        this.coalescedWaits = Timer.builder("consultations.idempotency.coalesced")
+                .description("Time duplicate answer submissions waited for the in-flight submission with the same key")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the result of the requesting patient's submission with the given key, running it if there is none yet.
+     *
+     * @param consultationId The consultation the answers are submitted for
+     * @param idempotencyKey The client's Idempotency-Key
+     * @param request The submitted request, which retries must repeat
+     * @param submission Submits the answers; run at most once per key while its result is cached
+     * @return The result of the first submission with this key
+     * @throws IllegalArgumentException if the key is empty or longer than {@value #MAX_KEY_LENGTH} characters
+     * @throws IdempotencyKeyReusedException if the key was first sent with a different request
+     */
+    public ConsultationService.AnswerSubmission submit(String consultationId, String idempotencyKey,
+                                                       ConsultationRequest request,
+                                                       Supplier<ConsultationService.AnswerSubmission> submission) {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String key = currentPatient.id() + '\n' + consultationId + '\n' + idempotencyKey;
+        long now = clock.millis();
+        Entry created = new Entry(key, fingerprint(request), now + ttlMillis);
+        Entry existing;
+        while ((existing = entries.putIfAbsent(key, created)) != null) {
+            if (existing.expiresAt > now) {
+                if (!Arrays.equals(existing.fingerprint, created.fingerprint)) {
+                    throw new IdempotencyKeyReusedException(idempotencyKey);
+                }
+                return await(existing);
+            }
+            entries.remove(key, existing);
+        }
+        insertionOrder.add(created);
+        queued.incrementAndGet();
+        evict(now);
+
+        try {
+            ConsultationService.AnswerSubmission result = submission.get();
+            created.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            entries.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private ConsultationService.AnswerSubmission await(Entry entry) {
+        if (entry.result.isDone()) {
+            hits.increment();
+            return join(entry.result);
+        }
+        long start = System.nanoTime();
+        try {
+            return join(entry.result);
+        } finally {
+            coalescedWaits.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Waits for a result, rethrowing the exception the submission failed with as is.
+     */
+    private static ConsultationService.AnswerSubmission join(CompletableFuture<ConsultationService.AnswerSubmission> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Hashes the patient details and the answers as sent, each field length-prefixed so that moving characters
+     * from one field to the next changes the hash.
+     */
+    static byte[] fingerprint(ConsultationRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        update(digest, request.getPatientName());
+        update(digest, request.getDateOfBirth());
+        update(digest, request.getAddress());
+        if (request.getAnswers() != null) {
+            for (AnswerDto answer : request.getAnswers()) {
+                update(digest, answer.getQuestionId());
+                update(digest, answer.getValue());
+            }
+        }
+        return digest.digest();
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        byte[] bytes = value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        int length = bytes == null ? -1 : bytes.length;
+        digest.update(new byte[]{(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length});
+        if (bytes != null) {
+            digest.update(bytes);
+        }
+    }
+
+    /**
+     * Removes expired entries, and the oldest entries beyond {@code max-size}, from the head of the queue.
+     */
+    private void evict(long now) {
+        Entry oldest;
+        while ((oldest = insertionOrder.peek()) != null && (oldest.expiresAt <= now || queued.get() > maxSize)) {
+            if (insertionOrder.remove(oldest)) {
+                queued.decrementAndGet();
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final String key;
+        private final byte[] fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<ConsultationService.AnswerSubmission> result = new CompletableFuture<>();
+
+        private Entry(String key, byte[] fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
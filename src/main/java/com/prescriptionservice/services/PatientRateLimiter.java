@@ -0,0 +1,186 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-patient token buckets admitting requests to the question, answer and batch endpoints, so that one misbehaving
+ * client cannot starve the others. Each endpoint has its own limits: a bucket holds up to {@code capacity} requests
+ * and regains one every {@code refill-period}.
+ * A bucket is a single {@link AtomicLong} holding the time at which it will be full again, so taking a token is one
+ * compare-and-set, without locks and without a refill timer. A request is admitted when that time, pushed back by one
+ * refill period, is at most {@code capacity} periods ahead; otherwise the wait until it would be is the Retry-After.
+ * Buckets that have been full for {@code idle-timeout} are evicted, as a full bucket is the same as no bucket; a
+ * request racing with the eviction of its bucket may go uncounted, which can only happen to a patient that had been
+ * idle for the whole timeout.
+ */
+@Service
+public class PatientRateLimiter {
+    
+    /**
+     * Endpoints with a rate limit of their own.
+     */
+    public enum Endpoint {
+        /** GET questions, which starts a consultation */
+        QUESTIONS("questions"),
+        /** POST answers */
+        ANSWERS("answers"),
+        /** POST answers/batch, which may assess many consultations, so it is charged against a bucket of its own */
+        BATCH("batch");
+        
+        private final String tag;
+        
+        Endpoint(String tag) {
+            this.tag = tag;
+        }
+    }
+    
+    private final boolean enabled;
+    private final long idleTimeoutMillis;
+    private final Clock clock;
+    private final Limit[] limits;
+    private ScheduledExecutorService evictor;
+    
+    @Autowired
+    public PatientRateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${consultations.rate-limit.enabled:false}") boolean enabled,
+            @Value("${consultations.rate-limit.questions.capacity:20}") int questionsCapacity,
+            @Value("${consultations.rate-limit.questions.refill-period:200ms}") Duration questionsRefillPeriod,
+            @Value("${consultations.rate-limit.answers.capacity:10}") int answersCapacity,
+            @Value("${consultations.rate-limit.answers.refill-period:1s}") Duration answersRefillPeriod,
+            @Value("${consultations.rate-limit.batch.capacity:2}") int batchCapacity,
+            @Value("${consultations.rate-limit.batch.refill-period:30s}") Duration batchRefillPeriod,
+            @Value("${consultations.rate-limit.idle-timeout:5m}") Duration idleTimeout) {
+        this(meterRegistry, enabled, questionsCapacity, questionsRefillPeriod, answersCapacity, answersRefillPeriod,
+                batchCapacity, batchRefillPeriod, idleTimeout, Clock.systemUTC());
+    }
+    
+    PatientRateLimiter(MeterRegistry meterRegistry, boolean enabled, int questionsCapacity, Duration questionsRefillPeriod,
+                       int answersCapacity, Duration answersRefillPeriod, int batchCapacity, Duration batchRefillPeriod,
+                       Duration idleTimeout, Clock clock) {
+        if (questionsCapacity < 1 || answersCapacity < 1 || batchCapacity < 1) {
+            throw new IllegalArgumentException("Rate limit capacities must be at least 1");
+        }
+        this.enabled = enabled;
+        this.idleTimeoutMillis = idleTimeout.toMillis();
+        this.clock = clock;
+        this.limits = new Limit[]{
+                new Limit(meterRegistry, Endpoint.QUESTIONS, questionsCapacity, questionsRefillPeriod),
+                new Limit(meterRegistry, Endpoint.ANSWERS, answersCapacity, answersRefillPeriod),
+                new Limit(meterRegistry, Endpoint.BATCH, batchCapacity, batchRefillPeriod)
+        };
+    }
+    
+    @PostConstruct
+    public void startEvictor() {
+        if (!enabled) {
+            return;
+        }
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1, idleTimeoutMillis / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdleBuckets, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stopEvictor() {
+        if (evictor != null) {
+            evictor.shutdownNow();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Takes a token from a patient's bucket for an endpoint, admitting the request.
+     * Does nothing when rate limiting is disabled.
+     * 
+     * @param endpoint The endpoint requested
+     * @param patientId The patient making the request
+     * @throws RateLimitExceededException if the bucket is empty, with the time until it holds a token again
+     */
+    public void acquire(Endpoint endpoint, String patientId) {
+        if (!enabled) {
+            return;
+        }
+        Limit limit = limits[endpoint.ordinal()];
+        long now = clock.millis();
+        AtomicLong bucket = limit.buckets.get(patientId);
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = limit.buckets.putIfAbsent(patientId, created);
+            if (bucket == null) {
+                bucket = created;
+            }
+        }
+        
+        long fullAt;
+        long next;
+        do {
+            fullAt = bucket.get();
+            next = Math.max(fullAt, now) + limit.refillMillis;
+            long wait = next - now - limit.burstMillis;
+            if (wait > 0) {
+                limit.rejections.increment();
+                throw new RateLimitExceededException(Math.max(1, (wait + 999) / 1000));
+            }
+        } while (!bucket.compareAndSet(fullAt, next));
+    }
+    
+    /**
+     * Removes the buckets that have been full for at least the idle timeout.
+     */
+    void evictIdleBuckets() {
+        long idleSince = clock.millis() - idleTimeoutMillis;
+        for (Limit limit : limits) {
+            limit.buckets.values().removeIf(bucket -> bucket.get() <= idleSince);
+        }
+    }
+    
+    /**
+     * An endpoint's limits and buckets, keyed by patient.
+     */
+    private static final class Limit {
+        
+        private final long refillMillis;
+        // How far ahead of now a bucket's full time may be: the time to refill a whole bucket
+        private final long burstMillis;
+        private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final Counter rejections;
+        
+        Limit(MeterRegistry meterRegistry, Endpoint endpoint, int capacity, Duration refillPeriod) {
+            this.refillMillis = Math.max(1, refillPeriod.toMillis());
+            this.burstMillis = capacity * refillMillis;
+            Gauge.builder("consultations.ratelimit.buckets", buckets, Map::size)
+                    .description("Patients holding a rate limit bucket")
+                    .tag("endpoint", endpoint.tag)
+                    .register(meterRegistry);
+            this.rejections = Counter.builder("consultations.ratelimit.rejections")
+                    .description("Requests rejected with 429 because the patient's bucket was empty")
+                    .tag("endpoint", endpoint.tag)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.ProductNotFoundException;
+import com.prescriptionservice.models.dto.QuestionDto;
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
+import com.prescriptionservice.models.entity.Question;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.ProductRepository;
+import com.prescriptionservice.repositories.QuestionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-product cache of resolved, immutable question lists.
+ * Entries are tagged with the catalog version they were built from and rebuilt on first access
+ * after a product or question has been saved, so lookups are a single map read on the hot path.
+ * The questions themselves come from the product's {@link ProductQuestionIndex}, which the catalog resolves when
+ * it is loaded; a rebuild only renders the responses.
+ * Each entry also holds the questions pre-rendered to JSON together with a strong ETag of those bytes,
+ * and the product's required and allowed questions as bitmasks over question ordinals, so a submission can be
+ * checked against them without building any collection.
+ */
+@Service
+public class QuestionCatalogCache {
+    
+    private final ProductRepository productRepository;
+    private final QuestionRepository questionRepository;
+    private final CatalogVersion catalogVersion;
+    private final ObjectMapper objectMapper;
+    private final Map<String, ProductQuestions> entries = new ConcurrentHashMap<>();
+    
+    @Autowired
+    public QuestionCatalogCache(ProductRepository productRepository, QuestionRepository questionRepository, CatalogVersion catalogVersion, ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.questionRepository = questionRepository;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+    }
+    
+    /**
+     * Returns the product and its resolved questions for the current catalog version.
+     * 
+     * @param productId The product ID
+     * @return The cached product questions
+     * @throws ProductNotFoundException if the product does not exist
+     */
+    public ProductQuestions getProductQuestions(String productId) {
+        long version = catalogVersion.current();
+        ProductQuestions cached = cached(productId, version);
+        if (cached != null) {
+            return cached;
+        }
+        
+        // The version is read before the repositories, so an entry racing with a catalog change is rebuilt on next access
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(productId));
+        return cache(version, product, questionRepository.findQuestionIndex(product));
+    }
+    
+    /**
+     * Returns the entry of a product if it was built from the given catalog version.
+     * 
+     * @param productId The product ID
+     * @param version The current catalog version, read before any repository
+     * @return The cached product questions, or null if there is no entry for that version
+     */
+    ProductQuestions cached(String productId, long version) {
+        ProductQuestions cached = entries.get(productId);
+        return cached != null && cached.catalogVersion() == version ? cached : null;
+    }
+    
+    /**
+     * Builds and caches the entry of a product from its question index, for callers that looked the product and
+     * its questions up themselves after a cache miss.
+     * 
+     * @param version The catalog version read before the product was looked up
+     * @param product The product
+     * @param questionIndex The product's resolved question index
+     * @return The cached product questions
+     */
+    ProductQuestions cache(long version, Product product, ProductQuestionIndex questionIndex) {
+        List<Question> questions = questionIndex.questions();
+        // Products are limited to 64 questions by the eligibility rules, so every ordinal has a bit
+        int maskedQuestions = Math.min(questionIndex.size(), Long.SIZE);
+        long allowedMask = maskedQuestions == Long.SIZE ? -1L : (1L << maskedQuestions) - 1;
+        List<QuestionDto> questionDtos = questions.stream()
+                .map(QuestionDto::fromEntity)
+                .toList();
+        
+        byte[] questionsJson = render(questionDtos);
+        
+        ProductQuestions productQuestions = new ProductQuestions(version, product, questionIndex,
+                questions, questionIndex.requiredMask(), allowedMask, questionDtos, questionsJson, etagOf(questionsJson));
+        entries.put(product.getId(), productQuestions);
+        return productQuestions;
+    }
+    
+    private byte[] render(List<QuestionDto> questionDtos) {
+        try {
+            return objectMapper.writeValueAsBytes(questionDtos);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize questions", e);
+        }
+    }
+    
+    private static String etagOf(byte[] questionsJson) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(questionsJson);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+    
+    /**
+     * Immutable snapshot of a product and its questions at a given catalog version.
+     * The question DTOs and the rendered JSON are shared between responses and must not be modified.
+     * {@code requiredMask} has the bits of the questions marked as required in the catalog, {@code allowedMask}
+     * the bits of every question of the product, including questions missing from the catalog.
+     */
+    public record ProductQuestions(long catalogVersion, Product product, ProductQuestionIndex questionIndex, List<Question> questions,
+                                   long requiredMask, long allowedMask,
+                                   List<QuestionDto> questionDtos, byte[] questionsJson, String etag) {
+        
+        /**
+         * Returns the bit of a question in the product's masks.
+         * 
+         * @param questionId The question ID, may be null
+         * @return The question's bit, or 0 if the question is not part of the product
+         */
+        public long questionBit(String questionId) {
+            int ordinal = questionIndex.ordinalOf(questionId);
+            return ordinal >= 0 && ordinal < Long.SIZE ? (1L << ordinal) & allowedMask : 0L;
+        }
+        
+        /**
+         * Returns the question with the given ordinal in the product's question index.
+         * 
+         * @param ordinal The ordinal
+         * @return The question, or null if the product refers to a question missing from the catalog
+         */
+        public Question questionAt(int ordinal) {
+            return questionIndex.questionAt(ordinal);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.AssessmentInProgressException;
+import com.prescriptionservice.exceptions.ConsultationAccessException;
+import com.prescriptionservice.exceptions.ConsultationNotFoundException;
+import com.prescriptionservice.exceptions.InvalidAnswerSetException;
+import com.prescriptionservice.exceptions.PatientNotFoundException;
+import com.prescriptionservice.exceptions.ProductNotFoundException;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import com.prescriptionservice.models.dto.SerializedQuestionsResponse;
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.reactive.ReactiveConsultationRepository;
+import com.prescriptionservice.repositories.reactive.ReactivePatientRepository;
+import com.prescriptionservice.repositories.reactive.ReactiveProductRepository;
+import com.prescriptionservice.repositories.reactive.ReactiveQuestionRepository;
+import com.prescriptionservice.services.ConsultationMetrics.Stage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ConsultationService} for the reactive stack, covering question retrieval and
+ * answer submission.
+ * Repository calls go through the reactive repositories, and the consultation and patient lookups of a submission
+ * run concurrently instead of one after the other. Questions are served from the same {@link QuestionCatalogCache}
+ * entries, and answers are mapped and assessed by {@link ConsultationService}, which does no I/O, so both stacks
+ * give the same results and record the same metrics.
+ */
+@Service
+public class ReactiveConsultationService {
+    
+    private final QuestionCatalogCache questionCatalogCache;
+    private final CatalogVersion catalogVersion;
+    private final ReactiveProductRepository productRepository;
+    private final ReactiveQuestionRepository questionRepository;
+    private final ReactivePatientRepository patientRepository;
+    private final ReactiveConsultationRepository consultationRepository;
+    private final ConsultationService consultationService;
+    private final ConsultationTokenService consultationTokenService;
+    private final ConsultationMetrics consultationMetrics;
+    private final CurrentPatient currentPatient;
+    
+    @Autowired
+    public ReactiveConsultationService(QuestionCatalogCache questionCatalogCache, CatalogVersion catalogVersion,
+                                       ReactiveProductRepository productRepository, ReactiveQuestionRepository questionRepository,
+                                       ReactivePatientRepository patientRepository, ReactiveConsultationRepository consultationRepository,
+                                       ConsultationService consultationService, ConsultationTokenService consultationTokenService,
+                                       ConsultationMetrics consultationMetrics, CurrentPatient currentPatient) {
+        this.questionCatalogCache = questionCatalogCache;
+        this.catalogVersion = catalogVersion;
+        this.productRepository = productRepository;
+        this.questionRepository = questionRepository;
+        this.patientRepository = patientRepository;
+        this.consultationRepository = consultationRepository;
+        this.consultationService = consultationService;
+        this.consultationTokenService = consultationTokenService;
+        this.consultationMetrics = consultationMetrics;
+        this.currentPatient = currentPatient;
+    }
+    
+    /**
+     * Retrieves the pre-rendered questions of a product and starts a consultation, as
+     * {@link ConsultationService#getSerializedConsultationQuestions(String)} does.
+     * 
+     * @param productId The product ID to retrieve questions for
+     * @return The rendered questions, their ETag and the consultation ID; fails with {@link ProductNotFoundException}
+     *         if the product does not exist
+     */
+    public Mono<SerializedQuestionsResponse> getSerializedConsultationQuestions(String productId) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return getProductQuestions(productId)
+                    .flatMap(productQuestions -> startConsultation(productQuestions)
+                            .map(consultationId -> {
+                                consultationMetrics.recordQuestions(productQuestions.product().getId(), start);
+                                return new SerializedQuestionsResponse(productQuestions.questionDtos(), productQuestions.questionsJson(),
+                                        productQuestions.etag(), consultationId);
+                            }));
+        });
+    }
+    
+    private Mono<String> startConsultation(QuestionCatalogCache.ProductQuestions productQuestions) {
+        String patientId = currentPatient.id();
+        String productId = productQuestions.product().getId();
+        if (consultationTokenService.isEnabled()) {
+            return Mono.just(consultationTokenService.issue(patientId, productId, productQuestions.catalogVersion()));
+        }
+        
+        Consultation consultation = new Consultation(patientId, productId);
+        consultation.setQuestionSetVersion(productQuestions.catalogVersion());
+        return consultationRepository.save(consultation).map(Consultation::getId);
+    }
+    
+    /**
+     * Processes consultation answers and determines patient eligibility, as
+     * {@link ConsultationService#processConsultation(String, ConsultationRequest)} does.
+     * The consultation and the patient are looked up concurrently; each lookup stage is timed from the start of
+     * the call to the end of its own lookup. Answers are always assessed synchronously, and are rejected while the
+     * consultation is ASSESSING, e.g. when a servlet instance sharing the store queued its assessment.
+     * 
+     * @param consultationId The consultation session ID
+     * @param request The consultation request containing patient info and answers
+     * @return The eligibility result; fails with {@link ConsultationNotFoundException}, {@link PatientNotFoundException},
+     *         {@link ConsultationAccessException}, {@link InvalidAnswerSetException} or
+     *         {@link AssessmentInProgressException} as the blocking service throws them
+     */
+    public Mono<EligibilityResponse> processConsultation(String consultationId, ConsultationRequest request) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            String patientId = currentPatient.id();
+            
+            Mono<Consultation> consultationLookup = findConsultation(consultationId)
+                    .doOnNext(found -> consultationMetrics.recordStage(Stage.CONSULTATION_LOOKUP, start));
+            Mono<Boolean> patientLookup = patientRepository.findById(patientId)
+                    .switchIfEmpty(Mono.error(() -> new PatientNotFoundException(patientId)))
+                    .map(patient -> {
+                        consultationMetrics.recordStage(Stage.PATIENT_LOOKUP, start);
+                        return Boolean.TRUE;
+                    });
+            
+            return Mono.zip(consultationLookup, patientLookup, (consultation, patientFound) -> consultation)
+                    .map(consultation -> {
+                        long stageStart = System.nanoTime();
+                        // Ensure consultation belongs to the authenticated patient
+                        if (!patientId.equals(consultation.getPatientId())) {
+                            throw new ConsultationAccessException(patientId, consultationId);
+                        }
+                        consultationMetrics.recordStage(Stage.ACCESS_CHECK, stageStart);
+                        return consultation;
+                    })
+                    .flatMap(consultation -> assess(consultation, request)
+                            .flatMap(response -> {
+                                long saveStart = System.nanoTime();
+                                return consultationRepository.save(consultation)
+                                        .map(saved -> {
+                                            consultationMetrics.recordStage(Stage.SAVE, saveStart);
+                                            consultationMetrics.recordAnswers(consultation.getProductId(), start);
+                                            return response;
+                                        });
+                            }));
+        });
+    }
+    
+    private Mono<EligibilityResponse> assess(Consultation consultation, ConsultationRequest request) {
+        return Mono.defer(() -> {
+            long stageStart = System.nanoTime();
+            return getProductQuestions(consultation.getProductId())
+                    .map(productQuestions -> consultationService.assessConsultation(consultation, productQuestions,
+                            request, stageStart));
+        });
+    }
+    
+    /**
+     * Returns the cached questions of a product, looking the product and its question index up through the
+     * reactive repositories on a cache miss.
+     */
+    private Mono<QuestionCatalogCache.ProductQuestions> getProductQuestions(String productId) {
+        return Mono.defer(() -> {
+            // The version is read before the repositories, as in QuestionCatalogCache#getProductQuestions
+            long version = catalogVersion.current();
+            QuestionCatalogCache.ProductQuestions cached = questionCatalogCache.cached(productId, version);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return productRepository.findById(productId)
+                    .switchIfEmpty(Mono.error(() -> new ProductNotFoundException(productId)))
+                    .flatMap(product -> questionRepository.findQuestionIndex(product)
+                            .map(questionIndex -> questionCatalogCache.cache(version, product, questionIndex)));
+        });
+    }
+    
+    /**
+     * Finds a stored consultation, falling back to restoring it from a signed token in token mode.
+     */
+    private Mono<Consultation> findConsultation(String consultationId) {
+        return consultationRepository.findById(consultationId)
+                .switchIfEmpty(Mono.defer(() -> consultationTokenService.isEnabled()
+                        ? Mono.justOrEmpty(consultationTokenService.verify(consultationId)
+                                .map(token -> token.toConsultation(consultationId)))
+                        : Mono.empty()))
+                .switchIfEmpty(Mono.error(() -> new ConsultationNotFoundException(consultationId)));
+    }
+}
@@ -0,0 +1,237 @@
+package com.prescriptionservice.services.eligibility;
+
+import com.prescriptionservice.models.entity.Answer;
+import com.prescriptionservice.models.entity.EligibilityRules;
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.ProductQuestionIndex;
+import com.prescriptionservice.models.entity.Question;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Eligibility rules of a single product compiled into bitmasks over the product's question ordinals.
+ * Answers are folded into a "yes" mask in one pass, after which every rule is a mask test,
+ * so evaluating a consultation does not allocate.
+ * When every question of the product is YES_NO and there are few enough of them, the outcome of every
+ * possible mask is materialized into a decision table and evaluation becomes a single array lookup.
+ */
+public final class CompiledEligibilityRules {
+
+    /**
+     * Maximum number of questions a product can have, bounded by the width of the answer masks.
+     */
+    public static final int MAX_QUESTIONS = Long.SIZE;
+    
+    /**
+     * Maximum number of questions for which a decision table is materialized (2^10 entries).
+     */
+    public static final int MAX_DECISION_TABLE_QUESTIONS = 10;
+
+    private static final String YES = "yes";
+
+    private final List<String> questionIds;
+    private final List<Question> questions;
+    private final EligibilityRules source;
+    private final ProductQuestionIndex questionIndex;
+    private final long vetoMask;
+    private final long symptomMask;
+    private final int[] thresholdCounts;
+    private final EligibilityAssessment[] thresholdAssessments;
+    private final EligibilityAssessment vetoAssessment;
+    private final EligibilityAssessment defaultAssessment;
+    private final EligibilityAssessment[] decisionTable;
+
+    private CompiledEligibilityRules(Product product, List<Question> questions, ProductQuestionIndex questionIndex, long vetoMask, long symptomMask,
+                                     int[] thresholdCounts, EligibilityAssessment[] thresholdAssessments) {
+        EligibilityRules rules = product.getEligibilityRules();
+        this.questionIds = product.getQuestionIds();
+        this.questions = questions;
+        this.source = rules;
+        this.questionIndex = questionIndex;
+        this.vetoMask = vetoMask;
+        this.symptomMask = symptomMask;
+        this.thresholdCounts = thresholdCounts;
+        this.thresholdAssessments = thresholdAssessments;
+        this.vetoAssessment = EligibilityAssessment.fromOutcome(rules.getVetoOutcome());
+        this.defaultAssessment = EligibilityAssessment.fromOutcome(rules.getDefaultOutcome());
+        this.decisionTable = null;
+    }
+
+    private CompiledEligibilityRules(CompiledEligibilityRules rules, EligibilityAssessment[] decisionTable) {
+        this.questionIds = rules.questionIds;
+        this.questions = rules.questions;
+        this.source = rules.source;
+        this.questionIndex = rules.questionIndex;
+        this.vetoMask = rules.vetoMask;
+        this.symptomMask = rules.symptomMask;
+        this.thresholdCounts = rules.thresholdCounts;
+        this.thresholdAssessments = rules.thresholdAssessments;
+        this.vetoAssessment = rules.vetoAssessment;
+        this.defaultAssessment = rules.defaultAssessment;
+        this.decisionTable = decisionTable;
+    }
+
+    /**
+     * Compiles the eligibility rules of a product, materializing a decision table when the product's
+     * questions are all YES_NO and there are at most {@link #MAX_DECISION_TABLE_QUESTIONS} of them.
+     *
+     * @param product The product whose rules should be compiled
+     * @param questions The product's questions, in the order of {@link Product#getQuestionIds()}
+     * @return The compiled rules
+     * @throws IllegalStateException if the product has no rules or the rules reference unknown questions
+     */
+    public static CompiledEligibilityRules compile(Product product, List<Question> questions) {
+        CompiledEligibilityRules rules = compileRules(product, questions);
+        if (!supportsDecisionTable(product, questions)) {
+            return rules;
+        }
+        EligibilityAssessment[] decisionTable = new EligibilityAssessment[1 << questions.size()];
+        for (int mask = 0; mask < decisionTable.length; mask++) {
+            decisionTable[mask] = rules.evaluate((long) mask);
+        }
+        return new CompiledEligibilityRules(rules, decisionTable);
+    }
+
+    private static boolean supportsDecisionTable(Product product, List<Question> questions) {
+        List<String> questionIds = product.getQuestionIds();
+        if (questions.size() != questionIds.size() || questions.size() > MAX_DECISION_TABLE_QUESTIONS) {
+            return false;
+        }
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            if (question.getType() != Question.QuestionType.YES_NO || !question.getId().equals(questionIds.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the eligibility rules of a product without a decision table.
+     *
+     * @param product The product whose rules should be compiled
+     * @return The compiled rules
+     * @throws IllegalStateException if the product has no rules or the rules reference unknown questions
+     */
+    public static CompiledEligibilityRules compile(Product product) {
+        return compileRules(product, null);
+    }
+
+    private static CompiledEligibilityRules compileRules(Product product, List<Question> questions) {
+        EligibilityRules rules = product.getEligibilityRules();
+        if (rules == null || rules.getVetoOutcome() == null || rules.getDefaultOutcome() == null) {
+            throw new IllegalStateException("Product " + product.getId() + " has no complete eligibility rules");
+        }
+
+        List<String> questionIds = product.getQuestionIds();
+        if (questionIds.size() > MAX_QUESTIONS) {
+            throw new IllegalStateException("Product " + product.getId() + " has more than " + MAX_QUESTIONS + " questions");
+        }
+        ProductQuestionIndex questionIndex = new ProductQuestionIndex(questionIds);
+
+        List<EligibilityRules.SymptomThreshold> thresholds = new ArrayList<>(rules.getSymptomThresholds());
+        thresholds.sort(Comparator.comparingInt(EligibilityRules.SymptomThreshold::getMinimumCount).reversed());
+        int[] thresholdCounts = new int[thresholds.size()];
+        EligibilityAssessment[] thresholdAssessments = new EligibilityAssessment[thresholds.size()];
+        for (int i = 0; i < thresholds.size(); i++) {
+            thresholdCounts[i] = thresholds.get(i).getMinimumCount();
+            thresholdAssessments[i] = EligibilityAssessment.fromOutcome(thresholds.get(i).getOutcome());
+        }
+
+        return new CompiledEligibilityRules(
+                product,
+                questions,
+                questionIndex,
+                maskOf(product, questionIndex, rules.getVetoQuestionIds()),
+                maskOf(product, questionIndex, rules.getSymptomQuestionIds()),
+                thresholdCounts,
+                thresholdAssessments
+        );
+    }
+
+    private static long maskOf(Product product, ProductQuestionIndex questionIndex, List<String> ruleQuestionIds) {
+        long mask = 0L;
+        for (String questionId : ruleQuestionIds) {
+            int ordinal = questionIndex.ordinalOf(questionId);
+            if (ordinal < 0) {
+                throw new IllegalStateException("Eligibility rules of product " + product.getId()
+                        + " reference question " + questionId + " which is not part of the product");
+            }
+            mask |= 1L << ordinal;
+        }
+        return mask;
+    }
+
+    /**
+     * Checks whether these rules were compiled from the current definition of the given product.
+     *
+     * @param product The product to check against
+     * @param questions The product's resolved questions
+     * @return true if the product's rules and questions are the ones these rules were compiled from
+     */
+    public boolean isCompiledFrom(Product product, List<Question> questions) {
+        return source == product.getEligibilityRules()
+                && questionIds == product.getQuestionIds()
+                && this.questions == questions;
+    }
+
+    /**
+     * Checks whether outcomes are looked up in a materialized decision table.
+     *
+     * @return true if a decision table was built for the product
+     */
+    public boolean hasDecisionTable() {
+        return decisionTable != null;
+    }
+
+    /**
+     * Evaluates the rules against a list of answers.
+     * Answers to questions outside the product are ignored and only the first answer to a question counts.
+     *
+     * @param answers The patient's answers
+     * @return The shared assessment for the matching rule
+     */
+    public EligibilityAssessment evaluate(List<Answer> answers) {
+        long answered = 0L;
+        long yes = 0L;
+        for (int i = 0, size = answers.size(); i < size; i++) {
+            Answer answer = answers.get(i);
+            int ordinal = questionIndex.ordinalOf(answer.getQuestionId());
+            if (ordinal < 0) {
+                continue;
+            }
+            long bit = 1L << ordinal;
+            if ((answered & bit) == 0) {
+                answered |= bit;
+                if (YES.equalsIgnoreCase(answer.getValue())) {
+                    yes |= bit;
+                }
+            }
+        }
+        return evaluate(yes);
+    }
+
+    /**
+     * Evaluates the rules against a mask of the questions answered "yes", indexed by product question ordinal.
+     *
+     * @param yesMask Bit i is set when the i-th question of the product was answered "yes"
+     * @return The shared assessment for the matching rule
+     */
+    public EligibilityAssessment evaluate(long yesMask) {
+        if (decisionTable != null) {
+            return decisionTable[(int) yesMask];
+        }
+        if ((yesMask & vetoMask) != 0) {
+            return vetoAssessment;
+        }
+        int symptomCount = Long.bitCount(yesMask & symptomMask);
+        for (int i = 0; i < thresholdCounts.length; i++) {
+            if (symptomCount >= thresholdCounts[i]) {
+                return thresholdAssessments[i];
+            }
+        }
+        return defaultAssessment;
+    }
+}
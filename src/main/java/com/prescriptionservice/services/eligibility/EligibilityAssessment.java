@@ -0,0 +1,15 @@
+package com.prescriptionservice.services.eligibility;
+
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.models.entity.EligibilityRules;
+
+/**
+ * Result of an eligibility assessment.
+ * Instances are created once per rule outcome when rules are compiled and shared between requests.
+ */
+public record EligibilityAssessment(boolean eligible, String message, Consultation.EligibilityStatus status) {
+
+    static EligibilityAssessment fromOutcome(EligibilityRules.Outcome outcome) {
+        return new EligibilityAssessment(outcome.isEligible(), outcome.getMessage(), outcome.getStatus());
+    }
+}
@@ -0,0 +1,83 @@
+package com.prescriptionservice.services.eligibility;
+
+import com.prescriptionservice.models.entity.Answer;
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.Question;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service assessing eligibility using the declarative rules of each product.
+ * Rules are compiled on first use and recompiled only when the product's rules or resolved questions are replaced.
+ * Publishes how many assessments were answered from a decision table versus evaluated rule by rule.
+ */
+@Service
+public class EligibilityRuleEngine {
+
+    private final Map<String, CompiledEligibilityRules> compiledRules = new ConcurrentHashMap<>();
+    private final Counter decisionTableHits;
+    private final Counter decisionTableFallbacks;
+
+    @Autowired
+    public EligibilityRuleEngine(MeterRegistry meterRegistry) {
+        this.decisionTableHits = Counter.builder("eligibility.decision.table")
+                .description("Eligibility assessments by decision table usage")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.decisionTableFallbacks = Counter.builder("eligibility.decision.table")
+                .description("Eligibility assessments by decision table usage")
+                .tag("result", "fallback")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Assesses patient eligibility for a product based on consultation answers.
+     *
+     * @param product The product the consultation is for
+     * @param questions The product's resolved questions
+     * @param answers The patient's answers
+     * @return The eligibility assessment
+     */
+    public EligibilityAssessment assess(Product product, List<Question> questions, List<Answer> answers) {
+        return countDecisionTableUsage(compiledRulesFor(product, questions)).evaluate(answers);
+    }
+
+    /**
+     * Assesses patient eligibility for a product from the mask of questions answered "yes".
+     *
+     * @param product The product the consultation is for
+     * @param questions The product's resolved questions
+     * @param yesMask Bit i is set when the question with ordinal i was answered "yes"
+     * @return The eligibility assessment
+     */
+    public EligibilityAssessment assess(Product product, List<Question> questions, long yesMask) {
+        return countDecisionTableUsage(compiledRulesFor(product, questions)).evaluate(yesMask);
+    }
+
+    private CompiledEligibilityRules countDecisionTableUsage(CompiledEligibilityRules rules) {
+        (rules.hasDecisionTable() ? decisionTableHits : decisionTableFallbacks).increment();
+        return rules;
+    }
+
+    /**
+     * Returns the compiled rules for a product, compiling them if they are missing or out of date.
+     *
+     * @param product The product to compile rules for
+     * @param questions The product's resolved questions
+     * @return The compiled rules
+     */
+    public CompiledEligibilityRules compiledRulesFor(Product product, List<Question> questions) {
+        CompiledEligibilityRules compiled = compiledRules.get(product.getId());
+        if (compiled == null || !compiled.isCompiledFrom(product, questions)) {
+            compiled = CompiledEligibilityRules.compile(product, questions);
+            compiledRules.put(product.getId(), compiled);
+        }
+        return compiled;
+    }
+}
@@ -1,27 +1,51 @@
 package com.prescriptionservice.controllers;
 
+import com.prescriptionservice.BinaryContentConfiguration;
 import com.prescriptionservice.models.dto.*;
+import com.prescriptionservice.repositories.CatalogStore;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.QuestionRepositoryImpl;
+import com.prescriptionservice.services.AnswerParser;
 import com.prescriptionservice.services.ConsultationService;
+import com.prescriptionservice.services.CurrentPatient;
+import com.prescriptionservice.services.IdempotencyCache;
+import com.prescriptionservice.services.PatientRateLimiter;
+import com.prescriptionservice.exceptions.AssessmentInProgressException;
+import com.prescriptionservice.exceptions.AssessmentQueueFullException;
 import com.prescriptionservice.exceptions.ConsultationNotFoundException;
+import com.prescriptionservice.exceptions.IdempotencyKeyReusedException;
+import com.prescriptionservice.exceptions.InvalidAnswerException;
+import com.prescriptionservice.exceptions.InvalidAnswerSetException;
+import com.prescriptionservice.exceptions.RateLimitExceededException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(ConsultationController.class)
+@Import({AnswerParser.class, QuestionRepositoryImpl.class, CatalogStore.class, CatalogVersion.class, BinaryContentConfiguration.class,
+    CurrentPatient.class})
 class ConsultationControllerTest {
 
     @Autowired
@@ -30,19 +54,25 @@ class ConsultationControllerTest {
     @MockBean
     private ConsultationService consultationService;
     
+    @MockBean
+    private IdempotencyCache idempotencyCache;
+    
+    @MockBean
+    private PatientRateLimiter rateLimiter;
+    
     @Autowired
     private ObjectMapper objectMapper;
     
-    private QuestionsResponse mockQuestionsResponse;
+    private SerializedQuestionsResponse mockQuestionsResponse;
     private EligibilityResponse mockEligibilityResponse;
     
     @BeforeEach
-    void setUp() {
+    void setUp() throws Exception {
         List<QuestionDto> questions = Arrays.asList(
             new QuestionDto("Q1", "Do you experience nose itchiness when near pears?", "YES_NO", true),
             new QuestionDto("Q2", "Have you ever sneezed uncontrollably in a fruit market?", "YES_NO", true)
         );
-        mockQuestionsResponse = new QuestionsResponse(questions, "consultation-123");
+        mockQuestionsResponse = new SerializedQuestionsResponse(questions, objectMapper.writeValueAsBytes(questions), "\"questions-etag\"", "consultation-123");
         
         mockEligibilityResponse = new EligibilityResponse(
             "consultation-123",
@@ -56,12 +86,13 @@ class ConsultationControllerTest {
     void getQuestionsShouldReturnQuestionsResponse() throws Exception {
         // Given
         String productId = "pear-allergy";
-        when(consultationService.getConsultationQuestions(productId)).thenReturn(mockQuestionsResponse);
+        when(consultationService.getSerializedConsultationQuestions(productId)).thenReturn(mockQuestionsResponse);
         
         // When & Then
         mockMvc.perform(get("/api/consultations/{productId}/questions", productId))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string("ETag", "\"questions-etag\""))
                 .andExpect(jsonPath("$.consultationId").value("consultation-123"))
                 .andExpect(jsonPath("$.questions").isArray())
                 .andExpect(jsonPath("$.questions.length()").value(2))
@@ -69,6 +100,58 @@ class ConsultationControllerTest {
                 .andExpect(jsonPath("$.questions[0].text").value("Do you experience nose itchiness when near pears?"));
     }
     
+    @Test
+    void getQuestionsShouldReturnNotModifiedWithConsultationIdWhenEtagMatches() throws Exception {
+        // Given
+        String productId = "pear-allergy";
+        when(consultationService.getSerializedConsultationQuestions(productId)).thenReturn(mockQuestionsResponse);
+        
+        // When & Then
+        mockMvc.perform(get("/api/consultations/{productId}/questions", productId)
+                .header("If-None-Match", "\"other-etag\", \"questions-etag\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"questions-etag\""))
+                .andExpect(header().string(ConsultationController.CONSULTATION_ID_HEADER, "consultation-123"))
+                .andExpect(content().string(""));
+    }
+    
+    @Test
+    void getQuestionsShouldReturnCborWithWeakEtagWhenAccepted() throws Exception {
+        // Given
+        String productId = "pear-allergy";
+        when(consultationService.getSerializedConsultationQuestions(productId)).thenReturn(mockQuestionsResponse);
+        
+        // When
+        byte[] body = mockMvc.perform(get("/api/consultations/{productId}/questions", productId)
+                .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "W/\"questions-etag\""))
+                .andExpect(header().string("Vary", "Accept"))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        // Then
+        QuestionsResponse response = new ObjectMapper(new CBORFactory()).readValue(body, QuestionsResponse.class);
+        assertEquals("consultation-123", response.getConsultationId());
+        assertEquals(2, response.getQuestions().size());
+        assertEquals("Q1", response.getQuestions().get(0).getId());
+    }
+    
+    @Test
+    void getQuestionsShouldReturnNotModifiedForBinaryResponseWhenEtagMatches() throws Exception {
+        // Given
+        String productId = "pear-allergy";
+        when(consultationService.getSerializedConsultationQuestions(productId)).thenReturn(mockQuestionsResponse);
+        
+        // When & Then
+        mockMvc.perform(get("/api/consultations/{productId}/questions", productId)
+                .accept(BinaryContentConfiguration.APPLICATION_SMILE)
+                .header("If-None-Match", "W/\"questions-etag\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "W/\"questions-etag\""))
+                .andExpect(header().string(ConsultationController.CONSULTATION_ID_HEADER, "consultation-123"));
+    }
+    
     @Test
     void submitAnswersShouldReturnEligibilityResponse() throws Exception {
         // Given
@@ -78,8 +161,8 @@ class ConsultationControllerTest {
         );
         ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", answers);
         
-        when(consultationService.processConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
-                .thenReturn(mockEligibilityResponse);
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenReturn(new ConsultationService.AnswerSubmission(mockEligibilityResponse, false));
         
         // When & Then
         mockMvc.perform(post("/api/consultations/consultation-123/answers")
@@ -93,6 +176,136 @@ class ConsultationControllerTest {
                 .andExpect(jsonPath("$.message").value("You are eligible for treatment"));
     }
     
+    @Test
+    void submitAnswersShouldReadAndWriteSmileWhenNegotiated() throws Exception {
+        // Given
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q2", "no")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenReturn(new ConsultationService.AnswerSubmission(mockEligibilityResponse, false));
+        
+        // When
+        byte[] body = mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(BinaryContentConfiguration.APPLICATION_SMILE)
+                .accept(BinaryContentConfiguration.APPLICATION_SMILE)
+                .content(smileMapper.writeValueAsBytes(request)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(BinaryContentConfiguration.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        // Then
+        EligibilityResponse response = smileMapper.readValue(body, EligibilityResponse.class);
+        assertEquals("consultation-123", response.getConsultationId());
+        assertEquals("ELIGIBLE", response.getStatus());
+        // Answers are parsed by the application's answer deserializer whatever the encoding
+        verify(consultationService).submitConsultation(eq("consultation-123"),
+            argThat(submitted -> submitted.getAnswers().get(1).getParsedValue() != null));
+    }
+    
+    @Test
+    void submitAnswersShouldReturnCborErrorWhenAnswerDoesNotFitQuestion() throws Exception {
+        // Given
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q2", "maybe")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"),
+                argThat(submitted -> submitted.getAnswers().get(1).getParseError() != null)))
+                .thenThrow(new InvalidAnswerException("Q2", "Answer to question Q2 must be yes or no"));
+        
+        // When
+        byte[] body = mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_CBOR)
+                .accept(MediaType.APPLICATION_CBOR)
+                .content(cborMapper.writeValueAsBytes(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        
+        // Then
+        assertEquals("invalid_answer", cborMapper.readTree(body).get("error_type").asText());
+    }
+    
+    @Test
+    void submitAnswersShouldGoThroughIdempotencyCacheWhenKeyIsSent() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q2", "yes")));
+        
+        when(idempotencyCache.submit(eq("consultation-123"), eq("retry-key-1"), any(), any()))
+                .thenReturn(new ConsultationService.AnswerSubmission(mockEligibilityResponse, false));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .header(ConsultationController.IDEMPOTENCY_KEY_HEADER, "retry-key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consultationId").value("consultation-123"))
+                .andExpect(jsonPath("$.status").value("ELIGIBLE"));
+        
+        verify(consultationService, never()).submitConsultation(any(), any());
+    }
+    
+    @Test
+    void submitAnswersShouldReturnTooManyRequestsWhenPatientIsRateLimited() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q2", "yes")));
+        
+        doThrow(new RateLimitExceededException(2))
+                .when(rateLimiter).acquire(eq(PatientRateLimiter.Endpoint.ANSWERS), any());
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error_type").value("rate_limited"));
+        
+        verify(consultationService, never()).submitConsultation(any(), any());
+    }
+    
+    @Test
+    void submitAnswersShouldReturnConflictWhileEarlierAnswersAreAssessed() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "no"), new AnswerDto("Q2", "yes")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any()))
+                .thenThrow(new AssessmentInProgressException("consultation-123"));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error_type").value("assessment_in_progress"));
+    }
+    
+    @Test
+    void submitAnswersShouldReturnUnprocessableEntityWhenIdempotencyKeyIsReusedWithDifferentRequest() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "no"), new AnswerDto("Q2", "yes")));
+        
+        when(idempotencyCache.submit(eq("consultation-123"), eq("retry-key-1"), any(), any()))
+                .thenThrow(new IdempotencyKeyReusedException("retry-key-1"));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .header(ConsultationController.IDEMPOTENCY_KEY_HEADER, "retry-key-1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.error_type").value("idempotency_key_reused"));
+        
+        verify(consultationService, never()).submitConsultation(any(), any());
+    }
+    
     @Test
     void submitAnswersShouldReturnValidationErrorWhenInvalidRequest() throws Exception {
         // Given
@@ -108,6 +321,77 @@ class ConsultationControllerTest {
                 .andExpect(jsonPath("$.errors").exists());
     }
     
+    @Test
+    void submitAnswersShouldReturnBadRequestWhenAnswerDoesNotFitQuestion() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q2", "maybe")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenThrow(new InvalidAnswerException("Q2", "Answer to question Q2 must be yes or no"));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_type").value("invalid_answer"))
+                .andExpect(jsonPath("$.question_id").value("Q2"))
+                .andExpect(jsonPath("$.message").value("Answer to question Q2 must be yes or no"));
+        
+        // The value is parsed while the body is read, and the failure is left to the assessment to report
+        verify(consultationService).submitConsultation(eq("consultation-123"), argThat(submitted ->
+            submitted.getAnswers().get(1).getParsedValue() == null
+                && "Answer to question Q2 must be yes or no".equals(submitted.getAnswers().get(1).getParseError())));
+    }
+    
+    @Test
+    void submitAnswersShouldReturnBadRequestWhenQuestionUnknown() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q9", "yes")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenThrow(new InvalidAnswerSetException(List.of(
+                    new InvalidAnswerSetException.Violation("Q9", InvalidAnswerSetException.Reason.UNKNOWN_QUESTION))));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_type").value("invalid_answers"))
+                .andExpect(jsonPath("$.errors[0].question_id").value("Q9"))
+                .andExpect(jsonPath("$.errors[0].error").value("unknown_question"));
+        
+        // Answers to questions missing from the catalog reach the answer set check unparsed
+        verify(consultationService).submitConsultation(eq("consultation-123"), argThat(submitted ->
+            submitted.getAnswers().get(0).getParsedValue() == null && submitted.getAnswers().get(0).getParseError() == null));
+    }
+    
+    @Test
+    void submitAnswersShouldListViolationsWhenAnswerSetIsInvalid() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q1", "no")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenThrow(new InvalidAnswerSetException(List.of(
+                    new InvalidAnswerSetException.Violation("Q1", InvalidAnswerSetException.Reason.DUPLICATE_ANSWER),
+                    new InvalidAnswerSetException.Violation("Q2", InvalidAnswerSetException.Reason.MISSING_REQUIRED))));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_type").value("invalid_answers"))
+                .andExpect(jsonPath("$.errors[0].question_id").value("Q1"))
+                .andExpect(jsonPath("$.errors[0].error").value("duplicate_answer"))
+                .andExpect(jsonPath("$.errors[1].question_id").value("Q2"))
+                .andExpect(jsonPath("$.errors[1].error").value("missing_required"));
+    }
+    
     @Test
     void submitAnswersShouldReturnNotFoundWhenConsultationNotExists() throws Exception {
         // Given
@@ -116,7 +400,7 @@ class ConsultationControllerTest {
         );
         ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", answers);
         
-        when(consultationService.processConsultation(eq("invalid-id"), any(ConsultationRequest.class)))
+        when(consultationService.submitConsultation(eq("invalid-id"), any(ConsultationRequest.class)))
                 .thenThrow(new ConsultationNotFoundException("invalid-id"));
         
         // When & Then
@@ -130,4 +414,158 @@ class ConsultationControllerTest {
                 .andExpect(jsonPath("$.status").value("ERROR"))
                 .andExpect(jsonPath("$.message").value("Consultation not found: invalid-id"));
     }
-}
\ No newline at end of file
+    
+    @Test
+    void submitAnswersShouldReturnAcceptedWithStatusLocationWhenAssessmentQueued() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        EligibilityResponse assessing = new EligibilityResponse("consultation-123", false, "Your answers are being assessed.", "ASSESSING");
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenReturn(new ConsultationService.AnswerSubmission(assessing, true));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/api/consultations/consultation-123/status"))
+                .andExpect(jsonPath("$.status").value("ASSESSING"));
+    }
+    
+    @Test
+    void submitAnswersShouldReturnServiceUnavailableWhenAssessmentQueueFull() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        
+        when(consultationService.submitConsultation(eq("consultation-123"), any(ConsultationRequest.class)))
+                .thenThrow(new AssessmentQueueFullException(2));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/consultation-123/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.error_type").value("queue_full"));
+    }
+    
+    @Test
+    void getStatusShouldReturnEligibilityStatus() throws Exception {
+        // Given
+        when(consultationService.getConsultationStatus("consultation-123")).thenReturn(mockEligibilityResponse);
+        
+        // When & Then
+        mockMvc.perform(get("/api/consultations/consultation-123/status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("ELIGIBLE"))
+                .andExpect(jsonPath("$.eligible").value(true));
+    }
+    
+    @Test
+    void getHistoryShouldReturnPageWithNextCursor() throws Exception {
+        // Given
+        ConsultationHistoryResponse history = new ConsultationHistoryResponse(List.of(
+            new ConsultationHistoryItem("consultation-123", "pear-allergy", "ELIGIBLE", true, "You are eligible for treatment", 1_000)
+        ), "next-cursor");
+        when(consultationService.getConsultationHistory("cursor", 1)).thenReturn(history);
+        
+        // When & Then
+        mockMvc.perform(get("/api/consultations").param("cursor", "cursor").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.consultations[0].consultationId").value("consultation-123"))
+                .andExpect(jsonPath("$.consultations[0].status").value("ELIGIBLE"))
+                .andExpect(jsonPath("$.nextCursor").value("next-cursor"));
+    }
+    
+    @Test
+    void submitAnswersBatchShouldReturnPerItemResults() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        BatchConsultationRequest batch = new BatchConsultationRequest(List.of(
+            new BatchConsultationItem("consultation-123", request),
+            new BatchConsultationItem("invalid-id", request)
+        ));
+        
+        when(consultationService.processConsultations(any())).thenReturn(new BatchEligibilityResponse(List.of(
+            BatchEligibilityResult.success(mockEligibilityResponse),
+            BatchEligibilityResult.failure("invalid-id", "not_found", "Consultation not found: invalid-id")
+        )));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/answers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].result.status").value("ELIGIBLE"))
+                .andExpect(jsonPath("$.results[1].consultationId").value("invalid-id"))
+                .andExpect(jsonPath("$.results[1].errorType").value("not_found"));
+    }
+    
+    @Test
+    void submitAnswersBatchShouldReturnTooManyRequestsWhenPatientIsRateLimited() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        BatchConsultationRequest batch = new BatchConsultationRequest(List.of(
+            new BatchConsultationItem("consultation-123", request)
+        ));
+        
+        doThrow(new RateLimitExceededException(30))
+                .when(rateLimiter).acquire(eq(PatientRateLimiter.Endpoint.BATCH), eq("patient-123"));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/answers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "30"))
+                .andExpect(jsonPath("$.error_type").value("rate_limited"));
+        
+        verify(consultationService, never()).processConsultations(any());
+    }
+    
+    @Test
+    void submitAnswersBatchShouldReportInvalidItemInItsOwnResult() throws Exception {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        BatchConsultationRequest batch = new BatchConsultationRequest(List.of(
+            new BatchConsultationItem("consultation-123", request),
+            new BatchConsultationItem("consultation-456", new ConsultationRequest("", "", "", List.of()))
+        ));
+        
+        when(consultationService.processConsultations(any())).thenReturn(new BatchEligibilityResponse(List.of(
+            BatchEligibilityResult.success(mockEligibilityResponse),
+            BatchEligibilityResult.failure("consultation-456", "validation_error", "request.address: Address cannot be blank")
+        )));
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/answers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[1].consultationId").value("consultation-456"))
+                .andExpect(jsonPath("$.results[1].errorType").value("validation_error"));
+        
+        // Items are validated by the service, one by one
+        verify(consultationService).processConsultations(argThat(items -> items.size() == 2));
+    }
+    
+    @Test
+    void submitAnswersBatchShouldReturnValidationErrorWhenBatchIsEmpty() throws Exception {
+        // Given
+        BatchConsultationRequest batch = new BatchConsultationRequest(List.of());
+        
+        // When & Then
+        mockMvc.perform(post("/api/consultations/answers/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Validation failed"));
+        
+        verify(consultationService, never()).processConsultations(any());
+    }
+}
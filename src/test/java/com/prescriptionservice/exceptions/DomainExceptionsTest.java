@@ -0,0 +1,48 @@
+package com.prescriptionservice.exceptions;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DomainExceptionsTest {
+    
+    @AfterEach
+    void tearDown() {
+        DomainExceptions.setStackTracesEnabled(false);
+    }
+    
+    @Test
+    void notFoundAndAccessExceptionsShouldNotCaptureStackTracesByDefault() {
+        // When
+        RuntimeException[] exceptions = {
+            new ConsultationNotFoundException("consultation-123"),
+            new ProductNotFoundException("unknown-product"),
+            new PatientNotFoundException("patient-456"),
+            new ConsultationAccessException("patient-456", "consultation-123")
+        };
+        
+        // Then
+        for (RuntimeException exception : exceptions) {
+            assertEquals(0, exception.getStackTrace().length, exception.getClass().getSimpleName());
+            exception.fillInStackTrace();
+            assertEquals(0, exception.getStackTrace().length, exception.getClass().getSimpleName());
+        }
+        assertEquals("Consultation not found: consultation-123", exceptions[0].getMessage());
+    }
+    
+    @Test
+    void exceptionsShouldCaptureStackTracesAndKeepCauseWhenEnabled() {
+        // Given
+        DomainExceptions.setStackTracesEnabled(true);
+        IllegalStateException cause = new IllegalStateException("store unavailable");
+        
+        // When
+        ConsultationNotFoundException exception = new ConsultationNotFoundException("consultation-123", cause);
+        
+        // Then
+        assertTrue(exception.getStackTrace().length > 0);
+        assertEquals(getClass().getName(), exception.getStackTrace()[0].getClassName());
+        assertSame(cause, exception.getCause());
+    }
+}
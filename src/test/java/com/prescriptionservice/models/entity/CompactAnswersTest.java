@@ -0,0 +1,75 @@
+package com.prescriptionservice.models.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactAnswersTest {
+
+    private final ProductQuestionIndex questionIndex = new ProductQuestionIndex(List.of("Q1", "Q2", "Q3", "Q4", "Q5"));
+    
+    @Test
+    void builderShouldPackYesNoAnswersIntoBitsets() {
+        // When
+        CompactAnswers answers = CompactAnswers.builder(questionIndex)
+                .add("Q1", "YES")
+                .add("Q3", "no")
+                .add("Q5", "yes")
+                .build();
+        
+        // Then
+        assertEquals(0b10001L, answers.yesMask());
+        assertEquals(0b10101L, answers.answeredMask());
+        assertEquals(3, answers.size());
+    }
+    
+    @Test
+    void builderShouldStoreParsedValuesByType() {
+        // When
+        CompactAnswers answers = CompactAnswers.builder(questionIndex)
+                .add("Q1", AnswerValue.YES)
+                .add("Q2", AnswerValue.NO)
+                .add("Q3", new AnswerValue.Text("yes"))
+                .add("Q4", new AnswerValue.Choice(2, "Daily"))
+                .build();
+        
+        // Then
+        assertEquals(0b1L, answers.yesMask());
+        assertEquals(0b1111L, answers.answeredMask());
+        List<Answer> decoded = answers.toAnswers();
+        assertAnswer(decoded.get(2), "Q3", "yes");
+        assertAnswer(decoded.get(3), "Q4", "Daily");
+    }
+    
+    @Test
+    void toAnswersShouldRestoreTextAndUnkeyedAnswers() {
+        // Given
+        String longText = "pollen ".repeat(40) + "\u00e9t\u00e9";
+        CompactAnswers answers = CompactAnswers.builder(questionIndex)
+                .add("Q4", longText)
+                .add("Q2", "sometimes")
+                .add("Q1", "yes")
+                .add("Q1", "no")
+                .add("Q9", "yes")
+                .build();
+        
+        // When
+        List<Answer> decoded = answers.toAnswers();
+        
+        // Then
+        assertEquals(5, decoded.size());
+        assertAnswer(decoded.get(0), "Q1", "yes");
+        assertAnswer(decoded.get(1), "Q2", "sometimes");
+        assertAnswer(decoded.get(2), "Q4", longText);
+        assertAnswer(decoded.get(3), "Q1", "no");
+        assertAnswer(decoded.get(4), "Q9", "yes");
+        assertEquals(0b1L, answers.yesMask());
+    }
+    
+    private static void assertAnswer(Answer answer, String questionId, String value) {
+        assertEquals(questionId, answer.getQuestionId());
+        assertEquals(value, answer.getValue());
+    }
+}
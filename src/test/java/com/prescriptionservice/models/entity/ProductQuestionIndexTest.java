@@ -0,0 +1,67 @@
+package com.prescriptionservice.models.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductQuestionIndexTest {
+
+    @Test
+    void ordinalOfShouldReturnFirstOccurrenceOfEachQuestion() {
+        // When
+        ProductQuestionIndex questionIndex = new ProductQuestionIndex(List.of("Q1", "Q2", "Q1", "Q3"));
+
+        // Then
+        assertEquals(0, questionIndex.ordinalOf("Q1"));
+        assertEquals(1, questionIndex.ordinalOf("Q2"));
+        assertEquals(3, questionIndex.ordinalOf("Q3"));
+        assertEquals(-1, questionIndex.ordinalOf("Q4"));
+        assertEquals(-1, questionIndex.ordinalOf(null));
+        assertEquals("Q3", questionIndex.questionIdAt(3));
+        assertEquals(4, questionIndex.size());
+        assertTrue(questionIndex.questions().isEmpty());
+        assertNull(questionIndex.questionAt(0));
+    }
+
+    @Test
+    void resolveShouldHoldQuestionsByOrdinal() {
+        // Given
+        Question q1 = new Question("Q1", "First?", Question.QuestionType.YES_NO, true);
+        Question q3 = new Question("Q3", "Third?", Question.QuestionType.TEXT, false);
+        Question q4 = new Question("Q4", "Fourth?", Question.QuestionType.YES_NO, true);
+        Map<String, Question> catalog = Map.of("Q1", q1, "Q3", q3, "Q4", q4);
+
+        // When
+        ProductQuestionIndex questionIndex = ProductQuestionIndex.resolve(List.of("Q1", "Q2", "Q3", "Q4"), catalog::get);
+
+        // Then
+        assertSame(q1, questionIndex.questionAt(0));
+        assertNull(questionIndex.questionAt(1));
+        assertSame(q3, questionIndex.questionAt(2));
+        assertEquals(List.of(q1, q3, q4), questionIndex.questions());
+        assertEquals(0b1001L, questionIndex.requiredMask());
+        assertThrows(UnsupportedOperationException.class, () -> questionIndex.questions().clear());
+    }
+
+    @Test
+    void ordinalOfShouldFindEveryQuestionOfLargeProducts() {
+        // Given
+        List<String> questionIds = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            questionIds.add("Q" + i);
+        }
+
+        // When
+        ProductQuestionIndex questionIndex = new ProductQuestionIndex(questionIds);
+
+        // Then
+        for (int i = 0; i < 64; i++) {
+            assertEquals(i, questionIndex.ordinalOf("Q" + i));
+        }
+        assertEquals(-1, questionIndex.ordinalOf("Q64"));
+    }
+}
@@ -0,0 +1,114 @@
+package com.prescriptionservice.models.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UlidGeneratorTest {
+
+    private static final long NOW = Instant.parse("2024-05-01T12:00:00Z").toEpochMilli();
+    
+    @Test
+    void nextShouldEncodeTheCurrentTimeInCrockfordBase32() {
+        // Given
+        UlidGenerator generator = new UlidGenerator(Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC));
+        
+        // When
+        String id = generator.next();
+        
+        // Then
+        assertEquals(26, id.length());
+        assertTrue(id.matches("[0-7][0-9A-HJKMNP-TV-Z]{25}"), id);
+        assertEquals(OptionalLong.of(NOW), generator.timestampMillis(id));
+        assertEquals(OptionalLong.of(NOW), generator.timestampMillis(id.toLowerCase()));
+    }
+    
+    @Test
+    void nextShouldBeStrictlyIncreasingWithinAMillisecondAndWhenTheClockStepsBack() {
+        // Given
+        AtomicLong millis = new AtomicLong(NOW);
+        UlidGenerator generator = new UlidGenerator(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+            
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+            
+            @Override
+            public Instant instant() {
+                return Instant.ofEpochMilli(millis.get());
+            }
+        });
+        
+        // When
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(generator.next());
+        }
+        millis.addAndGet(-1000);
+        ids.add(generator.next());
+        millis.addAndGet(5000);
+        ids.add(generator.next());
+        
+        // Then
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1).compareTo(ids.get(i)) < 0, ids.get(i - 1) + " >= " + ids.get(i));
+        }
+        assertEquals(OptionalLong.of(NOW + 4000), generator.timestampMillis(ids.get(ids.size() - 1)));
+    }
+    
+    @Test
+    void nextShouldBeUniqueAcrossThreads() throws Exception {
+        // Given
+        UlidGenerator generator = new UlidGenerator(Clock.systemUTC());
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.next());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        
+        // Then
+        assertEquals(160_000, ids.size());
+    }
+    
+    @Test
+    void timestampMillisShouldRejectOtherIds() {
+        // Given
+        UlidGenerator generator = new UlidGenerator(Clock.systemUTC());
+        
+        // When & Then
+        assertTrue(generator.timestampMillis("4c7d1b4e-2f0a-4c4f-9a53-0b8f6e1d2c3a").isEmpty());
+        assertTrue(generator.timestampMillis("8ZZZZZZZZZZZZZZZZZZZZZZZZZ").isEmpty());
+        assertTrue(generator.timestampMillis("01HWUQ8V9UUUUUUUUUUUUUUUUU").isEmpty());
+        assertTrue(generator.timestampMillis(null).isEmpty());
+    }
+}
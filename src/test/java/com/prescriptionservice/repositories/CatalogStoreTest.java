@@ -0,0 +1,128 @@
+package com.prescriptionservice.repositories;
+
+import com.prescriptionservice.models.entity.Product;
+import com.prescriptionservice.models.entity.Question;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final CatalogVersion catalogVersion = new CatalogVersion();
+
+    private static String question(String id) {
+        return "{\"id\": \"" + id + "\", \"text\": \"Question " + id + "?\", \"type\": \"YES_NO\", \"required\": true}";
+    }
+
+    private static String product(String id, String... questionIds) {
+        return "{\"id\": \"" + id + "\", \"name\": \"Product " + id + "\", \"questionIds\": [\""
+                + String.join("\", \"", questionIds) + "\"]}";
+    }
+
+    private void write(String fileName, List<String> questions, List<String> products) throws IOException {
+        Files.writeString(directory.resolve(fileName), "{\"questions\": [" + String.join(", ", questions)
+                + "], \"products\": [" + String.join(", ", products) + "]}");
+    }
+
+    @Test
+    void initializeCatalogShouldLoadBundledCatalogWhenNoPathIsConfigured() throws IOException {
+        // Given
+        CatalogStore store = new CatalogStore(catalogVersion, "");
+
+        // When
+        store.initializeCatalog();
+
+        // Then
+        CatalogSnapshot snapshot = store.snapshot();
+        Product product = snapshot.product("pear-allergy");
+        assertEquals(List.of("Q1", "Q2", "Q3", "Q4", "Q5"), product.getQuestionIds());
+        assertEquals(List.of("Q5"), product.getEligibilityRules().getVetoQuestionIds());
+        assertEquals(5, snapshot.questions().size());
+        assertFalse(snapshot.question("Q4").isRequired());
+        assertEquals(1, snapshot.version());
+        assertEquals(1, catalogVersion.current());
+    }
+
+    @Test
+    void reloadShouldMergeDirectoryAndLeaveEarlierSnapshotsUntouched() throws IOException {
+        // Given
+        write("questions.json", List.of(question("Q1"), question("Q2")), List.of());
+        write("products.json", List.of(), List.of(product("P1", "Q1")));
+        CatalogStore store = new CatalogStore(catalogVersion, directory.toString());
+        store.initializeCatalog();
+        CatalogSnapshot before = store.snapshot();
+
+        // When
+        write("products.json", List.of(), List.of(product("P1", "Q1", "Q2"), product("P2", "Q2")));
+        CatalogSnapshot after = store.reload();
+
+        // Then
+        assertSame(after, store.snapshot());
+        assertEquals(2, after.version());
+        assertEquals(2, catalogVersion.current());
+        assertEquals(List.of("Q1", "Q2"), after.product("P1").getQuestionIds());
+        assertEquals(2, after.productCount());
+        assertEquals(1, before.version());
+        assertEquals(List.of("Q1"), before.product("P1").getQuestionIds());
+        assertNull(before.product("P2"));
+    }
+
+    @Test
+    void reloadShouldKeepCurrentCatalogWhenNewOneIsInconsistent() throws IOException {
+        // Given
+        write("catalog.json", List.of(question("Q1")), List.of(product("P1", "Q1")));
+        CatalogStore store = new CatalogStore(catalogVersion, directory.resolve("catalog.json").toString());
+        store.initializeCatalog();
+        CatalogSnapshot before = store.snapshot();
+
+        // When & Then
+        write("catalog.json", List.of(question("Q1")), List.of(product("P1", "Q1", "Q9")));
+        assertThrows(IllegalArgumentException.class, store::reload);
+        write("catalog.json", List.of(question("Q1"), question("Q1")), List.of());
+        assertThrows(IllegalArgumentException.class, store::reload);
+        Files.writeString(directory.resolve("catalog.json"), "{\"products\": [");
+        assertThrows(IOException.class, store::reload);
+        assertSame(before, store.snapshot());
+        assertEquals(1, catalogVersion.current());
+    }
+
+    @Test
+    void saveShouldPublishCopyAndAdvanceVersion() throws IOException {
+        // Given
+        CatalogStore store = new CatalogStore(catalogVersion, "");
+        store.initializeCatalog();
+        CatalogSnapshot before = store.snapshot();
+        QuestionRepositoryImpl questionRepository = new QuestionRepositoryImpl(store);
+        ProductRepositoryImpl productRepository = new ProductRepositoryImpl(store);
+        Product pearAllergy = productRepository.findById("pear-allergy").orElseThrow();
+
+        // When
+        questionRepository.save(new Question("Q2", "Reworded?", Question.QuestionType.YES_NO, false));
+        questionRepository.save(new Question("Q6", "New?", Question.QuestionType.TEXT, false));
+        productRepository.save(new Product("hay-fever", "Hay Fever", "Hay fever treatment", List.of("Q1", "Q6")));
+
+        // Then
+        assertEquals(4, catalogVersion.current());
+        assertEquals(4, store.snapshot().version());
+        assertEquals(List.of("Q1", "Q2", "Q3", "Q4", "Q5", "Q6"),
+                questionRepository.findAll().stream().map(Question::getId).toList());
+        assertEquals("Reworded?", questionRepository.findById("Q2").orElseThrow().getText());
+        Product hayFever = productRepository.findById("hay-fever").orElseThrow();
+        assertEquals("New?", questionRepository.findQuestionIndex(hayFever).questionAt(1).getText());
+        assertEquals("Reworded?", questionRepository.findQuestionIndex(pearAllergy).questionAt(1).getText());
+        assertSame(store.snapshot().questionIndex("pear-allergy"), questionRepository.findQuestionIndex(pearAllergy));
+        assertEquals(5, before.questions().size());
+        assertEquals("Have you ever sneezed uncontrollably in a fruit market?",
+                before.questionIndex("pear-allergy").questionAt(1).getText());
+        assertNull(before.product("hay-fever"));
+    }
+}
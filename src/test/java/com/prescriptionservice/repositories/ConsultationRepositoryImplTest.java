@@ -0,0 +1,225 @@
+package com.prescriptionservice.repositories;
+
+import com.prescriptionservice.exceptions.ConsultationCapacityExceededException;
+import com.prescriptionservice.models.entity.Consultation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultationRepositoryImplTest {
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+    
+    private ConsultationRepositoryImpl repository(int maxSize, ConsultationRepositoryImpl.CapacityPolicy policy) {
+        return new ConsultationRepositoryImpl(meterRegistry, Duration.ofMinutes(30), Duration.ofHours(24), maxSize, policy,
+                Duration.ofSeconds(1), clock);
+    }
+    
+    @Test
+    void expireStaleConsultationsShouldRemovePendingConsultationsAfterTtl() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(10, ConsultationRepositoryImpl.CapacityPolicy.EVICT_OLDEST_PENDING);
+        Consultation pending = repository.save(new Consultation("patient-123", "pear-allergy"));
+        Consultation completed = new Consultation("patient-123", "pear-allergy");
+        completed.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        repository.save(completed);
+        repository.expireStaleConsultations();
+        
+        // When
+        clock.advance(Duration.ofMinutes(31));
+        repository.expireStaleConsultations();
+        
+        // Then
+        assertTrue(repository.findById(pending.getId()).isEmpty());
+        assertTrue(repository.findById(completed.getId()).isPresent());
+        assertEquals(1.0, meterRegistry.get("consultations.evictions").tag("reason", "expired").counter().count());
+        assertEquals(1.0, meterRegistry.get("consultations.live").gauge().value());
+    }
+    
+    @Test
+    void expireStaleConsultationsShouldKeepConsultationsTouchedWithinTtl() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(10, ConsultationRepositoryImpl.CapacityPolicy.EVICT_OLDEST_PENDING);
+        Consultation consultation = repository.save(new Consultation("patient-123", "pear-allergy"));
+        repository.expireStaleConsultations();
+        
+        // When
+        clock.advance(Duration.ofMinutes(20));
+        repository.findById(consultation.getId());
+        clock.advance(Duration.ofMinutes(20));
+        repository.expireStaleConsultations();
+        
+        // Then
+        assertTrue(repository.findById(consultation.getId()).isPresent());
+        
+        clock.advance(Duration.ofMinutes(31));
+        repository.expireStaleConsultations();
+        assertTrue(repository.findById(consultation.getId()).isEmpty());
+    }
+    
+    @Test
+    void saveShouldEvictOldestPendingConsultationWhenFull() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(2, ConsultationRepositoryImpl.CapacityPolicy.EVICT_OLDEST_PENDING);
+        Consultation first = repository.save(new Consultation("patient-123", "pear-allergy"));
+        Consultation second = repository.save(new Consultation("patient-123", "pear-allergy"));
+        
+        // When
+        Consultation third = repository.save(new Consultation("patient-123", "pear-allergy"));
+        
+        // Then
+        assertTrue(repository.findById(first.getId()).isEmpty());
+        assertTrue(repository.findById(second.getId()).isPresent());
+        assertTrue(repository.findById(third.getId()).isPresent());
+        assertEquals(1.0, meterRegistry.get("consultations.evictions").tag("reason", "capacity").counter().count());
+    }
+    
+    @Test
+    void saveShouldRejectNewConsultationWhenFullAndPolicyIsRejectNew() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(1, ConsultationRepositoryImpl.CapacityPolicy.REJECT_NEW);
+        Consultation first = repository.save(new Consultation("patient-123", "pear-allergy"));
+        Consultation second = new Consultation("patient-123", "pear-allergy");
+        
+        // When & Then
+        assertThrows(ConsultationCapacityExceededException.class, () -> repository.save(second));
+        assertTrue(repository.findById(first.getId()).isPresent());
+        assertTrue(repository.findById(second.getId()).isEmpty());
+        
+        // Updating an existing consultation does not count against capacity
+        first.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        assertSame(first, repository.save(first));
+    }
+    
+    @Test
+    void saveShouldNotCountCompletedConsultationsAgainstCapacity() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(2, ConsultationRepositoryImpl.CapacityPolicy.REJECT_NEW);
+        for (int i = 0; i < 2; i++) {
+            Consultation completed = repository.save(new Consultation("patient-123", "pear-allergy"));
+            completed.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+            repository.save(completed);
+        }
+        Consultation assessed = new Consultation("patient-123", "pear-allergy");
+        assessed.setEligibilityStatus(Consultation.EligibilityStatus.NOT_ELIGIBLE);
+        repository.save(assessed);
+        
+        // When
+        Consultation first = repository.save(new Consultation("patient-123", "pear-allergy"));
+        Consultation second = repository.save(new Consultation("patient-123", "pear-allergy"));
+        
+        // Then
+        assertTrue(repository.findById(first.getId()).isPresent());
+        assertTrue(repository.findById(second.getId()).isPresent());
+        assertThrows(ConsultationCapacityExceededException.class,
+            () -> repository.save(new Consultation("patient-123", "pear-allergy")));
+        assertEquals(5.0, meterRegistry.get("consultations.live").gauge().value());
+    }
+    
+    @Test
+    void expireStaleConsultationsShouldRemoveCompletedConsultationsAfterCompletedTtl() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(10, ConsultationRepositoryImpl.CapacityPolicy.EVICT_OLDEST_PENDING);
+        Consultation consultation = repository.save(new Consultation("patient-123", "pear-allergy"));
+        repository.expireStaleConsultations();
+        clock.advance(Duration.ofMinutes(10));
+        consultation.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        repository.save(consultation);
+        
+        // When
+        clock.advance(Duration.ofHours(23));
+        repository.expireStaleConsultations();
+        
+        // Then
+        assertTrue(repository.findById(consultation.getId()).isPresent());
+        clock.advance(Duration.ofHours(25));
+        repository.expireStaleConsultations();
+        assertTrue(repository.findById(consultation.getId()).isEmpty());
+        assertTrue(repository.findByPatientId("patient-123", null, 10).isEmpty());
+    }
+    
+    @Test
+    void findByPatientIdShouldPageThroughHistoryNewestFirst() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(10, ConsultationRepositoryImpl.CapacityPolicy.EVICT_OLDEST_PENDING);
+        Consultation oldest = repository.save(new Consultation("patient-123", "pear-allergy"));
+        clock.advance(Duration.ofMinutes(1));
+        Consultation middle = repository.save(new Consultation("patient-123", "pear-allergy"));
+        clock.advance(Duration.ofMinutes(1));
+        Consultation newest = repository.save(new Consultation("patient-123", "pear-allergy"));
+        repository.save(new Consultation("patient-456", "pear-allergy"));
+        
+        // When
+        List<Consultation> firstPage = repository.findByPatientId("patient-123", null, 2);
+        List<Consultation> secondPage = repository.findByPatientId("patient-123", HistoryPosition.of(firstPage.get(1)), 2);
+        
+        // Then
+        assertEquals(List.of(newest, middle), firstPage);
+        assertEquals(List.of(oldest), secondPage);
+        assertTrue(repository.findByPatientId("unknown", null, 2).isEmpty());
+    }
+    
+    @Test
+    void findByPatientIdShouldNotListExpiredOrEvictedConsultations() {
+        // Given
+        ConsultationRepositoryImpl repository = repository(1, ConsultationRepositoryImpl.CapacityPolicy.EVICT_OLDEST_PENDING);
+        Consultation evicted = repository.save(new Consultation("patient-123", "pear-allergy"));
+        Consultation completed = new Consultation("patient-123", "pear-allergy");
+        completed.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        repository.save(completed);
+        Consultation expired = repository.save(new Consultation("patient-123", "pear-allergy"));
+        repository.expireStaleConsultations();
+        
+        // When
+        clock.advance(Duration.ofMinutes(31));
+        repository.expireStaleConsultations();
+        
+        // Then
+        assertTrue(repository.findById(evicted.getId()).isEmpty());
+        assertTrue(repository.findById(expired.getId()).isEmpty());
+        assertEquals(List.of(completed), repository.findByPatientId("patient-123", null, 10));
+    }
+    
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+        
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+        
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+        
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+        
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+        
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.prescriptionservice.repositories.log;
+
+import com.prescriptionservice.models.entity.Answer;
+import com.prescriptionservice.models.entity.Consultation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogConsultationRepositoryTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    private final List<LogConsultationRepository> repositories = new ArrayList<>();
+    
+    @AfterEach
+    void tearDown() {
+        repositories.forEach(LogConsultationRepository::close);
+    }
+    
+    private LogConsultationRepository open(LogConsultationRepository.FsyncPolicy fsyncPolicy) {
+        LogConsultationRepository repository = new LogConsultationRepository(new SimpleMeterRegistry(), directory,
+                SEGMENT_SIZE, fsyncPolicy, Duration.ofMillis(5), Duration.ZERO, Duration.ZERO, 0.5, Clock.systemUTC());
+        repository.open();
+        repositories.add(repository);
+        return repository;
+    }
+    
+    private static Consultation answeredConsultation() {
+        Consultation consultation = new Consultation("patient-123", "pear-allergy");
+        consultation.setAnswers(List.of(new Answer("Q1", "yes"), new Answer("Q2", "no")));
+        consultation.setEligibilityStatus(Consultation.EligibilityStatus.REQUIRES_REVIEW);
+        return consultation;
+    }
+    
+    @Test
+    void findByIdShouldReturnLatestSavedVersion() {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        Consultation consultation = repository.save(new Consultation("patient-123", "pear-allergy"));
+        
+        // When
+        consultation.setAnswers(List.of(new Answer("Q1", "yes")));
+        consultation.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        repository.save(consultation);
+        
+        // Then
+        Consultation found = repository.findById(consultation.getId()).orElseThrow();
+        assertEquals("patient-123", found.getPatientId());
+        assertEquals("pear-allergy", found.getProductId());
+        assertEquals(Consultation.EligibilityStatus.ELIGIBLE, found.getEligibilityStatus());
+        assertEquals("yes", found.getAnswers().get(0).getValue());
+        assertTrue(repository.findById("unknown").isEmpty());
+    }
+    
+    @Test
+    void saveAllShouldPersistEveryConsultation() {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        List<Consultation> consultations = List.of(answeredConsultation(), answeredConsultation(), answeredConsultation());
+        
+        // When
+        repository.saveAll(consultations);
+        
+        // Then
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        consultations.forEach(consultation -> assertTrue(recovered.findById(consultation.getId()).isPresent()));
+    }
+    
+    @Test
+    void openShouldRecoverFromSnapshotAndLogTail() {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        Consultation beforeSnapshot = repository.save(answeredConsultation());
+        repository.writeSnapshot();
+        Consultation afterSnapshot = repository.save(answeredConsultation());
+        
+        // When
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        
+        // Then
+        assertTrue(recovered.findById(beforeSnapshot.getId()).isPresent());
+        Consultation found = recovered.findById(afterSnapshot.getId()).orElseThrow();
+        assertEquals(Consultation.EligibilityStatus.REQUIRES_REVIEW, found.getEligibilityStatus());
+        assertEquals(2, found.getAnswers().size());
+    }
+    
+    @Test
+    void openShouldRebuildPatientHistory() {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        Consultation older = answeredConsultation();
+        older.setCreatedAt(1_000);
+        Consultation newer = answeredConsultation();
+        newer.setCreatedAt(2_000);
+        repository.save(older);
+        repository.writeSnapshot();
+        repository.save(newer);
+        repository.save(new Consultation("patient-456", "pear-allergy"));
+        
+        // When
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        
+        // Then
+        List<Consultation> history = recovered.findByPatientId("patient-123", null, 10);
+        assertEquals(List.of(newer.getId(), older.getId()), history.stream().map(Consultation::getId).toList());
+        assertEquals(Consultation.EligibilityStatus.REQUIRES_REVIEW, history.get(0).getEligibilityStatus());
+    }
+    
+    @Test
+    void openShouldRebuildPatientHistoryWithoutDecodingSnapshottedRecords() throws IOException {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        repository.save(new Consultation("patient-456", "pear-allergy"));
+        Consultation snapshotted = answeredConsultation();
+        snapshotted.setCreatedAt(1_000);
+        repository.save(snapshotted);
+        repository.writeSnapshot();
+        Consultation replayed = answeredConsultation();
+        replayed.setCreatedAt(2_000);
+        repository.save(replayed);
+        
+        // When
+        // The first record no longer decodes, so recovery must take its patient from the snapshot
+        try (FileChannel channel = FileChannel.open(directory.resolve(LogSegment.fileName(1)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), ConsultationRecordCodec.HEADER_BYTES);
+        }
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        
+        // Then
+        List<Consultation> history = recovered.findByPatientId("patient-123", null, 10);
+        assertEquals(List.of(replayed.getId(), snapshotted.getId()), history.stream().map(Consultation::getId).toList());
+    }
+    
+    @Test
+    void openShouldResetConsultationsLeftAssessing() {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        Consultation snapshotted = assessingConsultation();
+        repository.save(snapshotted);
+        repository.writeSnapshot();
+        Consultation replayed = assessingConsultation();
+        repository.save(replayed);
+        Consultation assessed = repository.save(answeredConsultation());
+        
+        // When
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        
+        // Then
+        for (Consultation interrupted : List.of(snapshotted, replayed)) {
+            Consultation found = recovered.findById(interrupted.getId()).orElseThrow();
+            assertEquals(Consultation.EligibilityStatus.PENDING, found.getEligibilityStatus());
+            assertFalse(found.isEligible());
+            assertNull(found.getEligibilityMessage());
+            assertEquals(2, found.getAnswers().size());
+        }
+        assertEquals(Consultation.EligibilityStatus.REQUIRES_REVIEW,
+                recovered.findById(assessed.getId()).orElseThrow().getEligibilityStatus());
+    }
+    
+    private static Consultation assessingConsultation() {
+        // A previous outcome left on the consultation must not survive the reset
+        Consultation consultation = answeredConsultation();
+        consultation.setEligible(true);
+        consultation.setEligibilityMessage("You are eligible for this treatment.");
+        consultation.setEligibilityStatus(Consultation.EligibilityStatus.ASSESSING);
+        return consultation;
+    }
+    
+    @Test
+    void openShouldDropTornRecordAtEndOfLog() throws IOException {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        Consultation intact = repository.save(answeredConsultation());
+        Consultation torn = repository.save(answeredConsultation());
+        repository.close();
+        repositories.clear();
+        corruptLastRecord();
+        
+        // When
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        Consultation appended = recovered.save(answeredConsultation());
+        
+        // Then
+        assertTrue(recovered.findById(intact.getId()).isPresent());
+        assertTrue(recovered.findById(torn.getId()).isEmpty());
+        assertTrue(open(LogConsultationRepository.FsyncPolicy.ALWAYS).findById(appended.getId()).isPresent());
+    }
+    
+    @Test
+    void compactShouldDeleteSupersededSegmentsAndKeepLatestRecords() throws IOException {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.NEVER);
+        Consultation consultation = repository.save(answeredConsultation());
+        for (int i = 0; i < 100; i++) {
+            repository.save(consultation);
+        }
+        long segmentsBefore = segmentCount();
+        
+        // When
+        repository.compact();
+        
+        // Then
+        assertTrue(segmentCount() < segmentsBefore);
+        assertTrue(repository.findById(consultation.getId()).isPresent());
+        assertTrue(open(LogConsultationRepository.FsyncPolicy.NEVER).findById(consultation.getId()).isPresent());
+    }
+    
+    @Test
+    void concurrentSavesShouldAllBeDurableWithGroupCommit() throws Exception {
+        // Given
+        LogConsultationRepository repository = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Consultation>> saves = new ArrayList<>();
+        
+        // When
+        for (int i = 0; i < 200; i++) {
+            saves.add(executor.submit(() -> repository.save(answeredConsultation())));
+        }
+        List<String> ids = new ArrayList<>();
+        for (Future<Consultation> save : saves) {
+            ids.add(save.get().getId());
+        }
+        executor.shutdown();
+        repository.close();
+        repositories.clear();
+        
+        // Then
+        LogConsultationRepository recovered = open(LogConsultationRepository.FsyncPolicy.ALWAYS);
+        ids.forEach(id -> assertTrue(recovered.findById(id).isPresent()));
+    }
+    
+    @Test
+    void intervalPolicyShouldForceAtMostOncePerIntervalUnderSustainedAppends() {
+        // Given
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LogConsultationRepository repository = new LogConsultationRepository(meterRegistry, directory, 1 << 20,
+                LogConsultationRepository.FsyncPolicy.INTERVAL, Duration.ofMillis(100), Duration.ZERO, Duration.ZERO,
+                0.5, Clock.systemUTC());
+        repository.open();
+        repositories.add(repository);
+        Consultation consultation = repository.save(answeredConsultation());
+        
+        // When
+        long deadline = System.nanoTime() + Duration.ofMillis(500).toNanos();
+        while (System.nanoTime() < deadline) {
+            repository.save(consultation);
+        }
+        
+        // Then
+        long forces = meterRegistry.get("consultations.log.fsync").timer().count();
+        assertTrue(forces >= 1, "expected at least one fsync, got " + forces);
+        assertTrue(forces <= 7, "expected about one fsync per 100ms interval, got " + forces);
+    }
+    
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> LogSegment.parseId(file.getFileName().toString()) >= 0).count();
+        }
+    }
+    
+    /**
+     * Flips a payload byte of the last record, as if the process died while it was being written.
+     */
+    private void corruptLastRecord() throws IOException {
+        Files.delete(directory.resolve(IndexSnapshot.FILE_NAME));
+        LogSegment segment = LogSegment.open(directory, 1, SEGMENT_SIZE);
+        segment.scan(0, true, null);
+        int end = segment.endOffset();
+        segment.close();
+        try (FileChannel channel = FileChannel.open(directory.resolve(LogSegment.fileName(1)), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F}), end - 1);
+        }
+    }
+}
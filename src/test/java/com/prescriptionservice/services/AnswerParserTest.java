@@ -0,0 +1,110 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.entity.AnswerValue;
+import com.prescriptionservice.models.entity.Question;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.QuestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnswerParserTest {
+
+    @Mock
+    private QuestionRepository questionRepository;
+    
+    private CatalogVersion catalogVersion;
+    private AnswerParser answerParser;
+    private Question yesNo;
+    
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        answerParser = new AnswerParser(questionRepository, catalogVersion);
+        yesNo = new Question("Q1", "Do you experience nose itchiness when near pears?", Question.QuestionType.YES_NO, true);
+        
+        lenient().when(questionRepository.findAll()).thenReturn(List.of(
+            yesNo,
+            new Question("Q6", "How often do you eat pears?", Question.QuestionType.MULTIPLE_CHOICE, true, List.of("Never", "Weekly", "Daily")),
+            new Question("Q7", "Describe your symptoms.", Question.QuestionType.TEXT, false)
+        ));
+    }
+    
+    @Test
+    void parseShouldReturnTypedValuesWithInternedQuestionIds() {
+        // When
+        AnswerDto yes = answerParser.parse(new String("Q1"), "YES");
+        AnswerDto choice = answerParser.parse("Q6", "weekly");
+        AnswerDto text = answerParser.parse("Q7", "Sneezing");
+        
+        // Then
+        assertSame(yesNo.getId(), yes.getQuestionId());
+        assertSame(AnswerValue.YES, yes.getParsedValue());
+        assertEquals(new AnswerValue.Choice(1, "Weekly"), choice.getParsedValue());
+        assertEquals(new AnswerValue.Text("Sneezing"), text.getParsedValue());
+        assertEquals("YES", yes.getValue());
+    }
+    
+    @Test
+    void parseShouldRecordValuesThatDoNotFitTheQuestionType() {
+        // When
+        AnswerDto notYesNo = answerParser.parse("Q1", "maybe");
+        AnswerDto notAnOption = answerParser.parse("Q6", "Monthly");
+        AnswerDto tooLong = answerParser.parse("Q7", "x".repeat(AnswerParser.MAX_TEXT_LENGTH + 1));
+        
+        // Then
+        assertNull(notYesNo.getParsedValue());
+        assertEquals("Answer to question Q1 must be yes or no", notYesNo.getParseError());
+        assertNull(notAnOption.getParsedValue());
+        assertNotNull(notAnOption.getParseError());
+        assertNull(tooLong.getParsedValue());
+        assertNotNull(tooLong.getParseError());
+    }
+    
+    @Test
+    void parseShouldLeaveAnswersToUnknownQuestionsUnparsed() {
+        // When
+        AnswerDto answer = answerParser.parse("Q9", "yes");
+        
+        // Then
+        assertEquals("Q9", answer.getQuestionId());
+        assertNull(answer.getParsedValue());
+        assertNull(answer.getParseError());
+    }
+    
+    @Test
+    void parseShouldLeaveBlankAnswersToBeanValidation() {
+        // When
+        AnswerDto answer = answerParser.parse("Q1", " ");
+        
+        // Then
+        assertNull(answer.getParsedValue());
+        verify(questionRepository, never()).findAll();
+    }
+    
+    @Test
+    void parseShouldReloadQuestionsWhenCatalogChanges() {
+        // Given
+        answerParser.parse("Q1", "yes");
+        when(questionRepository.findAll()).thenReturn(List.of(
+            new Question("Q1", "Do you experience nose itchiness when near pears?", Question.QuestionType.TEXT, true)
+        ));
+        
+        // When
+        catalogVersion.increment();
+        AnswerDto answer = answerParser.parse("Q1", "maybe");
+        
+        // Then
+        assertEquals(new AnswerValue.Text("maybe"), answer.getParsedValue());
+        verify(questionRepository, times(2)).findAll();
+    }
+}
@@ -2,25 +2,41 @@ package com.prescriptionservice.services;
 
 import com.prescriptionservice.models.dto.*;
 import com.prescriptionservice.models.entity.*;
+import com.prescriptionservice.repositories.CatalogVersion;
 import com.prescriptionservice.repositories.ConsultationRepository;
+import com.prescriptionservice.repositories.HistoryPosition;
 import com.prescriptionservice.repositories.QuestionRepository;
 import com.prescriptionservice.repositories.ProductRepository;
 import com.prescriptionservice.repositories.PatientRepository;
+import com.prescriptionservice.exceptions.AssessmentInProgressException;
+import com.prescriptionservice.exceptions.AssessmentQueueFullException;
 import com.prescriptionservice.exceptions.ConsultationNotFoundException;
+import com.prescriptionservice.exceptions.InvalidAnswerException;
+import com.prescriptionservice.exceptions.InvalidAnswerSetException;
 import com.prescriptionservice.exceptions.ProductNotFoundException;
+import com.prescriptionservice.services.eligibility.EligibilityRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -38,9 +54,12 @@ class ConsultationServiceTest {
     @Mock
     private ConsultationRepository consultationRepository;
     
-    @InjectMocks
     private ConsultationService consultationService;
     
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    
+    private SimpleMeterRegistry meterRegistry;
+    
     private List<Question> mockQuestions;
     private Product mockProduct;
     private Patient mockPatient;
@@ -48,6 +67,20 @@ class ConsultationServiceTest {
     
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        consultationService = new ConsultationService(
+            new QuestionCatalogCache(productRepository, questionRepository, new CatalogVersion(), new ObjectMapper()),
+            patientRepository,
+            consultationRepository,
+            new EligibilityRuleEngine(new SimpleMeterRegistry()),
+            new ConsultationTokenService(false, "", Duration.ofHours(24)),
+            new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[0], 1, 10, Duration.ofSeconds(1)),
+            new ConsultationMetrics(meterRegistry, new Duration[0]),
+            new CurrentPatient(),
+            validator,
+            1000
+        );
+        
         mockQuestions = Arrays.asList(
             new Question("Q1", "Do you experience nose itchiness when near pears?", Question.QuestionType.YES_NO, true),
             new Question("Q2", "Have you ever sneezed uncontrollably in a fruit market?", Question.QuestionType.YES_NO, true)
@@ -57,7 +90,8 @@ class ConsultationServiceTest {
             "pear-allergy", 
             "Pear Allergy Treatment", 
             "Treatment for pear allergies", 
-            Arrays.asList("Q1", "Q2")
+            Arrays.asList("Q1", "Q2", "Q3", "Q4", "Q5"),
+            pearAllergyRules()
         );
         
         mockPatient = new Patient(
@@ -67,8 +101,32 @@ class ConsultationServiceTest {
             "123 Main Street, Test City, TC 12345"
         );
         
-        mockConsultation = new Consultation("patient-123");
+        mockConsultation = new Consultation("patient-123", "pear-allergy");
         mockConsultation.setId("consultation-123");
+        
+        // Products resolve against an empty catalog unless a test stubs their questions
+        lenient().when(questionRepository.findQuestionIndex(any())).thenAnswer(invocation ->
+            ProductQuestionIndex.resolve(invocation.<Product>getArgument(0).getQuestionIds(), questionId -> null));
+    }
+    
+    private ProductQuestionIndex questionIndex(List<Question> questions) {
+        return ProductQuestionIndex.resolve(mockProduct.getQuestionIds(), questionId -> questions.stream()
+            .filter(question -> question.getId().equals(questionId))
+            .findFirst()
+            .orElse(null));
+    }
+    
+    private static EligibilityRules pearAllergyRules() {
+        return new EligibilityRules(
+            List.of("Q5"),
+            new EligibilityRules.Outcome(false, "Previous adverse reaction to allergy medication.", Consultation.EligibilityStatus.NOT_ELIGIBLE),
+            List.of("Q1", "Q2", "Q3"),
+            List.of(
+                new EligibilityRules.SymptomThreshold(3, new EligibilityRules.Outcome(true, "You appear to be a good candidate.", Consultation.EligibilityStatus.ELIGIBLE)),
+                new EligibilityRules.SymptomThreshold(1, new EligibilityRules.Outcome(true, "We'll have a doctor review your case.", Consultation.EligibilityStatus.REQUIRES_REVIEW))
+            ),
+            new EligibilityRules.Outcome(false, "Our medication may not be necessary.", Consultation.EligibilityStatus.NOT_ELIGIBLE)
+        );
     }
     
     @Test
@@ -76,7 +134,7 @@ class ConsultationServiceTest {
         // Given
         String productId = "pear-allergy";
         when(productRepository.findById(productId)).thenReturn(Optional.of(mockProduct));
-        when(questionRepository.findByIds(mockProduct.getQuestionIds())).thenReturn(mockQuestions);
+        when(questionRepository.findQuestionIndex(mockProduct)).thenReturn(questionIndex(mockQuestions));
         when(consultationRepository.save(any(Consultation.class))).thenReturn(mockConsultation);
         
         // When
@@ -88,7 +146,7 @@ class ConsultationServiceTest {
         assertNotNull(response.getConsultationId());
         
         verify(productRepository).findById(productId);
-        verify(questionRepository).findByIds(mockProduct.getQuestionIds());
+        verify(questionRepository).findQuestionIndex(mockProduct);
         verify(consultationRepository).save(any(Consultation.class));
     }
     
@@ -106,6 +164,7 @@ class ConsultationServiceTest {
         
         when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
         when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
         when(consultationRepository.save(any(Consultation.class))).thenReturn(mockConsultation);
         
         // When
@@ -134,6 +193,7 @@ class ConsultationServiceTest {
         
         when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
         when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
         when(consultationRepository.save(any(Consultation.class))).thenReturn(mockConsultation);
         
         // When
@@ -161,6 +221,7 @@ class ConsultationServiceTest {
         
         when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
         when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
         when(consultationRepository.save(any(Consultation.class))).thenReturn(mockConsultation);
         
         // When
@@ -187,6 +248,7 @@ class ConsultationServiceTest {
         
         when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
         when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
         when(consultationRepository.save(any(Consultation.class))).thenReturn(mockConsultation);
         
         // When
@@ -199,6 +261,414 @@ class ConsultationServiceTest {
         assertTrue(response.getMessage().contains("may not be necessary"));
     }
     
+    @Test
+    void processConsultationShouldRecordStageTimersAndOutcome() {
+        // Given
+        String consultationId = "consultation-123";
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q2", "yes"),
+            new AnswerDto("Q3", "yes")
+        ));
+        
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(consultationRepository.save(any(Consultation.class))).thenReturn(mockConsultation);
+        
+        // When
+        consultationService.processConsultation(consultationId, request);
+        
+        // Then
+        for (String stage : List.of("consultation_lookup", "patient_lookup", "access_check", "answer_mapping", "assessment", "save")) {
+            assertEquals(1, meterRegistry.get("consultations.answers.stage").tag("stage", stage).timer().count(), stage);
+        }
+        assertEquals(1, meterRegistry.get("consultations.answers").tag("product", "pear-allergy").timer().count());
+        assertEquals(1.0, meterRegistry.get("consultations.outcomes")
+                .tag("product", "pear-allergy")
+                .tag("status", "ELIGIBLE")
+                .counter().count());
+    }
+    
+    @Test
+    void tokenModeShouldOnlyStoreConsultationWhenAnswersAreSubmitted() {
+        // Given
+        consultationService = new ConsultationService(
+            new QuestionCatalogCache(productRepository, questionRepository, new CatalogVersion(), new ObjectMapper()),
+            patientRepository,
+            consultationRepository,
+            new EligibilityRuleEngine(new SimpleMeterRegistry()),
+            new ConsultationTokenService(true, "", Duration.ofHours(24)),
+            new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[0], 1, 10, Duration.ofSeconds(1)),
+            new ConsultationMetrics(meterRegistry, new Duration[0]),
+            new CurrentPatient(),
+            validator,
+            1000
+        );
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(questionRepository.findQuestionIndex(mockProduct)).thenReturn(questionIndex(mockQuestions));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(consultationRepository.save(any(Consultation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        String consultationId = consultationService.getConsultationQuestions("pear-allergy").getConsultationId();
+        verify(consultationRepository, never()).save(any(Consultation.class));
+        
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q2", "yes"),
+            new AnswerDto("Q3", "yes")
+        ));
+        EligibilityResponse response = consultationService.processConsultation(consultationId, request);
+        
+        // Then
+        assertEquals(consultationId, response.getConsultationId());
+        assertEquals("ELIGIBLE", response.getStatus());
+        verify(consultationRepository).save(argThat(consultation ->
+            consultationId.equals(consultation.getId()) && "pear-allergy".equals(consultation.getProductId())));
+    }
+    
+    @Test
+    void tokenModeShouldRejectForgedConsultationToken() {
+        // Given
+        ConsultationTokenService tokens = new ConsultationTokenService(true, "", Duration.ofHours(24));
+        consultationService = new ConsultationService(
+            new QuestionCatalogCache(productRepository, questionRepository, new CatalogVersion(), new ObjectMapper()),
+            patientRepository,
+            consultationRepository,
+            new EligibilityRuleEngine(new SimpleMeterRegistry()),
+            tokens,
+            new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[0], 1, 10, Duration.ofSeconds(1)),
+            new ConsultationMetrics(meterRegistry, new Duration[0]),
+            new CurrentPatient(),
+            validator,
+            1000
+        );
+        String forged = new ConsultationTokenService(true, "", Duration.ofHours(24)).issue("patient-123", "pear-allergy", 0);
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        
+        // When & Then
+        assertThrows(ConsultationNotFoundException.class, () -> consultationService.processConsultation(forged, request));
+        verify(consultationRepository, never()).save(any(Consultation.class));
+    }
+    
+    @Test
+    void submitConsultationShouldQueueAssessmentForAsyncProduct() {
+        // Given
+        consultationService = asyncConsultationService(1, 10);
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q2", "yes"),
+            new AnswerDto("Q3", "yes")
+        ));
+        
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        
+        // When
+        ConsultationService.AnswerSubmission submission = consultationService.submitConsultation("consultation-123", request);
+        
+        // Then
+        assertTrue(submission.queued());
+        assertEquals("ASSESSING", submission.response().getStatus());
+        verify(consultationRepository, timeout(5000).times(2)).save(mockConsultation);
+        EligibilityResponse status = consultationService.getConsultationStatus("consultation-123");
+        assertEquals("ELIGIBLE", status.getStatus());
+        assertTrue(status.isEligible());
+        assertTrue(status.getMessage().contains("good candidate"));
+    }
+    
+    @Test
+    void submitConsultationShouldRejectWhenAssessmentQueueFull() throws Exception {
+        // Given
+        consultationService = asyncConsultationService(1, 0);
+        Consultation second = new Consultation("patient-123", "pear-allergy");
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        CountDownLatch workerBlocked = new CountDownLatch(1);
+        
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(consultationRepository.findById(second.getId())).thenReturn(Optional.of(second));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        // Used by the worker thread, which may not have reached it when the test ends
+        lenient().when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(consultationRepository.save(any(Consultation.class))).thenAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith("eligibility-assessment")) {
+                workerBlocked.await();
+            }
+            return invocation.getArgument(0);
+        });
+        consultationService.submitConsultation("consultation-123", request);
+        
+        // When & Then
+        assertThrows(AssessmentQueueFullException.class, () -> consultationService.submitConsultation(second.getId(), request));
+        assertEquals(Consultation.EligibilityStatus.PENDING, second.getEligibilityStatus());
+        workerBlocked.countDown();
+    }
+    
+    @Test
+    void submitConsultationShouldRejectAnswersWhileEarlierAnswersAreAssessed() {
+        // Given
+        consultationService = asyncConsultationService(1, 10);
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        CountDownLatch workerBlocked = new CountDownLatch(1);
+        
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(consultationRepository.save(any(Consultation.class))).thenAnswer(invocation -> {
+            if (Thread.currentThread().getName().startsWith("eligibility-assessment")) {
+                workerBlocked.await();
+            }
+            return invocation.getArgument(0);
+        });
+        consultationService.submitConsultation("consultation-123", request);
+        
+        // When & Then
+        assertThrows(AssessmentInProgressException.class, () -> consultationService.submitConsultation("consultation-123", request));
+        assertThrows(AssessmentInProgressException.class, () -> consultationService.processConsultation("consultation-123", request));
+        assertEquals(Consultation.EligibilityStatus.ASSESSING, mockConsultation.getEligibilityStatus());
+        workerBlocked.countDown();
+    }
+    
+    @Test
+    void submitConsultationShouldClearPreviousOutcomeWhenAssessmentFails() {
+        // Given
+        consultationService = asyncConsultationService(1, 10);
+        // Without eligibility rules the assessment fails on the worker
+        Product withoutRules = new Product("pear-allergy", "Pear Allergy Treatment", "Treatment for pear allergies",
+            mockProduct.getQuestionIds());
+        mockConsultation.setEligible(true);
+        mockConsultation.setEligibilityMessage("You appear to be a good candidate.");
+        mockConsultation.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(withoutRules));
+        
+        // When
+        consultationService.submitConsultation("consultation-123", request);
+        
+        // Then
+        verify(consultationRepository, timeout(5000).times(2)).save(mockConsultation);
+        EligibilityResponse status = consultationService.getConsultationStatus("consultation-123");
+        assertEquals("PENDING", status.getStatus());
+        assertFalse(status.isEligible());
+        assertNull(mockConsultation.getEligibilityMessage());
+    }
+    
+    @Test
+    void submitConsultationShouldResetConsultationWhenAssessmentCannotBeQueued() {
+        // Given
+        AsyncAssessmentExecutor executor = new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[]{"pear-allergy"},
+            1, 0, Duration.ofSeconds(1));
+        executor.shutdown();
+        consultationService = asyncConsultationService(executor);
+        mockConsultation.setEligible(true);
+        mockConsultation.setEligibilityMessage("You appear to be a good candidate.");
+        mockConsultation.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        
+        // When & Then
+        assertThrows(RejectedExecutionException.class, () -> consultationService.submitConsultation("consultation-123", request));
+        assertEquals(Consultation.EligibilityStatus.PENDING, mockConsultation.getEligibilityStatus());
+        assertNull(mockConsultation.getEligibilityMessage());
+        verify(consultationRepository, times(2)).save(mockConsultation);
+        // Neither the consultation nor the only queue slot is left claimed
+        assertThrows(RejectedExecutionException.class, () -> consultationService.submitConsultation("consultation-123", request));
+    }
+    
+    private ConsultationService asyncConsultationService(int workers, int queueCapacity) {
+        return asyncConsultationService(new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[]{"pear-allergy"},
+            workers, queueCapacity, Duration.ofSeconds(1)));
+    }
+    
+    private ConsultationService asyncConsultationService(AsyncAssessmentExecutor asyncAssessmentExecutor) {
+        return new ConsultationService(
+            new QuestionCatalogCache(productRepository, questionRepository, new CatalogVersion(), new ObjectMapper()),
+            patientRepository,
+            consultationRepository,
+            new EligibilityRuleEngine(new SimpleMeterRegistry()),
+            new ConsultationTokenService(false, "", Duration.ofHours(24)),
+            asyncAssessmentExecutor,
+            new ConsultationMetrics(meterRegistry, new Duration[0]),
+            new CurrentPatient(),
+            validator,
+            1000
+        );
+    }
+    
+    @Test
+    void processConsultationsShouldAssessItemsAndSaveThemInOneWrite() {
+        // Given
+        Consultation otherPatientConsultation = new Consultation("patient-456", "pear-allergy");
+        otherPatientConsultation.setId("consultation-456");
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q5", "no")
+        ));
+        List<BatchConsultationItem> items = List.of(
+            new BatchConsultationItem("consultation-123", request),
+            new BatchConsultationItem("invalid-id", request),
+            new BatchConsultationItem("consultation-456", request),
+            new BatchConsultationItem("consultation-123", request)
+        );
+        
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(consultationRepository.findById("invalid-id")).thenReturn(Optional.empty());
+        when(consultationRepository.findById("consultation-456")).thenReturn(Optional.of(otherPatientConsultation));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        
+        // When
+        BatchEligibilityResponse response = consultationService.processConsultations(items);
+        
+        // Then
+        assertEquals(1, response.getSucceeded());
+        assertEquals(3, response.getFailed());
+        List<BatchEligibilityResult> results = response.getResults();
+        assertEquals("REQUIRES_REVIEW", results.get(0).getResult().getStatus());
+        assertEquals("not_found", results.get(1).getErrorType());
+        assertEquals("access_denied", results.get(2).getErrorType());
+        assertEquals("duplicate_consultation", results.get(3).getErrorType());
+        assertEquals("consultation-123", results.get(3).getConsultationId());
+        
+        verify(consultationRepository).saveAll(List.of(mockConsultation));
+        verify(consultationRepository, never()).save(any(Consultation.class));
+    }
+    
+    @Test
+    void processConsultationsShouldOnlyFailItemWithAnswerThatDoesNotFitQuestion() {
+        // Given
+        Consultation otherConsultation = new Consultation("patient-123", "pear-allergy");
+        otherConsultation.setId("consultation-789");
+        ConsultationRequest validRequest = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q5", "no")
+        ));
+        // As read by the answer deserializer: the value did not fit its question
+        AnswerDto badAnswer = new AnswerDto("Q1", "maybe");
+        badAnswer.setParseError("Answer to question Q1 must be yes or no");
+        ConsultationRequest invalidRequest = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            badAnswer,
+            new AnswerDto("Q5", "no")
+        ));
+        List<BatchConsultationItem> items = List.of(
+            new BatchConsultationItem("consultation-123", validRequest),
+            new BatchConsultationItem("consultation-789", invalidRequest)
+        );
+        
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(consultationRepository.findById("consultation-789")).thenReturn(Optional.of(otherConsultation));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        
+        // When
+        BatchEligibilityResponse response = consultationService.processConsultations(items);
+        
+        // Then
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        List<BatchEligibilityResult> results = response.getResults();
+        assertEquals("REQUIRES_REVIEW", results.get(0).getResult().getStatus());
+        assertEquals("consultation-789", results.get(1).getConsultationId());
+        assertEquals("invalid_request", results.get(1).getErrorType());
+        assertEquals("Answer to question Q1 must be yes or no", results.get(1).getMessage());
+        
+        verify(consultationRepository).saveAll(List.of(mockConsultation));
+    }
+    
+    @Test
+    void processConsultationsShouldOnlyFailItemThatIsInvalid() {
+        // Given
+        ConsultationRequest validRequest = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q5", "no")
+        ));
+        ConsultationRequest invalidRequest = new ConsultationRequest("John Doe", "1990-01-01", "", List.of(
+            new AnswerDto("Q1", "yes")
+        ));
+        List<BatchConsultationItem> items = List.of(
+            new BatchConsultationItem("consultation-456", invalidRequest),
+            new BatchConsultationItem("consultation-123", validRequest)
+        );
+        
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        
+        // When
+        BatchEligibilityResponse response = consultationService.processConsultations(items);
+        
+        // Then
+        assertEquals(1, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        List<BatchEligibilityResult> results = response.getResults();
+        assertEquals("consultation-456", results.get(0).getConsultationId());
+        assertEquals("validation_error", results.get(0).getErrorType());
+        assertEquals("request.address: Address cannot be blank", results.get(0).getMessage());
+        assertEquals("REQUIRES_REVIEW", results.get(1).getResult().getStatus());
+        
+        verify(consultationRepository, never()).findById("consultation-456");
+        verify(consultationRepository).saveAll(List.of(mockConsultation));
+    }
+    
+    @Test
+    void processConsultationsShouldRejectOversizedBatch() {
+        // Given
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", "yes")));
+        List<BatchConsultationItem> items = Collections.nCopies(1001, new BatchConsultationItem("consultation-123", request));
+        
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> consultationService.processConsultations(items));
+        verify(consultationRepository, never()).saveAll(any());
+    }
+    
+    @Test
+    void getConsultationHistoryShouldReturnPageAndCursorOfNextPage() {
+        // Given
+        Consultation newest = new Consultation("patient-123", "pear-allergy");
+        newest.setCreatedAt(3_000);
+        newest.setEligibilityStatus(Consultation.EligibilityStatus.ELIGIBLE);
+        newest.setEligible(true);
+        newest.setEligibilityMessage("You appear to be a good candidate.");
+        Consultation middle = new Consultation("patient-123", "pear-allergy");
+        middle.setCreatedAt(2_000);
+        Consultation oldest = new Consultation("patient-123", "pear-allergy");
+        oldest.setCreatedAt(1_000);
+        
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(consultationRepository.findByPatientId("patient-123", null, 3)).thenReturn(List.of(newest, middle, oldest));
+        
+        // When
+        ConsultationHistoryResponse response = consultationService.getConsultationHistory(null, 2);
+        
+        // Then
+        assertEquals(2, response.getConsultations().size());
+        assertEquals(newest.getId(), response.getConsultations().get(0).getConsultationId());
+        assertEquals("ELIGIBLE", response.getConsultations().get(0).getStatus());
+        assertEquals("Awaiting answers.", response.getConsultations().get(1).getMessage());
+        
+        // The cursor resumes after the last consultation of the page
+        consultationService.getConsultationHistory(response.getNextCursor(), 2);
+        verify(consultationRepository).findByPatientId("patient-123", HistoryPosition.of(middle), 3);
+    }
+    
+    @Test
+    void getConsultationHistoryShouldRejectInvalidCursorAndLimit() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> consultationService.getConsultationHistory("not a cursor", 20));
+        assertThrows(IllegalArgumentException.class, () -> consultationService.getConsultationHistory(null, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> consultationService.getConsultationHistory(null, ConsultationService.MAX_HISTORY_PAGE_SIZE + 1));
+        verify(consultationRepository, never()).findByPatientId(any(), any(), anyInt());
+    }
+    
     @Test
     void getConsultationQuestionsShouldThrowExceptionWhenProductNotFound() {
         // Given
@@ -213,7 +683,109 @@ class ConsultationServiceTest {
         
         assertTrue(exception.getMessage().contains("Product not found"));
         verify(productRepository).findById(productId);
-        verify(questionRepository, never()).findByIds(any());
+        verify(questionRepository, never()).findQuestionIndex(any());
+        verify(consultationRepository, never()).save(any(Consultation.class));
+    }
+    
+    @Test
+    void processConsultationShouldRejectAnswerThatDoesNotFitQuestionType() {
+        // Given
+        String consultationId = "consultation-123";
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "sometimes")));
+        
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(questionRepository.findQuestionIndex(mockProduct)).thenReturn(questionIndex(mockQuestions));
+        
+        // When & Then
+        InvalidAnswerException exception = assertThrows(
+            InvalidAnswerException.class,
+            () -> consultationService.processConsultation(consultationId, request)
+        );
+        
+        assertEquals("Q1", exception.getQuestionId());
+        verify(consultationRepository, never()).save(any(Consultation.class));
+    }
+    
+    @Test
+    void processConsultationShouldParseAnswersAgainAfterTheirQuestionsChangedType() {
+        // Given
+        String consultationId = "consultation-123";
+        List<Question> reloaded = List.of(
+            new Question("Q1", "Do you experience nose itchiness when near pears?", Question.QuestionType.YES_NO, true),
+            new Question("Q2", "Have you ever sneezed uncontrollably in a fruit market?", Question.QuestionType.YES_NO, true),
+            new Question("Q3", "Do your eyes water around pears?", Question.QuestionType.YES_NO, true)
+        );
+        // Parsed while the request was read, when the catalog still declared the questions as TEXT
+        List<AnswerDto> answers = List.of(new AnswerDto("Q1", "yes"), new AnswerDto("Q2", "yes"), new AnswerDto("Q3", "yes"));
+        answers.forEach(answer -> answer.setParsedValue(new AnswerValue.Text(answer.getValue())));
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", answers);
+        
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(questionRepository.findQuestionIndex(mockProduct)).thenReturn(questionIndex(reloaded));
+        
+        // When
+        EligibilityResponse response = consultationService.processConsultation(consultationId, request);
+        
+        // Then
+        assertEquals("ELIGIBLE", response.getStatus());
+        assertEquals(0b111L, mockConsultation.getCompactAnswers().yesMask());
+    }
+    
+    @Test
+    void processConsultationShouldRejectIncompleteDuplicateAndUnknownAnswers() {
+        // Given
+        String consultationId = "consultation-123";
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(
+            new AnswerDto("Q1", "yes"),
+            new AnswerDto("Q9", "yes"),
+            new AnswerDto("Q1", "no"),
+            new AnswerDto("Q3", "no")
+        ));
+        
+        when(consultationRepository.findById(consultationId)).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(questionRepository.findQuestionIndex(mockProduct)).thenReturn(questionIndex(mockQuestions));
+        
+        // When
+        InvalidAnswerSetException exception = assertThrows(
+            InvalidAnswerSetException.class,
+            () -> consultationService.processConsultation(consultationId, request)
+        );
+        
+        // Then
+        assertEquals(List.of(
+            new InvalidAnswerSetException.Violation("Q9", InvalidAnswerSetException.Reason.UNKNOWN_QUESTION),
+            new InvalidAnswerSetException.Violation("Q1", InvalidAnswerSetException.Reason.DUPLICATE_ANSWER),
+            new InvalidAnswerSetException.Violation("Q2", InvalidAnswerSetException.Reason.MISSING_REQUIRED)
+        ), exception.getViolations());
+        assertEquals(Consultation.EligibilityStatus.PENDING, mockConsultation.getEligibilityStatus());
+        verify(consultationRepository, never()).save(any(Consultation.class));
+    }
+    
+    @Test
+    void submitConsultationShouldRejectIncompleteAnswersBeforeQueueing() {
+        // Given
+        consultationService = asyncConsultationService(1, 10);
+        ConsultationRequest request = new ConsultationRequest("John Doe", "1990-01-01", "123 Main St",
+            List.of(new AnswerDto("Q1", "yes")));
+        
+        when(consultationRepository.findById("consultation-123")).thenReturn(Optional.of(mockConsultation));
+        when(patientRepository.findById("patient-123")).thenReturn(Optional.of(mockPatient));
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(mockProduct));
+        when(questionRepository.findQuestionIndex(mockProduct)).thenReturn(questionIndex(mockQuestions));
+        
+        // When & Then
+        InvalidAnswerSetException exception = assertThrows(
+            InvalidAnswerSetException.class,
+            () -> consultationService.submitConsultation("consultation-123", request)
+        );
+        assertEquals("Invalid answers: required question Q2 is not answered", exception.getMessage());
         verify(consultationRepository, never()).save(any(Consultation.class));
     }
     
@@ -0,0 +1,64 @@
+package com.prescriptionservice.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultationTokenServiceTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    private static final Instant NOW = Instant.parse("2024-01-01T10:00:00Z");
+    
+    private ConsultationTokenService tokenService(Instant now) {
+        return new ConsultationTokenService(true, SECRET, Duration.ofHours(24), Clock.fixed(now, ZoneOffset.UTC));
+    }
+    
+    @Test
+    void verifyShouldReturnClaimsOfIssuedToken() {
+        // Given
+        ConsultationTokenService tokenService = tokenService(NOW);
+        String token = tokenService.issue("patient-123", "pear-allergy", 42);
+        
+        // When
+        Optional<ConsultationTokenService.ConsultationToken> verified = tokenService.verify(token);
+        
+        // Then
+        assertTrue(verified.isPresent());
+        assertEquals("patient-123", verified.get().patientId());
+        assertEquals("pear-allergy", verified.get().productId());
+        assertEquals(42, verified.get().catalogVersion());
+        assertEquals(NOW.toEpochMilli(), verified.get().issuedAt());
+    }
+    
+    @Test
+    void verifyShouldRejectTamperedTokens() {
+        // Given
+        ConsultationTokenService tokenService = tokenService(NOW);
+        String token = tokenService.issue("patient-123", "pear-allergy", 42);
+        String otherPatientToken = tokenService.issue("patient-456", "pear-allergy", 42);
+        String tamperedPayload = otherPatientToken.substring(0, otherPatientToken.indexOf('.')) + token.substring(token.indexOf('.'));
+        
+        // When & Then
+        assertTrue(tokenService.verify(tamperedPayload).isEmpty());
+        assertTrue(tokenService.verify(token.substring(0, token.length() - 1)).isEmpty());
+        assertTrue(tokenService.verify("550e8400-e29b-41d4-a716-446655440000").isEmpty());
+        assertTrue(tokenService.verify(".").isEmpty());
+    }
+    
+    @Test
+    void verifyShouldRejectExpiredTokens() {
+        // Given
+        String token = tokenService(NOW).issue("patient-123", "pear-allergy", 42);
+        
+        // When & Then
+        assertTrue(tokenService(NOW.plus(Duration.ofHours(23))).verify(token).isPresent());
+        assertTrue(tokenService(NOW.plus(Duration.ofHours(25))).verify(token).isEmpty());
+    }
+}
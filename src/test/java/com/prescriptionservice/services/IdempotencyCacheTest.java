@@ -0,0 +1,219 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.ConsultationAccessException;
+import com.prescriptionservice.exceptions.ConsultationNotFoundException;
+import com.prescriptionservice.exceptions.IdempotencyKeyReusedException;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.dto.EligibilityResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyCacheTest {
+
+    private static final ConsultationRequest REQUEST = request("yes");
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private MutablePatient currentPatient;
+    private IdempotencyCache cache;
+    private AtomicInteger runs;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        currentPatient = new MutablePatient("patient-123");
+        cache = new IdempotencyCache(meterRegistry, currentPatient, Duration.ofMinutes(10), 2, clock);
+        runs = new AtomicInteger();
+    }
+
+    private static ConsultationRequest request(String q1) {
+        return new ConsultationRequest("John Doe", "1990-01-01", "123 Main St", List.of(new AnswerDto("Q1", q1)));
+    }
+
+    private ConsultationService.AnswerSubmission submission(String consultationId) {
+        runs.incrementAndGet();
+        return new ConsultationService.AnswerSubmission(
+            new EligibilityResponse(consultationId, true, "You appear to be a good candidate.", "ELIGIBLE"), false);
+    }
+
+    @Test
+    void submitShouldReturnFirstResultForRetriesWithSameKey() {
+        // When
+        ConsultationService.AnswerSubmission first = cache.submit("consultation-123", "key-1", REQUEST, () -> submission("consultation-123"));
+        ConsultationService.AnswerSubmission retry = cache.submit("consultation-123", "key-1", REQUEST, () -> submission("consultation-123"));
+        cache.submit("consultation-456", "key-1", REQUEST, () -> submission("consultation-456"));
+
+        // Then
+        assertSame(first, retry);
+        assertEquals(2, runs.get());
+        assertEquals(1.0, meterRegistry.get("consultations.idempotency.hits").counter().count());
+        assertEquals(2.0, meterRegistry.get("consultations.idempotency.size").gauge().value());
+    }
+
+    @Test
+    void submitShouldRejectKeyReusedWithDifferentRequest() {
+        // Given
+        ConsultationService.AnswerSubmission first = cache.submit("consultation-123", "key-1", REQUEST,
+            () -> submission("consultation-123"));
+
+        // When & Then
+        IdempotencyKeyReusedException rejected = assertThrows(IdempotencyKeyReusedException.class,
+            () -> cache.submit("consultation-123", "key-1", request("no"), () -> submission("consultation-123")));
+        assertEquals("key-1", rejected.getIdempotencyKey());
+        assertThrows(IdempotencyKeyReusedException.class,
+            () -> cache.submit("consultation-123", "key-1",
+                new ConsultationRequest("John Doe", "1990-01-0", "1123 Main St", REQUEST.getAnswers()),
+                () -> submission("consultation-123")));
+        assertSame(first, cache.submit("consultation-123", "key-1", request("yes"), () -> submission("consultation-123")));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void submitShouldNotReturnAnotherPatientsResult() {
+        // Given
+        cache.submit("consultation-123", "key-1", REQUEST, () -> submission("consultation-123"));
+        currentPatient.id = "patient-456";
+
+        // When & Then
+        // The replay misses the cache, so the submission's ownership check rejects it
+        assertThrows(ConsultationAccessException.class, () -> cache.submit("consultation-123", "key-1", REQUEST, () -> {
+            throw new ConsultationAccessException("patient-456", "consultation-123");
+        }));
+        assertEquals(1, runs.get());
+        assertEquals(0.0, meterRegistry.get("consultations.idempotency.hits").counter().count());
+    }
+
+    @Test
+    void submitShouldCoalesceConcurrentDuplicates() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ConsultationService.AnswerSubmission> first = CompletableFuture.supplyAsync(() ->
+            cache.submit("consultation-123", "key-1", REQUEST, () -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return submission("consultation-123");
+            }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<ConsultationService.AnswerSubmission> duplicate = new CompletableFuture<>();
+        Thread duplicateThread = new Thread(() ->
+            duplicate.complete(cache.submit("consultation-123", "key-1", REQUEST, () -> submission("consultation-123"))));
+        duplicateThread.start();
+        // The duplicate parks once it waits for the first submission's result
+        while (duplicateThread.getState() != Thread.State.WAITING && !duplicate.isDone()) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        // Then
+        assertSame(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        assertEquals(1, meterRegistry.get("consultations.idempotency.coalesced").timer().count());
+    }
+
+    @Test
+    void submitShouldNotCacheFailures() {
+        // Given
+        ConsultationNotFoundException notFound = new ConsultationNotFoundException("consultation-123");
+
+        // When
+        ConsultationNotFoundException thrown = assertThrows(ConsultationNotFoundException.class,
+            () -> cache.submit("consultation-123", "key-1", REQUEST, () -> {
+                throw notFound;
+            }));
+        cache.submit("consultation-123", "key-1", REQUEST, () -> submission("consultation-123"));
+
+        // Then
+        assertSame(notFound, thrown);
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void submitShouldRunAgainOnceEntryExpiredOrWasEvicted() {
+        // Given
+        cache.submit("consultation-1", "key-1", REQUEST, () -> submission("consultation-1"));
+        cache.submit("consultation-2", "key-2", REQUEST, () -> submission("consultation-2"));
+        cache.submit("consultation-3", "key-3", REQUEST, () -> submission("consultation-3"));
+
+        // When
+        cache.submit("consultation-1", "key-1", REQUEST, () -> submission("consultation-1"));
+        clock.advance(Duration.ofMinutes(11));
+        cache.submit("consultation-3", "key-3", REQUEST, () -> submission("consultation-3"));
+
+        // Then
+        assertEquals(5, runs.get());
+        assertEquals(0.0, meterRegistry.get("consultations.idempotency.hits").counter().count());
+        assertEquals(1.0, meterRegistry.get("consultations.idempotency.size").gauge().value());
+    }
+
+    @Test
+    void submitShouldRejectInvalidKeys() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> cache.submit("consultation-123", "", REQUEST, () -> submission("consultation-123")));
+        assertThrows(IllegalArgumentException.class,
+            () -> cache.submit("consultation-123", "k".repeat(IdempotencyCache.MAX_KEY_LENGTH + 1), REQUEST, () -> submission("consultation-123")));
+        assertEquals(0, runs.get());
+    }
+
+    private static final class MutablePatient extends CurrentPatient {
+        private volatile String id;
+
+        MutablePatient(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String id() {
+            return id;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PatientRateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private PatientRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2024-01-01T00:00:00Z"));
+        rateLimiter = new PatientRateLimiter(meterRegistry, true, 3, Duration.ofMillis(100), 2, Duration.ofSeconds(2),
+                1, Duration.ofSeconds(30), Duration.ofMinutes(1), clock);
+    }
+
+    private double rejections(String endpoint) {
+        return meterRegistry.get("consultations.ratelimit.rejections").tag("endpoint", endpoint).counter().count();
+    }
+
+    private double buckets(String endpoint) {
+        return meterRegistry.get("consultations.ratelimit.buckets").tag("endpoint", endpoint).gauge().value();
+    }
+
+    @Test
+    void acquireShouldAdmitBurstThenRejectUntilRefilled() {
+        // Given
+        for (int i = 0; i < 2; i++) {
+            rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123");
+        }
+
+        // When
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+            () -> rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123"));
+
+        // Then
+        assertEquals(2, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, rejections("answers"));
+        clock.advance(Duration.ofMillis(1999));
+        assertThrows(RateLimitExceededException.class,
+            () -> rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123"));
+        clock.advance(Duration.ofMillis(1));
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123");
+        assertEquals(2.0, rejections("answers"));
+    }
+
+    @Test
+    void acquireShouldKeepSeparateBucketsPerPatientAndEndpoint() {
+        // Given
+        for (int i = 0; i < 2; i++) {
+            rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123");
+        }
+
+        // When & Then
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-456");
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, "patient-123");
+        }
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+            () -> rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, "patient-123"));
+        assertEquals(1, rejected.getRetryAfterSeconds());
+        assertEquals(2.0, buckets("answers"));
+        assertEquals(1.0, buckets("questions"));
+        assertEquals(0.0, rejections("answers"));
+    }
+
+    @Test
+    void acquireShouldChargeBatchesAgainstTheirOwnBucket() {
+        // Given
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.BATCH, "patient-123");
+        
+        // When
+        RateLimitExceededException rejected = assertThrows(RateLimitExceededException.class,
+            () -> rateLimiter.acquire(PatientRateLimiter.Endpoint.BATCH, "patient-123"));
+        
+        // Then
+        assertEquals(30, rejected.getRetryAfterSeconds());
+        assertEquals(1.0, rejections("batch"));
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123");
+        clock.advance(Duration.ofSeconds(30));
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.BATCH, "patient-123");
+    }
+    
+    @Test
+    void evictIdleBucketsShouldOnlyRemoveBucketsFullForTheIdleTimeout() {
+        // Given
+        rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, "patient-123");
+        clock.advance(Duration.ofSeconds(30));
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, "patient-456");
+        }
+
+        // When
+        clock.advance(Duration.ofSeconds(31));
+        rateLimiter.evictIdleBuckets();
+
+        // Then
+        assertEquals(1.0, buckets("questions"));
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, "patient-123");
+        }
+        assertEquals(2.0, buckets("questions"));
+    }
+
+    @Test
+    void acquireShouldAdmitExactlyCapacityUnderContention() throws Exception {
+        // Given
+        int threads = 8;
+        AtomicInteger admitted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 100; i++) {
+                    try {
+                        rateLimiter.acquire(PatientRateLimiter.Endpoint.QUESTIONS, "patient-123");
+                        admitted.incrementAndGet();
+                    } catch (RateLimitExceededException e) {
+                        // Expected once the bucket is empty
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Then
+        assertEquals(3, admitted.get());
+        assertEquals(threads * 100 - 3, rejections("questions"));
+    }
+
+    @Test
+    void acquireShouldAdmitEverythingWhenDisabled() {
+        // Given
+        PatientRateLimiter disabled = new PatientRateLimiter(meterRegistry, false, 1, Duration.ofHours(1), 1,
+                Duration.ofHours(1), 1, Duration.ofHours(1), Duration.ofMinutes(1), clock);
+
+        // When & Then
+        for (int i = 0; i < 10; i++) {
+            disabled.acquire(PatientRateLimiter.Endpoint.ANSWERS, "patient-123");
+        }
+        assertFalse(disabled.isEnabled());
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.prescriptionservice.services;
+
+import com.prescriptionservice.models.entity.*;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.ProductRepository;
+import com.prescriptionservice.repositories.QuestionRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuestionCatalogCacheTest {
+
+    @Mock
+    private ProductRepository productRepository;
+    
+    @Mock
+    private QuestionRepository questionRepository;
+    
+    private CatalogVersion catalogVersion;
+    private QuestionCatalogCache questionCatalogCache;
+    private Product product;
+    
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion();
+        questionCatalogCache = new QuestionCatalogCache(productRepository, questionRepository, catalogVersion, new ObjectMapper());
+        product = new Product("pear-allergy", "Pear Allergy Treatment", "Treatment for pear allergies", List.of("Q1"));
+        
+        when(productRepository.findById("pear-allergy")).thenReturn(Optional.of(product));
+        Question question = new Question("Q1", "Do you experience nose itchiness when near pears?", Question.QuestionType.YES_NO, true);
+        when(questionRepository.findQuestionIndex(product)).thenReturn(ProductQuestionIndex.resolve(product.getQuestionIds(),
+            questionId -> questionId.equals(question.getId()) ? question : null));
+    }
+    
+    @Test
+    void getProductQuestionsShouldResolveQuestionsOncePerCatalogVersion() {
+        // When
+        QuestionCatalogCache.ProductQuestions first = questionCatalogCache.getProductQuestions("pear-allergy");
+        QuestionCatalogCache.ProductQuestions second = questionCatalogCache.getProductQuestions("pear-allergy");
+        
+        // Then
+        assertSame(first, second);
+        assertEquals("Q1", first.questionDtos().get(0).getId());
+        assertThrows(UnsupportedOperationException.class, () -> first.questionDtos().clear());
+        assertTrue(new String(first.questionsJson(), StandardCharsets.UTF_8).contains("\"id\":\"Q1\""));
+        assertTrue(first.etag().startsWith("\"") && first.etag().endsWith("\""));
+        verify(productRepository, times(1)).findById("pear-allergy");
+        verify(questionRepository, times(1)).findQuestionIndex(product);
+    }
+    
+    @Test
+    void getProductQuestionsShouldRebuildEntryWhenCatalogChanges() {
+        // Given
+        QuestionCatalogCache.ProductQuestions first = questionCatalogCache.getProductQuestions("pear-allergy");
+        
+        // When
+        catalogVersion.increment();
+        QuestionCatalogCache.ProductQuestions second = questionCatalogCache.getProductQuestions("pear-allergy");
+        
+        // Then
+        assertNotSame(first, second);
+        assertEquals(catalogVersion.current(), second.catalogVersion());
+        verify(productRepository, times(2)).findById("pear-allergy");
+    }
+}
@@ -0,0 +1,169 @@
+package com.prescriptionservice.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prescriptionservice.exceptions.AssessmentInProgressException;
+import com.prescriptionservice.exceptions.ConsultationAccessException;
+import com.prescriptionservice.exceptions.ConsultationNotFoundException;
+import com.prescriptionservice.exceptions.InvalidAnswerSetException;
+import com.prescriptionservice.exceptions.ProductNotFoundException;
+import com.prescriptionservice.models.dto.AnswerDto;
+import com.prescriptionservice.models.dto.ConsultationRequest;
+import com.prescriptionservice.models.entity.Consultation;
+import com.prescriptionservice.repositories.CatalogStore;
+import com.prescriptionservice.repositories.CatalogVersion;
+import com.prescriptionservice.repositories.ConsultationRepositoryImpl;
+import com.prescriptionservice.repositories.PatientRepositoryImpl;
+import com.prescriptionservice.repositories.ProductRepositoryImpl;
+import com.prescriptionservice.repositories.QuestionRepositoryImpl;
+import com.prescriptionservice.repositories.reactive.ReactiveConsultationRepositoryAdapter;
+import com.prescriptionservice.repositories.reactive.ReactivePatientRepositoryAdapter;
+import com.prescriptionservice.repositories.reactive.ReactiveProductRepositoryAdapter;
+import com.prescriptionservice.repositories.reactive.ReactiveQuestionRepositoryAdapter;
+import com.prescriptionservice.services.eligibility.EligibilityRuleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveConsultationServiceTest {
+
+    private ConsultationRepositoryImpl consultationRepository;
+    private SimpleMeterRegistry meterRegistry;
+    private ReactiveConsultationService reactiveConsultationService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        CatalogVersion catalogVersion = new CatalogVersion();
+        CatalogStore catalogStore = new CatalogStore(catalogVersion, "");
+        catalogStore.initializeCatalog();
+        ProductRepositoryImpl productRepository = new ProductRepositoryImpl(catalogStore);
+        QuestionRepositoryImpl questionRepository = new QuestionRepositoryImpl(catalogStore);
+        PatientRepositoryImpl patientRepository = new PatientRepositoryImpl();
+        patientRepository.initializePatients();
+        consultationRepository = new ConsultationRepositoryImpl(new SimpleMeterRegistry(), Duration.ofMinutes(30), Duration.ofHours(24), 1000,
+                ConsultationRepositoryImpl.CapacityPolicy.REJECT_NEW, Duration.ofSeconds(1));
+        meterRegistry = new SimpleMeterRegistry();
+        QuestionCatalogCache questionCatalogCache = new QuestionCatalogCache(productRepository, questionRepository,
+                catalogVersion, new ObjectMapper());
+        ConsultationTokenService consultationTokenService = new ConsultationTokenService(false, "", Duration.ofHours(24));
+        ConsultationMetrics consultationMetrics = new ConsultationMetrics(meterRegistry, new Duration[0]);
+
+        ConsultationService consultationService = new ConsultationService(questionCatalogCache, patientRepository,
+                consultationRepository, new EligibilityRuleEngine(new SimpleMeterRegistry()), consultationTokenService,
+                new AsyncAssessmentExecutor(new SimpleMeterRegistry(), new String[0], 1, 10, Duration.ofSeconds(1)),
+                consultationMetrics, new CurrentPatient(), Validation.buildDefaultValidatorFactory().getValidator(), 1000);
+        reactiveConsultationService = new ReactiveConsultationService(
+                questionCatalogCache,
+                catalogVersion,
+                new ReactiveProductRepositoryAdapter(productRepository),
+                new ReactiveQuestionRepositoryAdapter(questionRepository),
+                new ReactivePatientRepositoryAdapter(patientRepository),
+                new ReactiveConsultationRepositoryAdapter(consultationRepository, Schedulers.immediate()),
+                consultationService,
+                consultationTokenService,
+                consultationMetrics,
+                new CurrentPatient());
+    }
+
+    private static ConsultationRequest request(String q1, String q2, String q3, String q4, String q5) {
+        return new ConsultationRequest("John Doe", "1990-01-01", "123 Main Street, Test City, TC 12345", List.of(
+                new AnswerDto("Q1", q1),
+                new AnswerDto("Q2", q2),
+                new AnswerDto("Q3", q3),
+                new AnswerDto("Q4", q4),
+                new AnswerDto("Q5", q5)));
+    }
+
+    private String startConsultation() {
+        return reactiveConsultationService.getSerializedConsultationQuestions("pear-allergy")
+                .block()
+                .getConsultationId();
+    }
+
+    @Test
+    void getSerializedConsultationQuestionsShouldStoreConsultationForCurrentCatalog() {
+        // When & Then
+        StepVerifier.create(reactiveConsultationService.getSerializedConsultationQuestions("pear-allergy"))
+                .assertNext(response -> {
+                    Consultation consultation = consultationRepository.findById(response.getConsultationId()).orElseThrow();
+                    assertEquals("patient-123", consultation.getPatientId());
+                    assertEquals(1, consultation.getQuestionSetVersion());
+                    assertTrue(new String(response.toByteArray()).contains("\"id\":\"Q5\""));
+                    assertNotNull(response.getEtag());
+                })
+                .verifyComplete();
+        assertEquals(1, meterRegistry.get("consultations.questions").timer().count());
+    }
+
+    @Test
+    void getSerializedConsultationQuestionsShouldFailForUnknownProduct() {
+        // When & Then
+        StepVerifier.create(reactiveConsultationService.getSerializedConsultationQuestions("unknown"))
+                .expectError(ProductNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void processConsultationShouldAssessAndSaveAnswers() {
+        // Given
+        String consultationId = startConsultation();
+
+        // When & Then
+        StepVerifier.create(reactiveConsultationService.processConsultation(consultationId, request("yes", "yes", "yes", "no", "no")))
+                .assertNext(response -> {
+                    assertEquals(consultationId, response.getConsultationId());
+                    assertTrue(response.isEligible());
+                    assertEquals("ELIGIBLE", response.getStatus());
+                })
+                .verifyComplete();
+        Consultation consultation = consultationRepository.findById(consultationId).orElseThrow();
+        assertEquals(Consultation.EligibilityStatus.ELIGIBLE, consultation.getEligibilityStatus());
+        assertEquals(1, meterRegistry.get("consultations.answers").timer().count());
+    }
+
+    @Test
+    void processConsultationShouldReportTheSameErrorsAsTheBlockingService() {
+        // Given
+        String consultationId = startConsultation();
+        Consultation otherPatients = new Consultation("patient-456", "pear-allergy");
+        consultationRepository.save(otherPatients);
+
+        // When & Then
+        StepVerifier.create(reactiveConsultationService.processConsultation("missing", request("yes", "yes", "yes", "no", "no")))
+                .expectError(ConsultationNotFoundException.class)
+                .verify();
+        StepVerifier.create(reactiveConsultationService.processConsultation(otherPatients.getId(), request("yes", "yes", "yes", "no", "no")))
+                .expectError(ConsultationAccessException.class)
+                .verify();
+        StepVerifier.create(reactiveConsultationService.processConsultation(consultationId, new ConsultationRequest(
+                        "John Doe", "1990-01-01", "123 Main Street", List.of(new AnswerDto("Q1", "yes")))))
+                .expectError(InvalidAnswerSetException.class)
+                .verify();
+        assertEquals(Consultation.EligibilityStatus.PENDING,
+                consultationRepository.findById(consultationId).orElseThrow().getEligibilityStatus());
+    }
+
+    @Test
+    void processConsultationShouldRejectAnswersWhileConsultationIsAssessing() {
+        // Given
+        String consultationId = startConsultation();
+        Consultation consultation = consultationRepository.findById(consultationId).orElseThrow();
+        consultation.setEligibilityStatus(Consultation.EligibilityStatus.ASSESSING);
+        consultationRepository.save(consultation);
+
+        // When & Then
+        StepVerifier.create(reactiveConsultationService.processConsultation(consultationId, request("yes", "yes", "yes", "no", "no")))
+                .expectError(AssessmentInProgressException.class)
+                .verify();
+        assertEquals(Consultation.EligibilityStatus.ASSESSING,
+                consultationRepository.findById(consultationId).orElseThrow().getEligibilityStatus());
+    }
+}
@@ -0,0 +1,153 @@
+package com.prescriptionservice.services.eligibility;
+
+import com.prescriptionservice.models.entity.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EligibilityRuleEngineTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private EligibilityRuleEngine eligibilityRuleEngine;
+    private Product product;
+    private List<Question> questions;
+    
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        eligibilityRuleEngine = new EligibilityRuleEngine(meterRegistry);
+        product = new Product("test-product", "Test Product", "Product used in tests", List.of("Q1", "Q2", "Q3"), rules());
+    }
+    
+    private void givenQuestionTypes(Question.QuestionType q1, Question.QuestionType q2, Question.QuestionType q3) {
+        questions = List.of(
+            new Question("Q1", "Question 1", q1, true),
+            new Question("Q2", "Question 2", q2, true),
+            new Question("Q3", "Question 3", q3, true)
+        );
+    }
+    
+    private double decisionTableCount(String result) {
+        return meterRegistry.get("eligibility.decision.table").tag("result", result).counter().count();
+    }
+    
+    private static EligibilityRules rules() {
+        return new EligibilityRules(
+            List.of("Q3"),
+            new EligibilityRules.Outcome(false, "veto", Consultation.EligibilityStatus.NOT_ELIGIBLE),
+            List.of("Q1", "Q2"),
+            List.of(
+                new EligibilityRules.SymptomThreshold(1, new EligibilityRules.Outcome(true, "review", Consultation.EligibilityStatus.REQUIRES_REVIEW)),
+                new EligibilityRules.SymptomThreshold(2, new EligibilityRules.Outcome(true, "eligible", Consultation.EligibilityStatus.ELIGIBLE))
+            ),
+            new EligibilityRules.Outcome(false, "default", Consultation.EligibilityStatus.NOT_ELIGIBLE)
+        );
+    }
+    
+    @Test
+    void assessShouldApplyHighestMatchingThresholdRegardlessOfDeclarationOrder() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.YES_NO, Question.QuestionType.YES_NO);
+        
+        EligibilityAssessment assessment = eligibilityRuleEngine.assess(product, questions, List.of(
+            new Answer("Q1", "YES"),
+            new Answer("Q2", "yes"),
+            new Answer("Q3", "no")
+        ));
+        
+        assertEquals(Consultation.EligibilityStatus.ELIGIBLE, assessment.status());
+        assertEquals("eligible", assessment.message());
+    }
+    
+    @Test
+    void assessShouldVetoWhenVetoQuestionAnsweredYes() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.YES_NO, Question.QuestionType.YES_NO);
+        
+        EligibilityAssessment assessment = eligibilityRuleEngine.assess(product, questions, List.of(
+            new Answer("Q1", "yes"),
+            new Answer("Q2", "yes"),
+            new Answer("Q3", "yes")
+        ));
+        
+        assertFalse(assessment.eligible());
+        assertEquals("veto", assessment.message());
+    }
+    
+    @Test
+    void assessShouldIgnoreUnknownQuestionsAndRepeatedAnswers() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.YES_NO, Question.QuestionType.TEXT);
+        
+        EligibilityAssessment assessment = eligibilityRuleEngine.assess(product, questions, List.of(
+            new Answer("Q1", "yes"),
+            new Answer("Q1", "no"),
+            new Answer("Q9", "yes"),
+            new Answer("Q3", "no"),
+            new Answer("Q3", "yes")
+        ));
+        
+        assertEquals(Consultation.EligibilityStatus.REQUIRES_REVIEW, assessment.status());
+    }
+    
+    @Test
+    void assessShouldRecompileWhenProductRulesAreReplaced() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.YES_NO, Question.QuestionType.YES_NO);
+        
+        List<Answer> answers = List.of(new Answer("Q1", "yes"));
+        assertEquals("review", eligibilityRuleEngine.assess(product, questions, answers).message());
+        
+        EligibilityRules replacement = rules();
+        replacement.setVetoQuestionIds(List.of("Q1"));
+        product.setEligibilityRules(replacement);
+        
+        assertEquals("veto", eligibilityRuleEngine.assess(product, questions, answers).message());
+    }
+    
+    @Test
+    void assessShouldUseDecisionTableWhenAllQuestionsAreYesNo() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.YES_NO, Question.QuestionType.YES_NO);
+        
+        EligibilityAssessment assessment = eligibilityRuleEngine.assess(product, questions, List.of(new Answer("Q2", "yes")));
+        
+        assertEquals("review", assessment.message());
+        assertTrue(eligibilityRuleEngine.compiledRulesFor(product, questions).hasDecisionTable());
+        assertEquals(1.0, decisionTableCount("hit"));
+        assertEquals(0.0, decisionTableCount("fallback"));
+    }
+    
+    @Test
+    void assessShouldFallBackToRuleEvaluationWhenProductHasNonYesNoQuestions() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.MULTIPLE_CHOICE, Question.QuestionType.YES_NO);
+        
+        EligibilityAssessment assessment = eligibilityRuleEngine.assess(product, questions, List.of(new Answer("Q1", "yes"), new Answer("Q2", "yes")));
+        
+        assertEquals("eligible", assessment.message());
+        assertFalse(eligibilityRuleEngine.compiledRulesFor(product, questions).hasDecisionTable());
+        assertEquals(0.0, decisionTableCount("hit"));
+        assertEquals(1.0, decisionTableCount("fallback"));
+    }
+    
+    @Test
+    void decisionTableShouldAgreeWithRuleEvaluationForEveryAnswerCombination() {
+        givenQuestionTypes(Question.QuestionType.YES_NO, Question.QuestionType.YES_NO, Question.QuestionType.YES_NO);
+        CompiledEligibilityRules table = CompiledEligibilityRules.compile(product, questions);
+        CompiledEligibilityRules rules = CompiledEligibilityRules.compile(product);
+        
+        assertTrue(table.hasDecisionTable());
+        for (long mask = 0; mask < 8; mask++) {
+            assertSame(rules.evaluate(mask).status(), table.evaluate(mask).status());
+            assertEquals(rules.evaluate(mask).message(), table.evaluate(mask).message());
+        }
+    }
+    
+    @Test
+    void compileShouldRejectRulesReferencingQuestionsOutsideTheProduct() {
+        EligibilityRules rules = rules();
+        rules.setVetoQuestionIds(List.of("Q7"));
+        product.setEligibilityRules(rules);
+        
+        assertThrows(IllegalStateException.class, () -> CompiledEligibilityRules.compile(product));
+    }
+}